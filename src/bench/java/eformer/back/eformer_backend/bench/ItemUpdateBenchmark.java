@@ -0,0 +1,45 @@
+package eformer.back.eformer_backend.bench;
+
+import eformer.back.eformer_backend.api.v1.ItemsApi;
+import eformer.back.eformer_backend.model.Item;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measures the setter dispatch used by `ItemsApi.updateItem`, without the repository calls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemUpdateBenchmark {
+    private ItemsApi api;
+
+    private Item item;
+
+    private HashMap<String, Object> props;
+
+    @Setup
+    public void setup() {
+        api = new ItemsApi(null, null, null, null, null, null, null);
+        item = new Item("Espresso", "Single shot", 100, 2.5, 0.8);
+
+        props = new HashMap<>();
+        props.put("name", "Double Espresso");
+        props.put("description", "Two shots");
+        props.put("quantity", 80);
+        props.put("unitPrice", 3.5);
+        props.put("cost", 1);
+    }
+
+    @Benchmark
+    public Item applyUpdate() {
+        api.applyUpdate(item, props);
+        return item;
+    }
+}
@@ -0,0 +1,44 @@
+package eformer.back.eformer_backend.bench;
+
+import eformer.back.eformer_backend.model.User;
+import eformer.back.eformer_backend.utility.auth.JwtService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+    private JwtService jService;
+
+    private User user;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        jService = new JwtService();
+        user = new User("bench", "bench@eformer.io", "password", 1, "Bench User");
+        token = jService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jService.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean verifyToken() {
+        return jService.isTokenValid(token, user);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jService.extractUsername(token);
+    }
+}
@@ -0,0 +1,81 @@
+package eformer.back.eformer_backend.bench;
+
+import eformer.back.eformer_backend.model.Order;
+import eformer.back.eformer_backend.model.User;
+import eformer.back.eformer_backend.support.InMemoryCounterIssuer;
+import eformer.back.eformer_backend.support.InMemoryItemRepository;
+import eformer.back.eformer_backend.support.InMemoryOrderItemsRepository;
+import eformer.back.eformer_backend.support.InMemoryOrderRepository;
+import eformer.back.eformer_backend.utility.orders.OrderService;
+import eformer.back.eformer_backend.utility.sequence.ChangeSequencer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measures `OrderService.create` & `OrderService.confirm` against in-memory repositories,
+ * isolating the domain arithmetic from database latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderArithmeticBenchmark {
+    private static final int STOCK = 1_000_000_000;
+
+    private InMemoryItemRepository items;
+
+    private InMemoryOrderItemsRepository orderItems;
+
+    private InMemoryOrderRepository orders;
+
+    private OrderService service;
+
+    private User customer;
+
+    private User employee;
+
+    private HashMap<String, Integer> basket;
+
+    @Param({"1", "10", "50"})
+    public int basketSize;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        items = new InMemoryItemRepository();
+        orderItems = new InMemoryOrderItemsRepository();
+        orders = new InMemoryOrderRepository();
+        service = new OrderService(orders, orderItems, items, event -> {},
+                new ChangeSequencer(new InMemoryCounterIssuer(), 0));
+        customer = new User("customer", "customer@eformer.io", "password", 0);
+        employee = new User("employee", "employee@eformer.io", "password", 1);
+        basket = new HashMap<>();
+
+        for (int i = 1; i <= basketSize; i++) {
+            items.stock(i, "Item " + i, STOCK, 2.0 + i, 1.0 + i);
+            basket.put(String.valueOf(i), 1 + i % 3);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void clearLines() {
+        /* Keep the stores from growing, lookups scan them */
+        orderItems.deleteAll();
+        orders.deleteAll();
+    }
+
+    @Benchmark
+    public Order addItems() {
+        return service.create(customer, employee, "", basket);
+    }
+
+    @Benchmark
+    public Order addItemsAndConfirm() {
+        var order = service.create(customer, employee, "", basket);
+        return service.confirm(order, order.getTotal());
+    }
+}
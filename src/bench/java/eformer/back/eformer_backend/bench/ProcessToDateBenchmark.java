@@ -0,0 +1,31 @@
+package eformer.back.eformer_backend.bench;
+
+import eformer.back.eformer_backend.api.v1.BaseApi;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcessToDateBenchmark {
+    private BaseApi api;
+
+    @Param({"2023-05-14T13:45:10", "2023-05-14T13:45:10.123"})
+    public String date;
+
+    @Setup
+    public void setup() {
+        api = new BaseApi(null, null);
+    }
+
+    @Benchmark
+    public Date processToDate() {
+        return api.processToDate(date);
+    }
+}
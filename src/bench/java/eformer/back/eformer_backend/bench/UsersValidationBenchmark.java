@@ -0,0 +1,45 @@
+package eformer.back.eformer_backend.bench;
+
+import eformer.back.eformer_backend.api.v1.UsersApi;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UsersValidationBenchmark {
+    private UsersApi api;
+
+    @Param({"cashier_01", "not a username!"})
+    public String username;
+
+    @Param({"cashier.one@store.example.com", "missing-at-sign"})
+    public String email;
+
+    @Setup
+    public void setup() {
+        api = new UsersApi(null, null, null, null, null);
+    }
+
+    @Benchmark
+    public boolean validateUsername() {
+        return api.isNotValidUsername(username);
+    }
+
+    @Benchmark
+    public boolean validateEmail() {
+        return api.isNotValidEmail(email);
+    }
+
+    @Benchmark
+    public void validateBoth(Blackhole hole) {
+        hole.consume(api.isNotValidUsername(username));
+        hole.consume(api.isNotValidEmail(email));
+    }
+}
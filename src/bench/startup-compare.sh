@@ -0,0 +1,83 @@
+#!/usr/bin/env bash
+#
+# Startup time & resident memory of the JVM, AOT & native builds, measured on this machine.
+#
+# Build first (see the native profile in pom.xml):
+#   ./mvnw -P native package           target/eformer.backend.jar, runs as JVM & as JVM + AOT
+#   ./mvnw -P native native:compile    target/eformer.backend
+#
+# Then: src/bench/startup-compare.sh [runs]
+# The database comes from the usual SPRING_DATASOURCE_* variables. Ready means the
+# management health endpoint answers UP, RSS is read from /proc (Linux only) once ready.
+# Prints the median of `runs` starts (default 5) per build, builds that are missing are skipped.
+
+set -euo pipefail
+
+RUNS=${1:-5}
+JAR=${JAR:-target/eformer.backend.jar}
+NATIVE=${NATIVE:-target/eformer.backend}
+HEALTH=${HEALTH:-http://127.0.0.1:8081/actuator/health}
+TIMEOUT_S=${TIMEOUT_S:-120}
+
+now_ms() {
+    date +%s%3N
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+# Starts the command, prints "<ms to ready> <RSS in KiB>" & stops it
+measure() {
+    local start pid deadline
+
+    start=$(now_ms)
+    "$@" > /dev/null 2>&1 &
+    pid=$!
+    deadline=$((start + TIMEOUT_S * 1000))
+
+    until curl -fs "$HEALTH" 2> /dev/null | grep -q '"UP"'; do
+        if ! kill -0 "$pid" 2> /dev/null || [ "$(now_ms)" -gt "$deadline" ]; then
+            kill "$pid" 2> /dev/null || true
+            echo "Not ready after ${TIMEOUT_S} s: $*" >&2
+            return 1
+        fi
+
+        sleep 0.05
+    done
+
+    echo "$(($(now_ms) - start)) $(awk '/^VmRSS/ { print $2 }' "/proc/$pid/status")"
+
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+}
+
+compare() {
+    local name=$1 times=() rss=() result
+    shift
+
+    for ((i = 0; i < RUNS; i++)); do
+        result=$(measure "$@") || return 1
+        times+=("${result% *}")
+        rss+=("${result#* }")
+    done
+
+    printf '%-10s %8s ms %8s MiB\n' "$name" \
+        "$(printf '%s\n' "${times[@]}" | median)" \
+        "$(($(printf '%s\n' "${rss[@]}" | median) / 1024))"
+}
+
+printf '%-10s %11s %12s\n' build ready rss
+
+if [ -f "$JAR" ]; then
+    compare jvm java -jar "$JAR"
+    compare jvm+aot java -Dspring.aot.enabled=true -jar "$JAR"
+else
+    echo "No $JAR, skipping the JVM builds" >&2
+fi
+
+if [ -x "$NATIVE" ]; then
+    compare native "$NATIVE"
+else
+    echo "No $NATIVE, skipping the native build" >&2
+fi
@@ -3,9 +3,14 @@ package eformer.back.eformer_backend.api.v1;
 import eformer.back.eformer_backend.api.v1.request.AuthenticationRequest;
 import eformer.back.eformer_backend.api.v1.request.RegisterRequest;
 import eformer.back.eformer_backend.api.v1.response.AuthenticationResponse;
+import eformer.back.eformer_backend.utility.PasswordHashingRejectedException;
 import eformer.back.eformer_backend.utility.auth.AuthenticationService;
+import eformer.back.eformer_backend.utility.auth.LoginAttemptLimiter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.*;
 
 
@@ -14,8 +19,19 @@ import org.springframework.web.bind.annotation.*;
 public class AuthApi {
     private final AuthenticationService authService;
 
-    public AuthApi(AuthenticationService authService) {
+    private final LoginAttemptLimiter limiter;
+
+    public AuthApi(AuthenticationService authService, LoginAttemptLimiter limiter) {
         this.authService = authService;
+        this.limiter = limiter;
+    }
+
+    public static <T> ResponseEntity<T> hashingUnavailable() {
+        var headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+
+        /* 503 */
+        return new ResponseEntity<>(headers, HttpStatus.SERVICE_UNAVAILABLE);
     }
 
     @PostMapping("register")
@@ -26,7 +42,11 @@ public class AuthApi {
         try {
             /* 200 */
             return new ResponseEntity<>(authService.register(request), HttpStatus.OK);
-        } catch (Exception ignored) {
+        } catch (Exception e) {
+            if (PasswordHashingRejectedException.isCauseOf(e)) {
+                return hashingUnavailable();
+            }
+
             /* 400 */
             return new ResponseEntity<>(HttpStatus.FORBIDDEN);
         }
@@ -36,12 +56,35 @@ public class AuthApi {
     @PostMapping("authenticate")
     @ResponseBody
     public ResponseEntity<AuthenticationResponse> authenticate(
-            @RequestBody AuthenticationRequest request
+            @RequestBody AuthenticationRequest request,
+            HttpServletRequest servletRequest
     ) {
+        var address = servletRequest.getRemoteAddr();
+
+        /* Checked before any hashing or lookup so guessing costs nothing */
+        if (limiter.isBlocked(request.getUsername(), address)) {
+            var headers = new HttpHeaders();
+            headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(limiter.getWindowSeconds()));
+
+            /* 429 */
+            return new ResponseEntity<>(headers, HttpStatus.TOO_MANY_REQUESTS);
+        }
+
         try {
+            var response = authService.authenticate(request);
+            limiter.recordSuccess(request.getUsername());
+
             /* 200 */
-            return new ResponseEntity<>(authService.authenticate(request), HttpStatus.OK);
-        } catch (Exception ignored) {
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (Exception e) {
+            if (PasswordHashingRejectedException.isCauseOf(e)) {
+                return hashingUnavailable();
+            }
+
+            if (e instanceof AuthenticationException) {
+                limiter.recordFailure(request.getUsername(), address);
+            }
+
             /* 400 */
             return new ResponseEntity<>(HttpStatus.FORBIDDEN);
         }
@@ -6,7 +6,9 @@ import eformer.back.eformer_backend.utility.auth.JwtService;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.Date;
 import java.util.HashMap;
 
@@ -45,7 +47,17 @@ public class BaseApi {
         return user.isManager();
     }
 
+    /**
+     * Parses an ISO-8601 date-time, fractions are accepted.
+     * An offset (e.g. `Z`) is honoured when present, otherwise the server's zone is assumed.
+     * */
     public Date processToDate(String date) {
-        return Date.from(LocalDateTime.parse(date.split("\\.")[0]).atZone(ZoneId.systemDefault()).toInstant());
+        var parsed = DateTimeFormatter.ISO_DATE_TIME.parseBest(date.trim(), OffsetDateTime::from, LocalDateTime::from);
+
+        if (parsed instanceof OffsetDateTime offsetDateTime) {
+            return Date.from(offsetDateTime.toInstant());
+        }
+
+        return Date.from(((LocalDateTime) parsed).atZone(ZoneId.systemDefault()).toInstant());
     }
 }
@@ -4,100 +4,98 @@ import eformer.back.eformer_backend.model.Item;
 import eformer.back.eformer_backend.repository.ItemRepository;
 import eformer.back.eformer_backend.repository.UserRepository;
 import eformer.back.eformer_backend.utility.auth.JwtService;
+import eformer.back.eformer_backend.utility.catalog.CatalogService;
+import eformer.back.eformer_backend.utility.search.ItemSearchIndex;
+import eformer.back.eformer_backend.utility.search.PrefixIndex;
+import eformer.back.eformer_backend.utility.stream.ItemDelta;
+import eformer.back.eformer_backend.utility.stream.ItemDeltaStream;
+import eformer.back.eformer_backend.utility.validation.RequestValidator;
+import eformer.back.eformer_backend.utility.validation.UniqueConstraints;
+import eformer.back.eformer_backend.utility.validation.ValidationError;
+import eformer.back.eformer_backend.utility.validation.ValidationErrors;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 
 
 @RestController
 @RequestMapping("/api/v1/items/")
 public class ItemsApi extends BaseApi {
-    final ItemRepository manager;
+    public static final int MAX_SEARCH_LIMIT = 100;
 
-    public ItemsApi(ItemRepository manager, JwtService jService, UserRepository userRepo) {
-        super(jService, userRepo);
-        this.manager = manager;
-    }
+    public static final int MAX_CHANGES_LIMIT = 1000;
 
-    public StringBuilder checkItem(Item item) {
-        var error = new StringBuilder();
-
-        if (item.getQuantity() <= 0) {
-            error.append(String.format("Invalid quantity %d must be a positive integer\n",
-                    item.getQuantity()));
-        }
+    final ItemRepository manager;
 
-        if (manager.existsByNameIgnoreCase(item.getName())) {
-            error.append(String.format("Invalid item name '%s' already taken\n",
-                    item.getName()));
-        }
+    final RequestValidator validator;
 
-        if (item.getUnitPrice() <= 0) {
-            error.append(String.format("Invalid unit price %f must be a positive number\n",
-                    item.getUnitPrice()));
-        }
+    final ItemSearchIndex searchIndex;
 
-        if (item.getCost() <= 0) {
-            error.append(String.format("Invalid cost price %f must be a positive number\n",
-                    item.getCost()));
-        }
+    final ItemDeltaStream stream;
 
-        if (item.getItemId() > 0) {
-            error.append("Cannot supply own ID\n");
-        }
+    final CatalogService catalog;
 
-        return error;
+    public ItemsApi(ItemRepository manager, JwtService jService,
+                    UserRepository userRepo, RequestValidator validator,
+                    ItemSearchIndex searchIndex, ItemDeltaStream stream,
+                    CatalogService catalog) {
+        super(jService, userRepo);
+        this.manager = manager;
+        this.validator = validator;
+        this.searchIndex = searchIndex;
+        this.stream = stream;
+        this.catalog = catalog;
     }
 
-    public StringBuilder checkItemForUpdate(HashMap<String, Object> item) {
-        var error = new StringBuilder();
-
-        var quantity = (Integer) item.get("quantity");
-        var name = (String) item.get("name");
-        Double unitPrice;
-        Double cost;
-
-        try {
-            unitPrice = (Double) item.get("unitPrice");
-        } catch (ClassCastException ignored) {
-            unitPrice = Double.valueOf((Integer) item.get("unitPrice"));
-        }
-
-        try {
-            cost = (Double) item.get("cost");
-        } catch (ClassCastException ignored) {
-            cost = Double.valueOf((Integer) item.get("cost"));
-        }
-
-        var itemId = (Integer) item.get("itemId");
-
-        if (quantity != null && quantity <= 0) {
-            error.append(String.format("Invalid quantity %d must be a positive integer\n",
-                    quantity));
-        }
-
-        if (name != null && !manager.existsByNameIgnoreCase(name)) {
-            error.append(String.format("Invalid item '%s' does not exist\n",
-                    name));
-        }
-
-        if (unitPrice != null && unitPrice <= 0) {
-            error.append(String.format("Invalid unit price %f must be a positive number\n",
-                    unitPrice));
-        }
-
-        if (cost != null && cost <= 0) {
-            error.append(String.format("Invalid cost price %f must be a positive number\n",
-                    cost));
-        }
-
-        if (!manager.existsById(itemId)) {
-            error.append(String.format("Item (ID: %d) does not exist\n", itemId));
+    /**
+     * Calls the setter matching each given property,
+     * unknown properties & values of the wrong type are ignored.
+     * */
+    public void applyUpdate(Item item, HashMap<String, Object> props) {
+        for (var prop: props.entrySet()) {
+            var value = prop.getValue();
+
+            /* Explicit, so nothing needs reflection metadata in a native image */
+            switch (prop.getKey()) {
+                case "name" -> {
+                    if (value instanceof String name) {
+                        item.setName(name);
+                    }
+                }
+                case "description" -> {
+                    if (value instanceof String description) {
+                        item.setDescription(description);
+                    }
+                }
+                case "quantity" -> {
+                    if (value instanceof Integer quantity) {
+                        item.setQuantity(quantity);
+                    }
+                }
+                case "unitPrice" -> {
+                    if (value instanceof Double unitPrice) {
+                        item.setUnitPrice(unitPrice);
+                    } else if (value instanceof Integer unitPrice) {
+                        item.setUnitPrice(unitPrice);
+                    }
+                }
+                case "cost" -> {
+                    if (value instanceof Double cost) {
+                        item.setCost(cost);
+                    } else if (value instanceof Integer cost) {
+                        item.setCost(cost);
+                    }
+                }
+                default -> {
+                }
+            }
         }
-
-        return error;
     }
 
     @GetMapping("getById")
@@ -130,14 +128,78 @@ public class ItemsApi extends BaseApi {
     @ResponseBody
     public ResponseEntity<Object> getItems() {
         try {
+            /* 200, retired items are only seen through getChangesSince & by ID */
+            return new ResponseEntity<>(manager.findAllByRetiredFalse(), HttpStatus.OK);
+        } catch (Exception e) {
+            /* 400 */
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Items whose name or description has words starting with every word of `q`, best match first.
+     * Matches in the name rank above the description, whole words above prefixes.
+     * */
+    @GetMapping("search")
+    @ResponseBody
+    public ResponseEntity<Object> search(@RequestParam(name = "q") String query,
+                                         @RequestParam(name = "limit", defaultValue = "10") Integer limit) {
+        try {
+            if (PrefixIndex.tokens(query).isEmpty()) {
+                /* 422 */
+                return new ResponseEntity<>("Query must contain a letter or digit", HttpStatus.UNPROCESSABLE_ENTITY);
+            } else if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+                /* 422 */
+                return new ResponseEntity<>("Limit must be between 1 and " + MAX_SEARCH_LIMIT,
+                        HttpStatus.UNPROCESSABLE_ENTITY);
+            }
+
+            var ids = searchIndex.search(query, limit);
+            var byId = new HashMap<Integer, Item>();
+
+            for (var item: manager.findAllById(ids)) {
+                byId.put(item.getItemId(), item);
+            }
+
+            var result = new ArrayList<Item>(ids.size());
+
+            /* Keep the ranking, skip items deleted since they were indexed */
+            for (var id: ids) {
+                var item = byId.get(id);
+
+                if (item != null) {
+                    result.add(item);
+                }
+            }
+
             /* 200 */
-            return new ResponseEntity<>(manager.findAll(), HttpStatus.OK);
+            return new ResponseEntity<>(result, HttpStatus.OK);
         } catch (Exception e) {
             /* 400 */
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
         }
     }
 
+    /**
+     * Server-sent events of `items`, each a JSON array of {itemId, quantity, unitPrice, version} for the items
+     * changed since the previous one, & `resync` when the client fell too far behind & must reload.
+     * Deltas may arrive out of order across events, clients drop one whose `version` is not above the item's
+     * version they hold, from the catalog or an earlier delta.
+     * Needs a token, unlike the other item reads, as each connection holds server resources.
+     * */
+    @GetMapping(path = "stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges() {
+        var emitter = stream.subscribe();
+
+        if (emitter == null) {
+            /* 503 */
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        /* 200 */
+        return new ResponseEntity<>(emitter, HttpStatus.OK);
+    }
+
     /**
      * An item must contain:
      *  name: String
@@ -155,14 +217,89 @@ public class ItemsApi extends BaseApi {
                         HttpStatus.FORBIDDEN);
             }
 
-            var error = checkItem(item);
+            var errors = validator.checkItem(item);
+
+            if (!errors.isEmpty()) {
+                return errors.toResponse(); /* 422 */
+            }
+
+            var saved = catalog.create(item);
+
+            searchIndex.put(saved);
+            stream.publish(ItemDelta.of(saved));
+
+            /* 200 */
+            return new ResponseEntity<>(saved, HttpStatus.OK);
+        } catch (DataIntegrityViolationException e) {
+            if (!UniqueConstraints.isViolated(e, UniqueConstraints.ITEM_NAME)) {
+                throw e; /* Not a taken name, 500 */
+            }
+
+            /* Unique name constraint, 422 */
+            return ValidationErrors.of(ValidationError.ITEM_NAME_TAKEN, item.getName()).toResponse();
+        } catch (Exception e) {
+            /* 400 */
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Items changed after `version`, oldest change first, retired ones included with `retired` set.
+     * Clients keep the returned `version` & ask again while `hasMore`, starting from 0.
+     * Changes of the last `eformer.sequence.commit-lag-ms` are held back, see ChangeSequencer.
+     * */
+    @GetMapping("getChangesSince")
+    @ResponseBody
+    public ResponseEntity<Object> getChangesSince(@RequestParam(name = "version") Long version,
+                                                  @RequestParam(name = "limit", defaultValue = "500") Integer limit) {
+        try {
+            if (version < 0 || limit < 1 || limit > MAX_CHANGES_LIMIT) {
+                /* 422 */
+                return new ResponseEntity<>("Version must be >= 0 & limit between 1 and " + MAX_CHANGES_LIMIT,
+                        HttpStatus.UNPROCESSABLE_ENTITY);
+            }
+
+            /* One extra to know whether more follow */
+            var changes = catalog.changesSince(version, limit + 1);
+            var hasMore = changes.size() > limit;
+
+            changes = changes.subList(0, Math.min(limit, changes.size()));
+
+            var response = new HashMap<String, Object>();
 
-            if (error.length() > 0) {
-                return new ResponseEntity<>(error.toString(), HttpStatus.UNPROCESSABLE_ENTITY); /* 422 */
+            response.put("items", changes);
+            response.put("version", changes.isEmpty() ? version : changes.get(changes.size() - 1).getChangeVersion());
+            response.put("hasMore", hasMore);
+
+            /* 200 */
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (Exception e) {
+            /* 400 */
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Takes the item with the given ID off sale, it stays readable as a tombstone.
+     * */
+    @PostMapping("retire")
+    @ResponseBody
+    public ResponseEntity<Object> retire(@RequestHeader HashMap<String, String> header,
+                                         @RequestBody Integer itemId) {
+        try {
+            if (!canUserChange(header)) {
+                /* 403 */
+                return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+            } else if (!manager.existsById(itemId)) {
+                return ValidationErrors.of(ValidationError.ITEM_NOT_FOUND, itemId).toResponse(); /* 422 */
             }
 
+            var retired = catalog.retire(itemId);
+
+            searchIndex.put(retired);
+
             /* 200 */
-            return new ResponseEntity<>(manager.save(item), HttpStatus.OK);
+            return new ResponseEntity<>(retired, HttpStatus.OK);
         } catch (Exception e) {
             /* 400 */
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
@@ -206,10 +343,10 @@ public class ItemsApi extends BaseApi {
                 return new ResponseEntity<>(HttpStatus.FORBIDDEN);
             }
 
-            var error = checkItemForUpdate(props);
+            var errors = validator.checkItemUpdate(props);
 
-            if (error.length() > 0) {
-                return new ResponseEntity<>(error.toString(), HttpStatus.UNPROCESSABLE_ENTITY); /* 422 */
+            if (!errors.isEmpty()) {
+                return errors.toResponse(); /* 422 */
             }
 
             var item = manager.findById((Integer) props.get("itemId")).orElseThrow();
@@ -217,23 +354,24 @@ public class ItemsApi extends BaseApi {
             props.remove("itemId");
             props.remove("introductionDate");
             props.remove("IntroductionDate");
+            props.remove("changeVersion");
+            props.remove("retired");
 
-            for (var prop: props.keySet()) {
-                try {
-                    var value = props.get(prop);
-
-                    /* Use reflection to call setters */
-                    Item.class.getDeclaredMethod(
-                            "set"
-                                    + prop.substring(0, 1).toUpperCase()
-                                    + prop.substring(1),
-                            value.getClass()
-                    ).invoke(item, value);
-                } catch (Exception ignored) {
-                }
+            applyUpdate(item, props);
+
+            var saved = catalog.save(item);
+
+            searchIndex.put(saved);
+            stream.publish(ItemDelta.of(saved));
+
+            return new ResponseEntity<>(saved, HttpStatus.OK); /* 200 */
+        } catch (DataIntegrityViolationException e) {
+            if (!UniqueConstraints.isViolated(e, UniqueConstraints.ITEM_NAME)) {
+                throw e; /* Not a taken name, 500 */
             }
 
-            return new ResponseEntity<>(manager.save(item), HttpStatus.OK); /* 200 */
+            /* Unique name constraint, 422 */
+            return ValidationErrors.of(ValidationError.ITEM_NAME_TAKEN, props.get("name")).toResponse();
         } catch (Exception e) {
             /* 400 */
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
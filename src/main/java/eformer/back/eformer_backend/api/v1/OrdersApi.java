@@ -1,10 +1,17 @@
 package eformer.back.eformer_backend.api.v1;
 
-import eformer.back.eformer_backend.model.Order;
+import eformer.back.eformer_backend.api.v1.request.TimeRange;
 import eformer.back.eformer_backend.model.User;
+import eformer.back.eformer_backend.repository.OrderItemsRepository;
 import eformer.back.eformer_backend.repository.OrderRepository;
 import eformer.back.eformer_backend.repository.UserRepository;
+import eformer.back.eformer_backend.utility.InvalidOrderUpdateException;
+import eformer.back.eformer_backend.utility.archive.OrderHistory;
 import eformer.back.eformer_backend.utility.auth.JwtService;
+import eformer.back.eformer_backend.utility.idempotency.IdempotencyService;
+import eformer.back.eformer_backend.utility.orders.OrderService;
+import eformer.back.eformer_backend.utility.stats.DashboardService;
+import eformer.back.eformer_backend.utility.stats.ReportCoalescer;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -15,39 +22,64 @@ import java.util.HashMap;
 @RestController
 @RequestMapping("/api/v1/orders/")
 public class OrdersApi extends BaseApi {
+    public static final int MAX_CHANGES_LIMIT = 1000;
+
     final OrderRepository manager;
 
     final UserRepository usersManager;
 
     final JwtService jService;
 
+    final DashboardService dashboard;
+
+    final OrderService orderService;
+
+    final OrderItemsRepository orderItemsManager;
+
+    final IdempotencyService idempotency;
+
+    final ReportCoalescer reports;
+
+    final OrderHistory history;
+
     public OrdersApi(OrderRepository manager,
                      UserRepository usersManager,
-                     JwtService jService) {
+                     JwtService jService,
+                     DashboardService dashboard,
+                     OrderService orderService,
+                     OrderItemsRepository orderItemsManager,
+                     IdempotencyService idempotency,
+                     ReportCoalescer reports,
+                     OrderHistory history) {
         super(jService, usersManager);
         this.manager = manager;
         this.usersManager = usersManager;
         this.jService = jService;
+        this.dashboard = dashboard;
+        this.orderService = orderService;
+        this.orderItemsManager = orderItemsManager;
+        this.idempotency = idempotency;
+        this.reports = reports;
+        this.history = history;
     }
 
     public ResponseEntity<Object> getStatistics(HashMap<String, String> header,
                                                 Integer type) {
         if (!canUserChange(header)) {
-            System.out.println(header);
-            System.out.println(extractUser(header));
             /* 403 */
             return new ResponseEntity<>("User is not a manager", HttpStatus.FORBIDDEN);
         }
 
         Object result;
 
+        /* Identical concurrent reports share one query, all-time reports include archived orders */
         switch (type) {
-            case 1 -> result = manager.getTotalSales();
-            case 2 -> result = manager.getAllPaid();
-            case 3 -> result = manager.getTotalSoldQuantity();
-            case 4 -> result = manager.getTotalActualSales();
-            case 5 -> result = manager.findAll();
-            case 6 -> result = manager.getTotalProfit();
+            case 1 -> result = reports.get("orders/totalSales", history::getTotalSales);
+            case 2 -> result = reports.get("orders/allPaid", history::getAllPaid);
+            case 3 -> result = reports.get("orders/totalSoldQuantity", history::getTotalSoldQuantity);
+            case 4 -> result = reports.get("orders/totalActualSales", history::getTotalActualSales);
+            case 5 -> result = reports.get("orders/all", history::findAll);
+            case 6 -> result = reports.get("orders/totalProfit", history::getTotalProfit);
             default -> result = null;
         }
 
@@ -76,8 +108,8 @@ public class OrdersApi extends BaseApi {
 
             /* 200 */
             return new ResponseEntity<>(
-                    isAfter ? manager.findAllByCreationDateAfter(processToDate(date)) :
-                            manager.findAllByCreationDateBefore(processToDate(date)),
+                    isAfter ? history.findAllByCreationDateAfter(processToDate(date)) :
+                            history.findAllByCreationDateBefore(processToDate(date)),
                     HttpStatus.OK
             );
         } catch (Exception e) {
@@ -189,7 +221,7 @@ public class OrdersApi extends BaseApi {
         try {
             if (canUserChange(header)) {
                 /* 200 */
-                return new ResponseEntity<>(manager.findAllByStatus(status), HttpStatus.OK);
+                return new ResponseEntity<>(history.findAllByStatus(status), HttpStatus.OK);
             }
 
             /* 403 */
@@ -242,7 +274,7 @@ public class OrdersApi extends BaseApi {
 
             /* 200 */
             return new ResponseEntity<>(
-                    manager.findAllByCreationDateBetween(processToDate(start),
+                    history.findAllByCreationDateBetween(processToDate(start),
                             processToDate(end)),
                     HttpStatus.OK
             );
@@ -252,6 +284,91 @@ public class OrdersApi extends BaseApi {
         }
     }
 
+    /**
+     * Orders created, updated, confirmed or cancelled after `sequence`, oldest change first.
+     * Requires:
+     *  sequence: Cursor, 0 at first then the returned `sequence`
+     *  limit: Page size, 500 by default
+     * Clients ask again while `hasMore`.
+     * Changes of the last `eformer.sequence.commit-lag-ms` are held back, see ChangeSequencer.
+     * */
+    @PostMapping("getChangesSince")
+    @ResponseBody
+    public ResponseEntity<Object> getChangesSince(
+            @RequestHeader HashMap<String, String> header,
+            @RequestBody HashMap<String, Object> body
+    ) {
+        try {
+            if (!canUserChange(header)) {
+                /* 403 */
+                return new ResponseEntity<>("Sender is not an employee",
+                        HttpStatus.FORBIDDEN);
+            }
+
+            var sequence = ((Number) body.get("sequence")).longValue();
+            var limit = ((Number) body.getOrDefault("limit", 500)).intValue();
+
+            if (sequence < 0 || limit < 1 || limit > MAX_CHANGES_LIMIT) {
+                /* 422 */
+                return new ResponseEntity<>("Sequence must be >= 0 & limit between 1 and " + MAX_CHANGES_LIMIT,
+                        HttpStatus.UNPROCESSABLE_ENTITY);
+            }
+
+            /* One extra to know whether more follow */
+            var changes = orderService.changesSince(sequence, limit + 1);
+            var hasMore = changes.size() > limit;
+
+            changes = changes.subList(0, Math.min(limit, changes.size()));
+
+            var response = new HashMap<String, Object>();
+
+            response.put("orders", changes);
+            response.put("sequence", changes.isEmpty() ? sequence : changes.get(changes.size() - 1).getChangeSequence());
+            response.put("hasMore", hasMore);
+
+            /* 200 */
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (Exception e) {
+            /* 400 */
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Requires:
+     *  start: ISO-8601 instant, inclusive
+     *  end: ISO-8601 instant
+     *  zone: Zone ID, e.g. `Asia/Beirut`
+     * */
+    @PostMapping("getAllInRange")
+    @ResponseBody
+    public ResponseEntity<Object> getByRange(
+            @RequestHeader HashMap<String, String> header,
+            @RequestBody TimeRange range
+    ) {
+        try {
+            var error = range.validate();
+
+            if (error != null) {
+                /* 422 */
+                return new ResponseEntity<>(error, HttpStatus.UNPROCESSABLE_ENTITY);
+            } else if (!canUserChange(header)) {
+                /* 403 */
+                return new ResponseEntity<>("Sender is not a manager",
+                        HttpStatus.FORBIDDEN);
+            }
+
+            /* 200 */
+            return new ResponseEntity<>(
+                    history.findAllByCreationDateBetween(range.getStartDate(), range.getEndDate()),
+                    HttpStatus.OK
+            );
+        } catch (Exception e) {
+            /* 400 */
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @PostMapping("getTotalSales")
     @ResponseBody
     public ResponseEntity<Object> getTotalSales(
@@ -301,16 +418,33 @@ public class OrdersApi extends BaseApi {
     }
 
     /**
-     * Requires:
-     *  orderId: The ID of the order
-     *  amountPaid: Amount paid for the order
+     * Returns every dashboard metric in a single call:
+     *  totalSales, totalSoldQuantity, totalActualSales, totalProfit, orderCount,
+     *  paid: Orders with a positive amount paid
+     *  orders: All orders
+     *  timings: Server-side computation time in milliseconds
      * */
-    @PostMapping("confirm")
+    @PostMapping("getDashboard")
     @ResponseBody
-    public ResponseEntity<Object> confirm(
-            @RequestHeader HashMap<String, String> header,
-            @RequestBody HashMap<String, Object> body
+    public ResponseEntity<Object> getDashboard(
+            @RequestHeader HashMap<String, String> header
     ) {
+        try {
+            if (!canUserChange(header)) {
+                /* 403 */
+                return new ResponseEntity<>("User is not a manager", HttpStatus.FORBIDDEN);
+            }
+
+            /* 200 */
+            return new ResponseEntity<>(reports.get("orders/dashboard", dashboard::compute), HttpStatus.OK);
+        } catch (Exception e) {
+            /* 400 */
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    public ResponseEntity<Object> confirmOrder(HashMap<String, String> header,
+                                               HashMap<String, Object> body) {
         try {
             var orderId = (Integer) body.get("orderId");
             Double amountPaid;
@@ -326,10 +460,7 @@ public class OrdersApi extends BaseApi {
                 return new ResponseEntity<>("User is not an employee", HttpStatus.FORBIDDEN);
             }
 
-            var order = manager.findById(orderId).orElseThrow();
-            order.confirm(amountPaid);
-
-            manager.save(order);
+            orderService.confirm(manager.findById(orderId).orElseThrow(), amountPaid);
 
             return new ResponseEntity<>(HttpStatus.OK);
         } catch (Exception e) {
@@ -338,6 +469,22 @@ public class OrdersApi extends BaseApi {
         }
     }
 
+    /**
+     * Requires:
+     *  orderId: The ID of the order
+     *  amountPaid: Amount paid for the order
+     * An optional `Idempotency-Key` header makes retries return the first successful response.
+     * */
+    @PostMapping("confirm")
+    @ResponseBody
+    public ResponseEntity<Object> confirm(
+            @RequestHeader HashMap<String, String> header,
+            @RequestBody HashMap<String, Object> body
+    ) {
+        return idempotency.execute("orders/confirm", header.get(IdempotencyService.HEADER),
+                () -> confirmOrder(header, body));
+    }
+
     @PostMapping("cancel")
     @ResponseBody
     public ResponseEntity<Object> cancel(
@@ -350,10 +497,7 @@ public class OrdersApi extends BaseApi {
                 return new ResponseEntity<>("User is not an employee", HttpStatus.FORBIDDEN);
             }
 
-            var order = manager.findById(orderId).orElseThrow();
-            order.cancel();
-
-            manager.save(order);
+            orderService.cancel(manager.findById(orderId).orElseThrow());
 
             return new ResponseEntity<>(HttpStatus.OK);
         } catch (Exception e) {
@@ -379,9 +523,7 @@ public class OrdersApi extends BaseApi {
 
             props.remove("orderId");
 
-            order.setItems(props);
-
-            return new ResponseEntity<>(manager.save(order), HttpStatus.OK);
+            return new ResponseEntity<>(orderService.update(order, props), HttpStatus.OK); /* 200 */
         } catch (Exception e) {
             /* 400 */
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
@@ -389,14 +531,8 @@ public class OrdersApi extends BaseApi {
     }
 
     @SuppressWarnings("unchecked")
-    @PostMapping("create")
-    @ResponseBody
-    public ResponseEntity<Object> create(
-            @RequestHeader HashMap<String, String> header,
-            @RequestBody HashMap<String, Object> body
-    ) {
-        Order order = null;
-
+    public ResponseEntity<Object> createOrder(HashMap<String, String> header,
+                                              HashMap<String, Object> body) {
         try {
             var customerId = (Integer) body.get("customerId");
             var customer = usersManager.findById(customerId).orElseThrow();
@@ -409,26 +545,35 @@ public class OrdersApi extends BaseApi {
                 return new ResponseEntity<>("User is not an employee", HttpStatus.FORBIDDEN);
             }
 
-            var primitiveOrder = new Order(customer, employee);
-            primitiveOrder.setNote(note);
-
-            if (!primitiveOrder.areValidItems(items)) {
-                /* 422 */
-                return new ResponseEntity<>("Quantities too large", HttpStatus.UNPROCESSABLE_ENTITY);
-            }
-
-            order = manager.save(primitiveOrder);
-            order.addItems(items);
-
             /* 200 */
-            return new ResponseEntity<>(order, HttpStatus.OK);
+            return new ResponseEntity<>(orderService.create(customer, employee, note, items), HttpStatus.OK);
+        } catch (InvalidOrderUpdateException e) {
+            /* Unknown item or not enough stock, 422 */
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
         } catch (Exception e) {
             /* 400 */
-            return new ResponseEntity<>(order != null ? order.getOrderId() : e.getMessage(),
-                    HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
         }
     }
 
+    /**
+     * Requires:
+     *  customerId: The ID of the customer
+     *  items: Item ID to quantity
+     * Optional:
+     *  note: String
+     * An optional `Idempotency-Key` header makes retries return the first successful response.
+     * */
+    @PostMapping("create")
+    @ResponseBody
+    public ResponseEntity<Object> create(
+            @RequestHeader HashMap<String, String> header,
+            @RequestBody HashMap<String, Object> body
+    ) {
+        return idempotency.execute("orders/create", header.get(IdempotencyService.HEADER),
+                () -> createOrder(header, body));
+    }
+
     @PostMapping("getOrderItems")
     @ResponseBody
     public ResponseEntity<Object> getOrderItems(
@@ -438,8 +583,7 @@ public class OrdersApi extends BaseApi {
         try {
             if (canUserChange(header)) {
                 /* 200 */
-                return new ResponseEntity<>(Order
-                                .orderItemsManager
+                return new ResponseEntity<>(orderItemsManager
                                 .findAllInItemIds(manager.findById(orderId).orElseThrow()),
                         HttpStatus.OK);
             }
@@ -1,12 +1,26 @@
 package eformer.back.eformer_backend.api.v1;
 
+import eformer.back.eformer_backend.api.v1.request.AnalyticsRequest;
+import eformer.back.eformer_backend.api.v1.request.HistogramRequest;
+import eformer.back.eformer_backend.api.v1.request.TimeRange;
 import eformer.back.eformer_backend.repository.ItemRepository;
 import eformer.back.eformer_backend.repository.OrderItemsRepository;
 import eformer.back.eformer_backend.repository.OrderRepository;
 import eformer.back.eformer_backend.repository.UserRepository;
+import eformer.back.eformer_backend.utility.analytics.AnalyticsEngine;
+import eformer.back.eformer_backend.utility.analytics.GroupBy;
 import eformer.back.eformer_backend.utility.auth.JwtService;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import eformer.back.eformer_backend.utility.coldstorage.ColdStorage;
+import eformer.back.eformer_backend.utility.stats.HistogramService;
+import eformer.back.eformer_backend.utility.stats.ReportCoalescer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/v1/stats/")
@@ -19,13 +33,164 @@ public class StatisticsApi extends BaseApi {
 
     final OrderItemsRepository orderItemsRepo;
 
+    final HistogramService histograms;
+
+    final ReportCoalescer reports;
+
+    final ColdStorage coldStorage;
+
+    final AnalyticsEngine analytics;
+
     public StatisticsApi(UserRepository userRepo, OrderRepository orderRepo,
                          ItemRepository itemRepo, OrderItemsRepository orderItemsRepo,
-                         JwtService jService) {
+                         JwtService jService, HistogramService histograms,
+                         ReportCoalescer reports, ColdStorage coldStorage,
+                         AnalyticsEngine analytics) {
         super(jService, userRepo);
         this.userRepo = userRepo;
         this.orderRepo = orderRepo;
         this.itemRepo = itemRepo;
         this.orderItemsRepo = orderItemsRepo;
+        this.histograms = histograms;
+        this.reports = reports;
+        this.coldStorage = coldStorage;
+        this.analytics = analytics;
+    }
+
+    /**
+     * Requires:
+     *  start: ISO-8601 instant, inclusive
+     *  end: ISO-8601 instant, exclusive
+     *  zone: Zone ID used to align the buckets, e.g. `Asia/Beirut`
+     *  bucket: HOUR, DAY or WEEK
+     * Returns the order count, revenue & profit of every bucket.
+     * */
+    @PostMapping("getOrderHistogram")
+    @ResponseBody
+    public ResponseEntity<Object> getOrderHistogram(
+            @RequestHeader HashMap<String, String> header,
+            @RequestBody HistogramRequest request
+    ) {
+        try {
+            var error = request.validate();
+
+            if (error == null && request.getBucket() == null) {
+                error = "Missing bucket";
+            }
+
+            if (error != null) {
+                /* 422 */
+                return new ResponseEntity<>(error, HttpStatus.UNPROCESSABLE_ENTITY);
+            } else if (!canUserChange(header)) {
+                /* 403 */
+                return new ResponseEntity<>("Sender is not a manager", HttpStatus.FORBIDDEN);
+            }
+
+            var key = "stats/histogram:" + request.getStart() + ":" + request.getEnd() + ":"
+                    + request.getZone() + ":" + request.getBucket();
+
+            /* 200 */
+            return new ResponseEntity<>(reports.get(key, () -> histograms.compute(request)), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            /* 422 */
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
+        } catch (Exception e) {
+            /* 400 */
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Requires:
+     *  start: ISO-8601 instant, inclusive
+     *  end: ISO-8601 instant, exclusive
+     *  zone: Zone ID used to group the months, e.g. `Asia/Beirut`
+     * Returns per month & overall confirmed order count, pending & cancelled counts, and the sold quantity,
+     * revenue, amount paid & profit of the confirmed orders, the quantity sold per item ID
+     * and the months not in cold storage, which are not counted.
+     * Read from the exported segments only, the database is not queried.
+     * */
+    @PostMapping("getHistoricalTotals")
+    @ResponseBody
+    public ResponseEntity<Object> getHistoricalTotals(
+            @RequestHeader HashMap<String, String> header,
+            @RequestBody TimeRange range
+    ) {
+        try {
+            var error = range.validate();
+
+            if (error != null) {
+                /* 422 */
+                return new ResponseEntity<>(error, HttpStatus.UNPROCESSABLE_ENTITY);
+            } else if (!canUserChange(header)) {
+                /* 403 */
+                return new ResponseEntity<>("Sender is not a manager", HttpStatus.FORBIDDEN);
+            }
+
+            var key = "stats/historical:" + range.getStart() + ":" + range.getEnd() + ":" + range.getZone();
+
+            /* 200 */
+            return new ResponseEntity<>(reports.get(key, () -> {
+                try {
+                    return coldStorage.aggregate(range.getStart(), range.getEnd(), range.getZoneId());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            /* 422 */
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
+        } catch (Exception e) {
+            /* 400 */
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Requires:
+     *  start: ISO-8601 instant, inclusive
+     *  end: ISO-8601 instant, exclusive
+     *  zone: Zone ID used for the days, e.g. `Asia/Beirut`
+     *  groupBy: ITEM, EMPLOYEE, DAY or BASKET (orders by their total quantity)
+     * Optional:
+     *  itemId, employeeId: Only count the lines of this item or the orders of this employee
+     *  limit: Rows returned for ITEM, EMPLOYEE & BASKET, 100 by default
+     * Returns line count, quantity, revenue & margin of every group over the confirmed orders,
+     * `complete` is false while the lines are still being loaded after startup.
+     * Answered from memory, the database is not queried. 503 where `eformer.analytics.enabled` is off.
+     * */
+    @PostMapping("getSalesAnalytics")
+    @ResponseBody
+    public ResponseEntity<Object> getSalesAnalytics(
+            @RequestHeader HashMap<String, String> header,
+            @RequestBody AnalyticsRequest request
+    ) {
+        try {
+            var error = request.validate();
+
+            if (error != null) {
+                /* 422 */
+                return new ResponseEntity<>(error, HttpStatus.UNPROCESSABLE_ENTITY);
+            } else if (!canUserChange(header)) {
+                /* 403 */
+                return new ResponseEntity<>("Sender is not a manager", HttpStatus.FORBIDDEN);
+            } else if (!analytics.isEnabled()) {
+                /* 503 */
+                return new ResponseEntity<>("Analytics is disabled", HttpStatus.SERVICE_UNAVAILABLE);
+            }
+
+            var groupBy = GroupBy.valueOf(request.getGroupBy().toUpperCase(Locale.ROOT));
+            var limit = request.getLimit() == null ? AnalyticsRequest.DEFAULT_LIMIT : request.getLimit();
+
+            /* 200 */
+            return new ResponseEntity<>(analytics.query(request.getStart(), request.getEnd(), request.getZoneId(),
+                    groupBy, request.getItemId(), request.getEmployeeId(), limit), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            /* Unknown groupBy or too many days, 422 */
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
+        } catch (Exception e) {
+            /* 400 */
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
     }
 }
@@ -3,96 +3,56 @@ package eformer.back.eformer_backend.api.v1;
 
 import eformer.back.eformer_backend.model.User;
 import eformer.back.eformer_backend.repository.UserRepository;
+import eformer.back.eformer_backend.utility.PasswordHashingRejectedException;
 import eformer.back.eformer_backend.utility.auth.JwtService;
+import eformer.back.eformer_backend.utility.search.PrefixIndex;
+import eformer.back.eformer_backend.utility.search.UserSearchIndex;
+import eformer.back.eformer_backend.utility.validation.RequestValidator;
+import eformer.back.eformer_backend.utility.validation.UniqueConstraints;
+import eformer.back.eformer_backend.utility.validation.ValidationError;
+import eformer.back.eformer_backend.utility.validation.ValidationErrors;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 
 @RestController
 @RequestMapping("/api/v1/users/")
 public class UsersApi extends BaseApi {
-    private static final String emailPattern = "^[a-zA-Z0-9_!#$%&'*+/=?`{|}~^.-]+@[a-zA-Z0-9.-]+$";
-
-    private static final String usernamePattern = "^\\w+$";
+    public static final int MAX_SEARCH_PAGE_SIZE = 100;
 
     final UserRepository manager;
 
     final PasswordEncoder encoder;
 
-     public UsersApi(UserRepository manager, JwtService jService, PasswordEncoder encoder) {
+    final RequestValidator validator;
+
+    final UserSearchIndex searchIndex;
+
+     public UsersApi(UserRepository manager, JwtService jService,
+                     PasswordEncoder encoder, RequestValidator validator,
+                     UserSearchIndex searchIndex) {
          super(jService, manager);
          this.manager = manager;
          this.encoder = encoder;
+         this.validator = validator;
+         this.searchIndex = searchIndex;
      }
 
      public boolean isNotValidEmail(String email) {
-         return email == null || !email.matches(emailPattern);
+         return RequestValidator.isNotValidEmail(email);
      }
 
      public boolean isNotValidUsername(String username) {
-         return username == null || !username.matches(usernamePattern);
+         return RequestValidator.isNotValidUsername(username);
      }
 
      public boolean isNotValidPassword(String password) {
-         return password == null || password.length() < 8;
-     }
-
-     public StringBuilder checkUser(User user) {
-         var error = new StringBuilder();
-         String username = user.getUsername();
-         String email = user.getEmail();
-
-         if (isNotValidUsername(username) || manager.existsByUsername(username)) {
-             error.append("Username already in use or is invalid (Must consist of alphanumeric characters only)\n");
-         }
-
-         if (!User.isValidAdLevel(user.getAdLevel())) {
-             error.append("Administrative level ")
-                     .append(user.getAdLevel())
-                     .append(" is invalid, must be <= ")
-                     .append(User.getMaxAdLevel())
-                     .append('\n');
-         }
-
-         if (isNotValidPassword(user.getPassword())) {
-             error.append("Invalid password must 8 chars at least");
-         }
-
-         if (isNotValidEmail(email) || manager.existsByEmail(email)) {
-             error.append("Email already in use or is invalid\n");
-         }
-
-         return error;
-     }
-
-     public StringBuilder checkUserUpdate(User user) {
-         var error = new StringBuilder();
-
-         String email = user.getEmail();
-         String password = user.getPassword();
-         Integer adLevel = user.getAdLevel();
-
-         if (adLevel != null && !User.isValidAdLevel(user.getAdLevel())) {
-             error.append("Administrative level ")
-                     .append(user.getAdLevel())
-                     .append(" is invalid, must be <= ")
-                     .append(User.getMaxAdLevel())
-                     .append('\n');
-         }
-
-         if (password != null && isNotValidPassword(password)) {
-             error.append("Invalid password must 8 chars at least");
-         }
-
-         if (email != null && isNotValidEmail(email)) {
-             error.append("Email already in use or is invalid\n");
-         }
-
-         return error;
+         return RequestValidator.isNotValidPassword(password);
      }
 
      public ResponseEntity<Object> getUsers(HashMap<String, String> header,
@@ -189,11 +149,11 @@ public class UsersApi extends BaseApi {
                 return new ResponseEntity<>("Sender not manager", HttpStatus.FORBIDDEN);
             }
 
-            var error = checkUser(user);
+            var errors = validator.checkUser(user);
 
-            if (error.length() > 0) {
+            if (!errors.isEmpty()) {
                 /* 422 */
-                return new ResponseEntity<>(error.toString(), HttpStatus.UNPROCESSABLE_ENTITY);
+                return errors.toResponse();
             }
 
             /* Encode the password */
@@ -201,6 +161,7 @@ public class UsersApi extends BaseApi {
 
             var response = new HashMap<String, Object>();
             user = manager.save(user);
+            searchIndex.put(user);
 
             response.put("userId", user.getUserId());
             response.put("adLevel", user.getAdLevel());
@@ -208,12 +169,66 @@ public class UsersApi extends BaseApi {
 
             /* 200 */
             return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (PasswordHashingRejectedException e) {
+            return AuthApi.hashingUnavailable();
+        } catch (DataIntegrityViolationException e) {
+            if (!UniqueConstraints.isViolated(e, UniqueConstraints.USER_USERNAME, UniqueConstraints.USER_EMAIL)) {
+                throw e; /* Not a taken username or email, 500 */
+            }
+
+            /* Unique username/email constraint, 422 */
+            return ValidationErrors.of(ValidationError.USER_TAKEN).toResponse();
         } catch (Exception e) {
             /* 400 */
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
         }
     }
 
+    /**
+     * Calls the setter matching each given property,
+     * unknown properties & values of the wrong type are ignored.
+     * */
+    public void applyUpdate(User user, HashMap<String, Object> props) {
+        for (var prop: props.entrySet()) {
+            var value = prop.getValue();
+
+            /* Explicit, so nothing needs reflection metadata in a native image */
+            switch (prop.getKey()) {
+                case "email" -> {
+                    if (value instanceof String email) {
+                        user.setEmail(email);
+                    }
+                }
+                case "fullName" -> {
+                    if (value instanceof String fullName) {
+                        user.setFullName(fullName);
+                    }
+                }
+                case "password" -> {
+                    if (value instanceof String password) {
+                        user.setPassword(password);
+                    }
+                }
+                case "adLevel" -> {
+                    if (value instanceof Integer adLevel) {
+                        user.setAdLevel(adLevel);
+                    }
+                }
+                case "createTime" -> {
+                    try {
+                        if (value instanceof String createTime) {
+                            user.setCreateTime(createTime);
+                        }
+                    } catch (RuntimeException ignored) {
+                        /* Malformed date, left unchanged */
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
     @PostMapping("update")
     @ResponseBody
     public ResponseEntity<Object> update(
@@ -240,7 +255,8 @@ public class UsersApi extends BaseApi {
             if (props.containsKey("password")) {
                 var pass = (String) props.get("password");
 
-                if (pass.length() == 0 || encoder.encode(pass).equals(user.getPassword())) {
+                /* Stored hashes are salted, compare with `matches` instead of re-encoding */
+                if (pass.length() == 0 || encoder.matches(pass, user.getPassword())) {
                     props.remove("password");
                 }
             }
@@ -248,26 +264,13 @@ public class UsersApi extends BaseApi {
             props.remove("username");
             props.remove("userId");
 
-            for (var prop: props.keySet()) {
-                try {
-                    var value = props.get(prop);
-
-                    /* Use reflection to call setters */
-                    User.class.getDeclaredMethod(
-                            "set"
-                                    + prop.substring(0, 1).toUpperCase()
-                                    + prop.substring(1),
-                            value.getClass()
-                    ).invoke(user, value);
-                } catch (Exception ignored) {
-                }
-            }
+            applyUpdate(user, props);
 
-            var error = checkUserUpdate(user);
+            var errors = validator.checkUserUpdate(user);
 
-            if (error.length() > 0) {
+            if (!errors.isEmpty()) {
                 /* 422 */
-                return new ResponseEntity<>(error.toString(), HttpStatus.UNPROCESSABLE_ENTITY);
+                return errors.toResponse();
             }
 
             if (props.containsKey("password")) {
@@ -275,10 +278,19 @@ public class UsersApi extends BaseApi {
                 user.setPassword(encoder.encode(user.getPassword()));
             }
 
-            manager.save(user);
+            searchIndex.put(manager.save(user));
 
             /* 200 */
             return new ResponseEntity<>("S", HttpStatus.OK);
+        } catch (PasswordHashingRejectedException e) {
+            return AuthApi.hashingUnavailable();
+        } catch (DataIntegrityViolationException e) {
+            if (!UniqueConstraints.isViolated(e, UniqueConstraints.USER_USERNAME, UniqueConstraints.USER_EMAIL)) {
+                throw e; /* Not a taken username or email, 500 */
+            }
+
+            /* Unique username/email constraint, 422 */
+            return ValidationErrors.of(ValidationError.USER_TAKEN).toResponse();
         } catch (Exception e) {
             /* 400 */
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
@@ -362,6 +374,69 @@ public class UsersApi extends BaseApi {
         }
     }
 
+    /**
+     * Users with words starting with every word of `q` in their full name, username or email,
+     * of level `adLevel` when given, best match first. Pages are `size` long, numbered from 0.
+     * */
+    @GetMapping("search")
+    @ResponseBody
+    public ResponseEntity<Object> search(@RequestHeader HashMap<String, String> header,
+                                         @RequestParam(name = "q") String query,
+                                         @RequestParam(name = "adLevel", required = false) Integer adLevel,
+                                         @RequestParam(name = "page", defaultValue = "0") Integer page,
+                                         @RequestParam(name = "size", defaultValue = "20") Integer size) {
+        try {
+            if (!canUserChange(header)) {
+                /* 403 */
+                return new ResponseEntity<>("Sender is not an employee",
+                        HttpStatus.FORBIDDEN);
+            } else if (PrefixIndex.tokens(query).isEmpty()) {
+                /* 422 */
+                return new ResponseEntity<>("Query must contain a letter or digit", HttpStatus.UNPROCESSABLE_ENTITY);
+            } else if (page < 0 || size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+                /* 422 */
+                return new ResponseEntity<>("Page must be >= 0 & size between 1 and " + MAX_SEARCH_PAGE_SIZE,
+                        HttpStatus.UNPROCESSABLE_ENTITY);
+            }
+
+            /* One extra to know whether another page follows */
+            var ids = searchIndex.search(query, adLevel, Math.multiplyExact(page, size), size + 1);
+            var hasMore = ids.size() > size;
+
+            ids = ids.subList(0, Math.min(size, ids.size()));
+
+            var byId = new HashMap<Integer, User>();
+
+            for (var user: manager.findAllById(ids)) {
+                byId.put(user.getUserId(), user);
+            }
+
+            var users = new ArrayList<User>(ids.size());
+
+            /* Keep the ranking, skip users deleted since they were indexed */
+            for (var id: ids) {
+                var user = byId.get(id);
+
+                if (user != null) {
+                    users.add(user);
+                }
+            }
+
+            var response = new HashMap<String, Object>();
+
+            response.put("users", users);
+            response.put("page", page);
+            response.put("size", size);
+            response.put("hasMore", hasMore);
+
+            /* 200 */
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (Exception e) {
+            /* 400 */
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @PostMapping("getCustomers")
     @ResponseBody
     public ResponseEntity<Object> getCustomers(@RequestHeader HashMap<String, String> header) {
@@ -0,0 +1,78 @@
+package eformer.back.eformer_backend.api.v1.request;
+
+import java.time.Instant;
+
+
+/**
+ * A time range grouped by `ITEM`, `EMPLOYEE`, `DAY` or `BASKET`,
+ * optionally narrowed to one item or employee & cut to `limit` rows.
+ */
+public class AnalyticsRequest extends TimeRange {
+    public static final int DEFAULT_LIMIT = 100;
+
+    public static final int MAX_LIMIT = 10_000;
+
+    private String groupBy;
+
+    private Integer itemId;
+
+    private Integer employeeId;
+
+    private Integer limit;
+
+    public AnalyticsRequest(Instant start, Instant end, String zone, String groupBy,
+                            Integer itemId, Integer employeeId, Integer limit) {
+        super(start, end, zone);
+        setGroupBy(groupBy);
+        setItemId(itemId);
+        setEmployeeId(employeeId);
+        setLimit(limit);
+    }
+
+    public String getGroupBy() {
+        return groupBy;
+    }
+
+    public void setGroupBy(String groupBy) {
+        this.groupBy = groupBy;
+    }
+
+    public Integer getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(Integer itemId) {
+        this.itemId = itemId;
+    }
+
+    public Integer getEmployeeId() {
+        return employeeId;
+    }
+
+    public void setEmployeeId(Integer employeeId) {
+        this.employeeId = employeeId;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    public String validate() {
+        var error = super.validate();
+
+        if (error != null) {
+            return error;
+        } else if (groupBy == null) {
+            return "Missing groupBy";
+        } else if (limit != null && (limit < 1 || limit > MAX_LIMIT)) {
+            return "Limit must be between 1 and " + MAX_LIMIT;
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,24 @@
+package eformer.back.eformer_backend.api.v1.request;
+
+import java.time.Instant;
+
+
+/**
+ * A time range split into buckets, bucket is one of `HOUR`, `DAY` or `WEEK`.
+ */
+public class HistogramRequest extends TimeRange {
+    private String bucket;
+
+    public HistogramRequest(Instant start, Instant end, String zone, String bucket) {
+        super(start, end, zone);
+        setBucket(bucket);
+    }
+
+    public String getBucket() {
+        return bucket;
+    }
+
+    public void setBucket(String bucket) {
+        this.bucket = bucket;
+    }
+}
@@ -0,0 +1,79 @@
+package eformer.back.eformer_backend.api.v1.request;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Date;
+
+
+/**
+ * Half-open range [start, end) of ISO-8601 instants, e.g. `2023-05-01T00:00:00Z`.
+ * The zone (e.g. `Asia/Beirut`) is required and decides calendar boundaries such as days & weeks.
+ */
+public class TimeRange {
+    private Instant start;
+
+    private Instant end;
+
+    private String zone;
+
+    public TimeRange(Instant start, Instant end, String zone) {
+        setStart(start);
+        setEnd(end);
+        setZone(zone);
+    }
+
+    public Instant getStart() {
+        return start;
+    }
+
+    public void setStart(Instant start) {
+        this.start = start;
+    }
+
+    public Instant getEnd() {
+        return end;
+    }
+
+    public void setEnd(Instant end) {
+        this.end = end;
+    }
+
+    public String getZone() {
+        return zone;
+    }
+
+    public void setZone(String zone) {
+        this.zone = zone;
+    }
+
+    public ZoneId getZoneId() {
+        return ZoneId.of(zone);
+    }
+
+    public Date getStartDate() {
+        return Date.from(start);
+    }
+
+    public Date getEndDate() {
+        return Date.from(end);
+    }
+
+    /**
+     * Returns why the range is unusable, null if it is valid.
+     * */
+    public String validate() {
+        if (start == null || end == null || zone == null) {
+            return "Missing start, end or zone";
+        } else if (!start.isBefore(end)) {
+            return "Start must be before end";
+        }
+
+        try {
+            getZoneId();
+        } catch (Exception e) {
+            return "Invalid zone " + zone;
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,44 @@
+package eformer.back.eformer_backend.model;
+
+import jakarta.persistence.*;
+
+
+/**
+ * Last change version handed out for one kind of row.
+ * Read & written through JdbcCounterIssuer only, mapped for the schema.
+ */
+@Entity
+@Table(name = "change_counters")
+public class ChangeCounter {
+    @Id
+    @Column(name = "name", length = 32)
+    private String name;
+
+    @Column(name = "issued", nullable = false)
+    private Long issued;
+
+    public ChangeCounter(String name, Long issued) {
+        setName(name);
+        setIssued(issued);
+    }
+
+    public ChangeCounter() {
+        this(null, 0L);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getIssued() {
+        return issued;
+    }
+
+    public void setIssued(Long issued) {
+        this.issued = issued;
+    }
+}
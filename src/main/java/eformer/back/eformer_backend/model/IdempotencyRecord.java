@@ -0,0 +1,74 @@
+package eformer.back.eformer_backend.model;
+
+import jakarta.persistence.*;
+
+import java.sql.Timestamp;
+
+
+/**
+ * First successful response to a request sent with an `Idempotency-Key`, replayed on retries.
+ * The key is a hash of the endpoint, the user & the client's key, see IdempotencyService.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at")
+})
+public class IdempotencyRecord {
+    @Id
+    @Column(name = "record_key", length = 64)
+    private String key;
+
+    @Column(name = "status")
+    private Integer status;
+
+    @Lob
+    @Column(name = "body")
+    private String body;
+
+    @Column(name = "created_at")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Timestamp createdAt;
+
+    public IdempotencyRecord(String key, Integer status, String body, Timestamp createdAt) {
+        setKey(key);
+        setStatus(status);
+        setBody(body);
+        setCreatedAt(createdAt);
+    }
+
+    public IdempotencyRecord() {
+        this(null, null, null, null);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public void setStatus(Integer status) {
+        this.status = status;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    public Timestamp getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Timestamp createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -1,6 +1,8 @@
 package eformer.back.eformer_backend.model;
 
+import com.fasterxml.jackson.annotation.JsonSetter;
 import eformer.back.eformer_backend.utility.NegativeQuantityException;
+import eformer.back.eformer_backend.utility.validation.UniqueConstraints;
 import jakarta.persistence.*;
 
 import java.util.Date;
@@ -10,14 +12,18 @@ import java.util.Objects;
 
 
 @Entity
-@Table(name = "items")
+@Table(name = "items", indexes = {
+        @Index(name = "idx_items_change_version", columnList = "change_version")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = UniqueConstraints.ITEM_NAME, columnNames = "name")
+})
 public class Item {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "item_id")
     private final Integer itemId;
 
-    @Column(name = "name", unique = true)
+    @Column(name = "name")
     private String name;
 
     @Column(name = "description")
@@ -36,6 +42,14 @@ public class Item {
     @Temporal(TemporalType.TIMESTAMP)
     private final Timestamp introductionDate;
 
+    /* Taken from ChangeSequencer on every change, 0 until the first */
+    @Column(name = "change_version", nullable = false)
+    private Long changeVersion = 0L;
+
+    /* Retired items are kept as tombstones for the clients syncing by version */
+    @Column(name = "retired", nullable = false)
+    private boolean retired;
+
     protected Item(Integer itemId, String name, String description,
                 Integer quantity, Double unitPrice, Timestamp introductionDate,
                    Double cost) {
@@ -63,6 +77,8 @@ public class Item {
         return cost;
     }
 
+    /* Jackson binds JSON numbers to the Double setters, the Integer overloads serve ItemsApi.applyUpdate */
+    @JsonSetter
     public void setCost(Double cost) {
         this.cost = cost;
     }
@@ -95,6 +111,7 @@ public class Item {
         return unitPrice;
     }
 
+    @JsonSetter
     public void setUnitPrice(Double unitPrice) {
         this.unitPrice = unitPrice;
     }
@@ -115,6 +132,22 @@ public class Item {
         return introductionDate.toLocalDateTime();
     }
 
+    public Long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public void setChangeVersion(Long changeVersion) {
+        this.changeVersion = changeVersion;
+    }
+
+    public boolean isRetired() {
+        return retired;
+    }
+
+    public void setRetired(boolean retired) {
+        this.retired = retired;
+    }
+
     public void addQuantity(Integer quantity) {
         if (quantity < 0 && -quantity > getQuantity()) {
             throw new NegativeQuantityException();
@@ -4,8 +4,6 @@ import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.*;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
-
 import eformer.back.eformer_backend.utility.InvalidOrderUpdateException;
 import eformer.back.eformer_backend.utility.OrderCannotChangeException;
 import jakarta.persistence.Column;
@@ -13,22 +11,20 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
-import jakarta.persistence.Transient;
 
-import eformer.back.eformer_backend.model.keys.OrderItemId;
-import eformer.back.eformer_backend.repository.ItemRepository;
-import eformer.back.eformer_backend.repository.OrderItemsRepository;
 import eformer.back.eformer_backend.utility.NegativeQuantityException;
-import org.springframework.transaction.annotation.Transactional;
 
 
 @Entity
-@Table(name = "orders")
-@Transactional
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_creation_date", columnList = "creation_date"),
+        @Index(name = "idx_orders_change_sequence", columnList = "change_sequence")
+})
 public class Order {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -63,13 +59,9 @@ public class Order {
     @Column(name = "profit")
     private Double profit;
 
-    @Transient
-    @JsonIgnore
-    public static OrderItemsRepository orderItemsManager;
-
-    @Transient
-    @JsonIgnore
-    public static ItemRepository itemsManager;
+    /* Taken from ChangeSequencer on every change, 0 until the first */
+    @Column(name = "change_sequence", nullable = false)
+    private Long changeSequence = 0L;
 
     protected Order(Integer orderId, Double total, Timestamp creationDate,
                     Integer numberOfItems, Double amountPaid,
@@ -93,7 +85,7 @@ public class Order {
     }
 
     public Order(User customer, User employee) {
-        this(-1, 0.0, new Timestamp(new Date().getTime()), 0,
+        this(null, 0.0, new Timestamp(new Date().getTime()), 0,
                 0.0, "Pending", customer, employee, "", 0.0);
     }
 
@@ -105,6 +97,14 @@ public class Order {
         this.profit = profit;
     }
 
+    public Long getChangeSequence() {
+        return changeSequence;
+    }
+
+    public void setChangeSequence(Long changeSequence) {
+        this.changeSequence = changeSequence;
+    }
+
     public Double getTotal() {
         return total;
     }
@@ -165,18 +165,6 @@ public class Order {
         return numberOfItems;
     }
 
-    public static void setOrderItemsManager(OrderItemsRepository manager) {
-        orderItemsManager = manager;
-    }
-
-    public static void setItemsManager(ItemRepository manager) {
-        itemsManager = manager;
-    }
-
-    public void addToOrder(Integer itemId, Integer quantity) {
-        editItem(itemId, quantity);
-    }
-
     public boolean isCanceled() {
         return getStatus().equals("Cancelled");
     }
@@ -189,82 +177,32 @@ public class Order {
         return getStatus().equals("Pending");
     }
 
-    public boolean areValidItems(HashMap<String, Integer> items) {
-        for (var itemId: items.keySet()) {
-            var item = itemsManager.findById(Integer.parseInt(itemId));
-
-            if (item.isEmpty()) {
-                return false;
-            }
-
-            var orderItem = orderItemsManager.findById(new OrderItemId(item.get().getItemId(), getOrderId()));
-
-            if (orderItem.isEmpty() &&
-                    item.get().getQuantity() < items.get(itemId)) {
-                return false;
-            } else if (orderItem.isPresent() &&
-                    item.get().getQuantity() + orderItem.get().getQuantity() < items.get(itemId)) {
-                return false;
-            }
-        }
-
-        return true;
-    }
-
-    public void editItem(Integer itemId, Integer removedQuantity) {
+    /**
+     * Adds `quantity` units of `item` to the totals, persisting the line is up to the caller.
+     * */
+    public void addLine(Item item, Integer quantity) {
         if (!isPending()) {
             throw new OrderCannotChangeException("Order is " + getStatus());
+        } else if (quantity == null || quantity <= 0) {
+            throw new NegativeQuantityException();
         }
 
-        try {
-            var orderItem = orderItemsManager.findById(new OrderItemId(itemId, getOrderId()));
-            var item = itemsManager.findById(itemId).orElseThrow();
-
-            if (orderItem.isPresent() && removedQuantity < 0) {
-                numberOfItems += removedQuantity;
-                total += removedQuantity * item.getUnitPrice();
-                profit += removedQuantity * (item.getUnitPrice() - item.getCost());
-
-                orderItem.get().addQuantity(removedQuantity);
-
-                /* Remove if quantity is zero */
-                if (orderItem.get().getQuantity() == 0) {
-                    orderItemsManager.delete(orderItem.get());
-                } else {
-                    orderItemsManager.save(orderItem.get());
-                }
-            } else if (removedQuantity > 0 && item.getQuantity() >= removedQuantity) {
-                numberOfItems += removedQuantity;
-                total += item.getUnitPrice() * removedQuantity;
-                profit += removedQuantity * (item.getUnitPrice() - item.getCost());
-
-                orderItemsManager.save(new OrderItem(this, item, removedQuantity));
-            } else {
-                throw new NegativeQuantityException();
-            }
-        } catch (NegativeQuantityException e) {
-            orderItemsManager.deleteAllByOrder(this);
-            throw e;
-        }
-    }
-
-    public void addItems(HashMap<String, Integer> items) {
-        for (var itemId: items.keySet()) {
-            addToOrder(Integer.parseInt(itemId), items.get(itemId));
-        }
+        numberOfItems += quantity;
+        total += quantity * item.getUnitPrice();
+        profit += quantity * (item.getUnitPrice() - item.getCost());
     }
 
-    public void setItems(HashMap<String, Integer> items) {
+    /**
+     * Resets the totals before the lines are replaced.
+     * */
+    public void clearLines() {
         if (isConfirmed() || isCanceled()) {
             throw new InvalidOrderUpdateException("Order already " + getStatus());
-        } else if (!areValidItems(items)) {
-            throw new InvalidOrderUpdateException("Quantities too large");
         }
 
         numberOfItems = 0;
         total = 0.0;
-        orderItemsManager.deleteAllByOrder(this);
-        addItems(items);
+        profit = 0.0;
     }
 
     public void confirm(Double amountPaid) {
@@ -272,43 +210,17 @@ public class Order {
             throw new InvalidOrderUpdateException("Order is " + getStatus());
         }
 
-        var orderItems = orderItemsManager.findAllByOrder(this);
-        var items = new ArrayList<Item>();
-
-        for (var orderItem: orderItems) {
-            var item = orderItem.getItem();
-
-            item.removeQuantity(orderItem.getQuantity());
-            items.add(item);
-        }
-
         setAmountPaid(amountPaid);
-        itemsManager.saveAll(items);
         setStatus("Confirmed");
     }
 
-    public void returnItems() {
-        var orderItems = orderItemsManager.findAllByOrder(this);
-
-        for (var orderItem: orderItems) {
-            var item = orderItem.getItem();
-
-            item.addQuantity(orderItem.getQuantity());
-
-            itemsManager.save(item);
-        }
-    }
-
     public void cancel() {
         if (isCanceled()) {
             throw new InvalidOrderUpdateException("Order already " + getStatus());
-        } else if (isConfirmed()) {
-            returnItems();
         }
 
         setProfit(0.0);
         numberOfItems = 0;
-        orderItemsManager.deleteAllByOrder(this);
         setStatus("Cancelled");
     }
 
@@ -1,20 +1,25 @@
 package eformer.back.eformer_backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.IdClass;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 import eformer.back.eformer_backend.model.keys.OrderItemId;
+import org.springframework.data.domain.Persistable;
 
 
 @Entity
 @Table(name = "order_items")
 @IdClass(OrderItemId.class)
-public class OrderItem {
+public class OrderItem implements Persistable<OrderItemId> {
     @Id
     @ManyToOne
     @JoinColumn(name = "order_id")
@@ -26,7 +31,12 @@ public class OrderItem {
     private Item item; /* Must have matching name in the Id class */
 
     @Column(name = "quantity")
-    private Integer quantity; /* Must have matching name in the ID class */
+    private Integer quantity;
+
+    /* The key is assigned, so without this every save of a new line would select it first */
+    @Transient
+    @JsonIgnore
+    private boolean isNew = true;
 
     public OrderItem(Order order, Item item, Integer quantity) {
         setItem(item);
@@ -65,4 +75,22 @@ public class OrderItem {
     public void addQuantity(Integer quantity) {
         this.quantity += quantity;
     }
+
+    @Override
+    @JsonIgnore
+    public OrderItemId getId() {
+        return new OrderItemId(item.getItemId(), order.getOrderId());
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
 }
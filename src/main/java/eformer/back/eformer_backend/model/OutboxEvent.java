@@ -0,0 +1,132 @@
+package eformer.back.eformer_backend.model;
+
+import jakarta.persistence.*;
+
+import java.sql.Timestamp;
+
+
+/**
+ * An order event waiting to be propagated downstream, written in the same transaction as the change.
+ * Status is PENDING until delivered (SENT) or out of attempts (DEAD).
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_events_status_available", columnList = "status, available_at")
+})
+public class OutboxEvent {
+    public static final String PENDING = "PENDING";
+
+    public static final String SENT = "SENT";
+
+    public static final String DEAD = "DEAD";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @Column(name = "aggregate_id")
+    private Integer aggregateId;
+
+    @Column(name = "type", length = 64)
+    private String type;
+
+    @Lob
+    @Column(name = "payload")
+    private String payload;
+
+    @Column(name = "status", length = 16)
+    private String status;
+
+    @Column(name = "attempts")
+    private Integer attempts;
+
+    @Column(name = "created_at")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Timestamp createdAt;
+
+    @Column(name = "available_at")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Timestamp availableAt;
+
+    @Column(name = "sent_at")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Timestamp sentAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    public OutboxEvent(Integer aggregateId, String type, String payload, Timestamp createdAt) {
+        this.aggregateId = aggregateId;
+        this.type = type;
+        this.payload = payload;
+        this.createdAt = createdAt;
+        this.availableAt = createdAt;
+        this.status = PENDING;
+        this.attempts = 0;
+    }
+
+    public OutboxEvent() {
+        this(null, null, null, null);
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public Integer getAggregateId() {
+        return aggregateId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    public Timestamp getCreatedAt() {
+        return createdAt;
+    }
+
+    public Timestamp getAvailableAt() {
+        return availableAt;
+    }
+
+    public void setAvailableAt(Timestamp availableAt) {
+        this.availableAt = availableAt;
+    }
+
+    public Timestamp getSentAt() {
+        return sentAt;
+    }
+
+    public void setSentAt(Timestamp sentAt) {
+        this.sentAt = sentAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
@@ -1,6 +1,7 @@
 package eformer.back.eformer_backend.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import eformer.back.eformer_backend.utility.validation.UniqueConstraints;
 import jakarta.persistence.*;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -17,7 +18,10 @@ import java.util.*;
  * Distinction is made using the adLevel.
  */
 @Entity
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = UniqueConstraints.USER_USERNAME, columnNames = "username"),
+        @UniqueConstraint(name = UniqueConstraints.USER_EMAIL, columnNames = "email")
+})
 public class User implements UserDetails {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
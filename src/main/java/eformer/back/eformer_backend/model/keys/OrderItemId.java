@@ -6,22 +6,17 @@ import java.util.Objects;
 
 /**
  * Class used as a representation of the OrderItem Entity's composite key.
+ * Only holds the key's attributes, Hibernate would treat any other matching field,
+ * such as the quantity, as part of the identifier & reject changes to it.
  */
 public class OrderItemId implements Serializable {
     private Integer item;
 
     private Integer order;
 
-    private Integer quantity;
-
-    public OrderItemId(Integer itemId, Integer orderId, Integer quantity) {
+    public OrderItemId(Integer itemId, Integer orderId) {
         setItem(itemId);
         setOrder(orderId);
-        setQuantity(quantity);
-    }
-
-    public OrderItemId(Integer itemId, Integer orderId) {
-        this(itemId, orderId, 0);
     }
 
     public OrderItemId() {
@@ -44,14 +39,6 @@ public class OrderItemId implements Serializable {
         this.order = order;
     }
 
-    public Integer getQuantity() {
-        return quantity;
-    }
-
-    public void setQuantity(Integer quantity) {
-        this.quantity = Math.max(quantity, 0);
-    }
-
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
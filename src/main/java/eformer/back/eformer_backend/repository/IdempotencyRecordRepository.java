@@ -0,0 +1,23 @@
+package eformer.back.eformer_backend.repository;
+
+import eformer.back.eformer_backend.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.Optional;
+
+public interface IdempotencyRecordRepository extends CrudRepository<IdempotencyRecord, String> {
+    /* Read-write so it is served by the primary, a replica may not have the record yet */
+    @Override
+    @Transactional
+    Optional<IdempotencyRecord> findById(String key);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+    int deleteAllCreatedBefore(@Param("cutoff") Date cutoff);
+}
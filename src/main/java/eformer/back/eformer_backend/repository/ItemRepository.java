@@ -1,7 +1,14 @@
 package eformer.back.eformer_backend.repository;
 
 import eformer.back.eformer_backend.model.Item;
+import eformer.back.eformer_backend.model.Order;
+import eformer.back.eformer_backend.repository.projection.ItemMatches;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Date;
@@ -17,4 +24,41 @@ public interface ItemRepository extends CrudRepository<Item, Integer> {
     List<Item> findAllByIntroductionDateBefore(Date date);
 
     boolean existsByNameIgnoreCase(String name);
+
+    List<Item> findAllByRetiredFalse();
+
+    /*
+     * Row-lock the items until the transaction ends, so their writers take change versions in commit order.
+     * Items already loaded in the session are returned as they are, call these before loading them.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.itemId = :itemId")
+    Optional<Item> lockById(@Param("itemId") Integer itemId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l.item FROM OrderItem l WHERE l.order = :order")
+    List<Item> lockAllInOrder(@Param("order") Order order);
+
+    /**
+     * Items changed after `version` & up to `upTo`, retired ones included, in version order.
+     * */
+    @Query(value = "SELECT * FROM items WHERE change_version > :version AND change_version <= :upTo "
+                   + "ORDER BY change_version LIMIT :limit",
+           nativeQuery = true)
+    List<Item> findChangedSince(@Param("version") long version, @Param("upTo") long upTo, @Param("limit") int limit);
+
+    @Query("SELECT MAX(i.itemId) FROM Item i WHERE i.changeVersion = 0")
+    Integer findMaxUnversionedId();
+
+    /**
+     * Gives each item without a version `base` plus its ID.
+     * */
+    @Modifying
+    @Query("UPDATE Item i SET i.changeVersion = :base + i.itemId WHERE i.changeVersion = 0")
+    int assignVersions(@Param("base") long base);
+
+    @Query("SELECT COUNT(CASE WHEN i.itemId = :itemId THEN 1 END) AS idMatches, " +
+           "COUNT(CASE WHEN LOWER(i.name) = LOWER(:name) THEN 1 END) AS nameMatches " +
+           "FROM Item i WHERE i.itemId = :itemId OR LOWER(i.name) = LOWER(:name)")
+    ItemMatches findMatches(@Param("itemId") Integer itemId, @Param("name") String name);
 }
@@ -0,0 +1,127 @@
+package eformer.back.eformer_backend.repository;
+
+import eformer.back.eformer_backend.model.Order;
+import eformer.back.eformer_backend.repository.projection.OrderHistogramRow;
+import eformer.back.eformer_backend.repository.projection.OrderLineFact;
+import eformer.back.eformer_backend.repository.projection.OrderLineRow;
+import eformer.back.eformer_backend.repository.projection.OrderTotals;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Native queries over `orders_archive`, `order_items_archive` & `orders_archive_totals`,
+ * created by `db/orders-partitioning.sql`. Archived rows keep the live columns, so they map back to Order.
+ */
+public interface OrderArchiveRepository extends Repository<Order, Integer> {
+    /**
+     * Locks up to `limit` closed orders created before `horizon`.
+     * Must run inside the transaction that moves them.
+     */
+    @Query(value = "SELECT o.order_id FROM orders o " +
+                   "WHERE o.status IN ('Confirmed', 'Cancelled') AND o.creation_date < :horizon " +
+                   "ORDER BY o.order_id LIMIT :limit FOR UPDATE",
+           nativeQuery = true)
+    List<Integer> lockArchivable(@Param("horizon") Date horizon, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "INSERT INTO order_items_archive SELECT * FROM order_items WHERE order_id IN (:ids)",
+           nativeQuery = true)
+    int copyLines(@Param("ids") Collection<Integer> ids);
+
+    @Modifying
+    @Query(value = "INSERT INTO orders_archive SELECT * FROM orders WHERE order_id IN (:ids)",
+           nativeQuery = true)
+    int copyOrders(@Param("ids") Collection<Integer> ids);
+
+    /* Keeps the all-time sums answerable without scanning the archive */
+    @Modifying
+    @Query(value = "UPDATE orders_archive_totals SET " +
+                   "total_sales = total_sales + (SELECT COALESCE(SUM(total), 0) FROM orders WHERE order_id IN (:ids)), " +
+                   "sold_quantity = sold_quantity + (SELECT COALESCE(SUM(number_of_items), 0) FROM orders WHERE order_id IN (:ids)), " +
+                   "actual_sales = actual_sales + (SELECT COALESCE(SUM(amount_paid), 0) FROM orders WHERE order_id IN (:ids)), " +
+                   "profit = profit + (SELECT COALESCE(SUM(profit), 0) FROM orders WHERE order_id IN (:ids)), " +
+                   "order_count = order_count + (SELECT COUNT(*) FROM orders WHERE order_id IN (:ids)) " +
+                   "WHERE id = 1",
+           nativeQuery = true)
+    int addToTotals(@Param("ids") Collection<Integer> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM order_items WHERE order_id IN (:ids)", nativeQuery = true)
+    int deleteLines(@Param("ids") Collection<Integer> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM orders WHERE order_id IN (:ids)", nativeQuery = true)
+    int deleteOrders(@Param("ids") Collection<Integer> ids);
+
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT * FROM orders_archive", nativeQuery = true)
+    List<Order> findAll();
+
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT * FROM orders_archive WHERE status = :status", nativeQuery = true)
+    List<Order> findAllByStatus(@Param("status") String status);
+
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT * FROM orders_archive WHERE creation_date > :date", nativeQuery = true)
+    List<Order> findAllByCreationDateAfter(@Param("date") Date date);
+
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT * FROM orders_archive WHERE creation_date < :date", nativeQuery = true)
+    List<Order> findAllByCreationDateBefore(@Param("date") Date date);
+
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT * FROM orders_archive WHERE creation_date BETWEEN :start AND :end", nativeQuery = true)
+    List<Order> findAllByCreationDateBetween(@Param("start") Date start, @Param("end") Date end);
+
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT * FROM orders_archive WHERE amount_paid IS NOT NULL AND amount_paid > 0", nativeQuery = true)
+    List<Order> getAllPaid();
+
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT total_sales AS totalSales, sold_quantity AS totalSoldQuantity, " +
+                   "actual_sales AS totalActualSales, profit AS totalProfit, order_count AS orderCount " +
+                   "FROM orders_archive_totals WHERE id = 1",
+           nativeQuery = true)
+    OrderTotals getTotals();
+
+    /* Same buckets as OrderRepository.getHistogram */
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT FLOOR(TIMESTAMPDIFF(SECOND, :origin, o.creation_date) / :width) AS bucket, " +
+                   "COUNT(*) AS orders, SUM(o.total) AS revenue, SUM(o.profit) AS profit " +
+                   "FROM orders_archive o " +
+                   "WHERE o.creation_date >= :start AND o.creation_date < :end AND o.status <> 'Cancelled' " +
+                   "GROUP BY bucket ORDER BY bucket",
+           nativeQuery = true)
+    List<OrderHistogramRow> getHistogram(@Param("origin") Date origin,
+                                         @Param("width") long width,
+                                         @Param("start") Date start,
+                                         @Param("end") Date end);
+
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT l.order_id AS orderId, l.item_id AS itemId, l.quantity AS quantity " +
+                   "FROM order_items_archive l JOIN orders_archive o ON o.order_id = l.order_id " +
+                   "WHERE o.creation_date >= :start AND o.creation_date < :end",
+           nativeQuery = true)
+    List<OrderLineRow> findLinesCreatedBetween(@Param("start") Date start, @Param("end") Date end);
+
+    /* Same pages as OrderItemsRepository.findConfirmedLineFacts */
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT page.order_id AS orderId, l.item_id AS itemId, l.quantity AS quantity, " +
+                   "i.unit_price AS unitPrice, i.cost AS cost, o.creation_date AS createdAt, " +
+                   "o.employee_user_id AS employeeId " +
+                   "FROM (SELECT order_id FROM orders_archive WHERE status = 'Confirmed' AND order_id > :after " +
+                   "ORDER BY order_id LIMIT :limit) page " +
+                   "JOIN orders_archive o ON o.order_id = page.order_id " +
+                   "LEFT JOIN order_items_archive l ON l.order_id = page.order_id " +
+                   "LEFT JOIN items i ON i.item_id = l.item_id " +
+                   "ORDER BY page.order_id",
+           nativeQuery = true)
+    List<OrderLineFact> findConfirmedLineFacts(@Param("after") int afterOrderId, @Param("limit") int limit);
+}
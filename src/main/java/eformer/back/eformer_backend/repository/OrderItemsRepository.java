@@ -4,11 +4,16 @@ import eformer.back.eformer_backend.model.Item;
 import eformer.back.eformer_backend.model.Order;
 import eformer.back.eformer_backend.model.OrderItem;
 import eformer.back.eformer_backend.model.keys.OrderItemId;
+import eformer.back.eformer_backend.repository.projection.OrderLineFact;
+import eformer.back.eformer_backend.repository.projection.OrderLineRow;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +23,8 @@ public interface OrderItemsRepository extends CrudRepository<OrderItem, OrderIte
 
     List<OrderItem> findAllByItem(Item item);
 
+    /* Lines are always used with their item, fetch both in one query */
+    @EntityGraph(attributePaths = {"item"})
     List<OrderItem> findAllByOrder(Order order);
 
     @Query("SELECT i.item, i.quantity as soldQuantity FROM OrderItem i WHERE i.order = ?1")
@@ -26,7 +33,38 @@ public interface OrderItemsRepository extends CrudRepository<OrderItem, OrderIte
     @Query("SELECT SUM(o.quantity) FROM OrderItem o WHERE o.item = :item")
     Integer getSoldItemQuantity(@Param("item") Item item);
 
-    void deleteAllByOrder(Order order);
+    /* A single bulk delete, the derived version loads & removes every line one by one */
+    @Modifying
+    @Query("DELETE FROM OrderItem i WHERE i.order = :order")
+    void deleteAllByOrder(@Param("order") Order order);
 
     void deleteById(OrderItemId id);
+
+    /* Writes the pending lines now, served by SimpleJpaRepository */
+    void flush();
+
+    /* Lines of the orders created in [start, end) */
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT l.order_id AS orderId, l.item_id AS itemId, l.quantity AS quantity " +
+                   "FROM order_items l JOIN orders o ON o.order_id = l.order_id " +
+                   "WHERE o.creation_date >= :start AND o.creation_date < :end",
+           nativeQuery = true)
+    List<OrderLineRow> findLinesCreatedBetween(@Param("start") Date start, @Param("end") Date end);
+
+    /*
+     * Lines of up to `limit` confirmed orders with an ID above `after`, for keyset-paged bulk loads.
+     * An order without lines is one row with a null item.
+     */
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT page.order_id AS orderId, l.item_id AS itemId, l.quantity AS quantity, " +
+                   "i.unit_price AS unitPrice, i.cost AS cost, o.creation_date AS createdAt, " +
+                   "o.employee_user_id AS employeeId " +
+                   "FROM (SELECT order_id FROM orders WHERE status = 'Confirmed' AND order_id > :after " +
+                   "ORDER BY order_id LIMIT :limit) page " +
+                   "JOIN orders o ON o.order_id = page.order_id " +
+                   "LEFT JOIN order_items l ON l.order_id = page.order_id " +
+                   "LEFT JOIN items i ON i.item_id = l.item_id " +
+                   "ORDER BY page.order_id",
+           nativeQuery = true)
+    List<OrderLineFact> findConfirmedLineFacts(@Param("after") int afterOrderId, @Param("limit") int limit);
 }
@@ -2,40 +2,126 @@ package eformer.back.eformer_backend.repository;
 
 import eformer.back.eformer_backend.model.Order;
 import eformer.back.eformer_backend.model.User;
+import eformer.back.eformer_backend.repository.projection.OrderHistogramRow;
+import eformer.back.eformer_backend.repository.projection.OrderTotals;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
 public interface OrderRepository extends CrudRepository<Order, Integer> {
+    /*
+     * Listings fetch the customer & employee in the same query instead of one select per user.
+     * Report reads are read-only so they are served by the replica when one is configured,
+     * inside a read-write transaction they still join it & use the primary.
+     */
+
+    @Override
+    @Transactional(readOnly = true)
+    @EntityGraph(attributePaths = {"customer", "employee"})
+    Iterable<Order> findAll();
+
+    @Transactional(readOnly = true)
+    @EntityGraph(attributePaths = {"customer", "employee"})
     List<Order> findAllByCustomer(User customer);
 
+    @Transactional(readOnly = true)
+    @EntityGraph(attributePaths = {"customer", "employee"})
     List<Order> findAllByEmployee(User customer);
 
+    @Transactional(readOnly = true)
+    @EntityGraph(attributePaths = {"customer", "employee"})
     List<Order> findAllByCustomerAndEmployee(User customer, User employee);
 
+    @Transactional(readOnly = true)
+    @EntityGraph(attributePaths = {"customer", "employee"})
     List<Order> findAllByStatus(String status);
 
+    @Transactional(readOnly = true)
+    @EntityGraph(attributePaths = {"customer", "employee"})
     List<Order> findAllByCreationDateAfter(Date date);
 
+    @Transactional(readOnly = true)
+    @EntityGraph(attributePaths = {"customer", "employee"})
     List<Order> findAllByCreationDateBefore(Date date);
 
+    @Transactional(readOnly = true)
+    @EntityGraph(attributePaths = {"customer", "employee"})
     List<Order> findAllByCreationDateBetween(Date start, Date end);
 
+    /**
+     * The first page of orders changed after `sequence` & up to `upTo`, in sequence order.
+     * */
+    @Transactional(readOnly = true)
+    @EntityGraph(attributePaths = {"customer", "employee"})
+    List<Order> findAllByChangeSequenceGreaterThanAndChangeSequenceLessThanEqualOrderByChangeSequence(
+            Long sequence, Long upTo, Pageable page);
+
+    @Query("SELECT MAX(o.orderId) FROM Order o WHERE o.changeSequence = 0")
+    Integer findMaxUnsequencedId();
+
+    /**
+     * Highest change sequence among the orders created in [start, end), null when there are none.
+     * */
+    @Transactional(readOnly = true)
+    @Query("SELECT MAX(o.changeSequence) FROM Order o WHERE o.creationDate >= :start AND o.creationDate < :end")
+    Long findMaxChangeSequenceCreatedBetween(@Param("start") Date start, @Param("end") Date end);
+
+    /**
+     * Gives each order without a sequence `base` plus its ID.
+     * */
+    @Modifying
+    @Query("UPDATE Order o SET o.changeSequence = :base + o.orderId WHERE o.changeSequence = 0")
+    int assignSequences(@Param("base") long base);
+
+    @Transactional(readOnly = true)
     @Query("SELECT SUM(o.total) FROM Order o")
     Double getTotalSales();
 
+    @Transactional(readOnly = true)
     @Query("SELECT SUM(o.numberOfItems) FROM Order o")
     Integer getTotalSoldQuantity();
 
+    @Transactional(readOnly = true)
     @Query("SELECT SUM(o.amountPaid) FROM Order o")
     Double getTotalActualSales();
 
+    @Transactional(readOnly = true)
+    @EntityGraph(attributePaths = {"customer", "employee"})
     @Query("SELECT o FROM Order o WHERE o.amountPaid IS NOT NULL AND o.amountPaid > 0")
     List<Order> getAllPaid();
 
+    @Transactional(readOnly = true)
     @Query("SELECT SUM(o.profit) FROM Order o")
     Double getTotalProfit();
+
+    @Transactional(readOnly = true)
+    @Query("SELECT SUM(o.total) AS totalSales, SUM(o.numberOfItems) AS totalSoldQuantity, " +
+           "SUM(o.amountPaid) AS totalActualSales, SUM(o.profit) AS totalProfit, " +
+           "COUNT(o) AS orderCount FROM Order o")
+    OrderTotals getTotals();
+
+    /**
+     * Groups non-cancelled orders in [start, end) into buckets of `width` seconds counted from `origin`.
+     * The offset is computed by the database from two timestamps bound the same way,
+     * so it does not depend on the session time zone.
+     */
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT FLOOR(TIMESTAMPDIFF(SECOND, :origin, o.creation_date) / :width) AS bucket, " +
+                   "COUNT(*) AS orders, SUM(o.total) AS revenue, SUM(o.profit) AS profit " +
+                   "FROM orders o " +
+                   "WHERE o.creation_date >= :start AND o.creation_date < :end AND o.status <> 'Cancelled' " +
+                   "GROUP BY bucket ORDER BY bucket",
+           nativeQuery = true)
+    List<OrderHistogramRow> getHistogram(@Param("origin") Date origin,
+                                         @Param("width") long width,
+                                         @Param("start") Date start,
+                                         @Param("end") Date end);
 }
@@ -0,0 +1,33 @@
+package eformer.back.eformer_backend.repository;
+
+import eformer.back.eformer_backend.model.OutboxEvent;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+public interface OutboxEventRepository extends CrudRepository<OutboxEvent, Long> {
+    /**
+     * Locks up to `limit` due events, rows locked by another node are skipped instead of waited on.
+     * Must run inside the transaction that leases them, see OutboxDispatcher.
+     */
+    @Query(value = "SELECT * FROM outbox_events " +
+                   "WHERE status = 'PENDING' AND available_at <= :now " +
+                   "ORDER BY event_id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<OutboxEvent> claimDue(@Param("now") Date now, @Param("limit") int limit);
+
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEvent e WHERE e.status = 'PENDING'")
+    Date findOldestPending();
+
+    long countByStatus(String status);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = 'SENT' AND e.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") Date cutoff);
+}
@@ -1,7 +1,10 @@
 package eformer.back.eformer_backend.repository;
 
 import eformer.back.eformer_backend.model.User;
+import eformer.back.eformer_backend.repository.projection.UserConflicts;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Date;
 import java.util.List;
@@ -16,6 +19,11 @@ public interface UserRepository extends CrudRepository<User, Integer> {
 
     boolean existsByUsername(String username);
 
+    @Query("SELECT COUNT(CASE WHEN u.username = :username THEN 1 END) AS usernameTaken, " +
+           "COUNT(CASE WHEN u.email = :email THEN 1 END) AS emailTaken " +
+           "FROM User u WHERE u.username = :username OR u.email = :email")
+    UserConflicts findConflicts(@Param("username") String username, @Param("email") String email);
+
     List<User> findAllByCreateTimeAfter(Date date);
 
     List<User> findAllByCreateTimeBefore(Date date);
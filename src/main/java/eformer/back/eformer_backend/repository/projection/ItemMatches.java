@@ -0,0 +1,10 @@
+package eformer.back.eformer_backend.repository.projection;
+
+/**
+ * Number of items matching an ID and/or a name, computed by a single query.
+ */
+public interface ItemMatches {
+    Long getIdMatches();
+
+    Long getNameMatches();
+}
@@ -0,0 +1,14 @@
+package eformer.back.eformer_backend.repository.projection;
+
+/**
+ * One non-empty histogram bucket, numeric types depend on the database so they are left as Number.
+ */
+public interface OrderHistogramRow {
+    Number getBucket();
+
+    Number getOrders();
+
+    Number getRevenue();
+
+    Number getProfit();
+}
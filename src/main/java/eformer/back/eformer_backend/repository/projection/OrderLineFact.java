@@ -0,0 +1,23 @@
+package eformer.back.eformer_backend.repository.projection;
+
+import java.util.Date;
+
+/**
+ * A confirmed order line with the columns analytics group & sum by.
+ * Price & cost are the item's current ones, lines do not keep the price they were sold at.
+ */
+public interface OrderLineFact {
+    Integer getOrderId();
+
+    Integer getItemId();
+
+    Integer getQuantity();
+
+    Double getUnitPrice();
+
+    Double getCost();
+
+    Date getCreatedAt();
+
+    Integer getEmployeeId();
+}
@@ -0,0 +1,12 @@
+package eformer.back.eformer_backend.repository.projection;
+
+/**
+ * An order line without its entities, for exports reading many lines at once.
+ */
+public interface OrderLineRow {
+    Integer getOrderId();
+
+    Integer getItemId();
+
+    Integer getQuantity();
+}
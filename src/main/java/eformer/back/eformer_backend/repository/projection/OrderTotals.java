@@ -0,0 +1,17 @@
+package eformer.back.eformer_backend.repository.projection;
+
+/**
+ * Projection of the scalar order aggregates, computed by a single query.
+ * Aliases in the query must match the getter names.
+ */
+public interface OrderTotals {
+    Double getTotalSales();
+
+    Long getTotalSoldQuantity();
+
+    Double getTotalActualSales();
+
+    Double getTotalProfit();
+
+    Long getOrderCount();
+}
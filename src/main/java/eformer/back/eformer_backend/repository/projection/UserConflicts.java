@@ -0,0 +1,10 @@
+package eformer.back.eformer_backend.repository.projection;
+
+/**
+ * Number of users already holding a username and/or an email, computed by a single query.
+ */
+public interface UserConflicts {
+    Long getUsernameTaken();
+
+    Long getEmailTaken();
+}
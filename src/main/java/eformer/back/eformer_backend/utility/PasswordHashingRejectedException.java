@@ -0,0 +1,24 @@
+package eformer.back.eformer_backend.utility;
+
+/**
+ * Runtime exception thrown when the password hashing queue is full.
+ * Callers should answer 503 so the client backs off.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+    public PasswordHashingRejectedException() {
+        super("Password hashing capacity exceeded, retry later");
+    }
+
+    /**
+     * Authentication providers may wrap the exception, so the whole cause chain is checked.
+     */
+    public static boolean isCauseOf(Throwable e) {
+        for (var cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PasswordHashingRejectedException) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,226 @@
+package eformer.back.eformer_backend.utility.analytics;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+
+/**
+ * Filter, group-by & sum queries over OrderLineStore, without touching the database.
+ * <p>
+ * A query splits the rows of one snapshot into ranges scanned in parallel on a dedicated fork-join pool,
+ * each range sums into its own GroupAccumulator & the partial results are merged pairwise.
+ * Revenue is quantity times unit price, margin revenue minus quantity times cost.
+ */
+@Service
+public class AnalyticsEngine {
+    public static final int MAX_DAYS = 3_660;
+
+    /* Rows scanned by one task before it stops splitting */
+    static final int SPLIT_THRESHOLD = 1 << 16;
+
+    private static final int ANY = Integer.MIN_VALUE;
+
+    private final OrderLineStore store;
+
+    private final ForkJoinPool pool;
+
+    public AnalyticsEngine(OrderLineStore store,
+                           @Value("${eformer.analytics.parallelism:0}") int parallelism) {
+        this.store = store;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    public boolean isEnabled() {
+        return store.isEnabled();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Start of every day of `zone` overlapping [from, to).
+     * */
+    static long[] dayStarts(Instant from, Instant to, ZoneId zone) {
+        var day = from.atZone(zone).toLocalDate();
+        var starts = new ArrayList<Long>();
+
+        while (true) {
+            var start = day.atStartOfDay(zone).toInstant();
+
+            if (!start.isBefore(to)) {
+                break;
+            } else if (starts.size() == MAX_DAYS) {
+                throw new IllegalArgumentException("Range spans more than " + MAX_DAYS + " days");
+            }
+
+            starts.add(start.toEpochMilli());
+            day = day.plusDays(1);
+        }
+
+        return starts.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Sums the confirmed lines created in [from, to), optionally of one item or employee, grouped by `groupBy`.
+     * ITEM & EMPLOYEE rows are sorted by revenue & cut to `limit`, DAY & BASKET rows are in key order.
+     * */
+    public LinkedHashMap<String, Object> query(Instant from, Instant to, ZoneId zone, GroupBy groupBy,
+                                               Integer itemId, Integer employeeId, int limit) {
+        var days = groupBy == GroupBy.DAY ? dayStarts(from, to, zone) : null;
+        var columns = store.snapshot();
+        var task = new ScanTask(columns, 0, columns.size, from.toEpochMilli(), to.toEpochMilli(),
+                itemId == null ? ANY : itemId, employeeId == null ? ANY : employeeId, groupBy, days);
+        var groups = pool.invoke(task);
+
+        if (groupBy == GroupBy.BASKET) {
+            var baskets = new GroupAccumulator();
+
+            /* Each group is an order, fold them by total quantity */
+            groups.forEach((order, lines, quantity, revenue, cost) ->
+                    baskets.add((int) Math.min(quantity, Integer.MAX_VALUE - 1), 1, lines, revenue, cost));
+            groups = baskets;
+        }
+
+        var sums = new ArrayList<Group>(groups.size());
+
+        groups.forEach((key, lines, quantity, revenue, cost) -> sums.add(new Group(key, lines, quantity, revenue, cost)));
+
+        if (groupBy == GroupBy.ITEM || groupBy == GroupBy.EMPLOYEE) {
+            sums.sort(Comparator.comparingDouble(Group::revenue).reversed());
+        } else {
+            sums.sort(Comparator.comparingInt(Group::key));
+        }
+
+        var rows = new ArrayList<LinkedHashMap<String, Object>>();
+
+        for (var group: groupBy == GroupBy.DAY ? sums : sums.subList(0, Math.min(limit, sums.size()))) {
+            var row = new LinkedHashMap<String, Object>();
+
+            switch (groupBy) {
+                case ITEM -> row.put("itemId", group.key());
+                case EMPLOYEE -> row.put("employeeId", group.key());
+                case DAY -> row.put("day", Instant.ofEpochMilli(days[group.key()]).atZone(zone).toOffsetDateTime().toString());
+                case BASKET -> row.put("basketSize", group.key());
+            }
+
+            /* Basket groups count orders in `lines` & their lines in `quantity`, see the fold above */
+            row.put(groupBy == GroupBy.BASKET ? "orders" : "lines", group.lines());
+            row.put(groupBy == GroupBy.BASKET ? "lines" : "quantity", group.quantity());
+            row.put("revenue", group.revenue());
+            row.put("margin", group.revenue() - group.cost());
+            rows.add(row);
+        }
+
+        var response = new LinkedHashMap<String, Object>();
+
+        response.put("groupBy", groupBy.name());
+        response.put("rows", rows);
+        response.put("complete", store.isLoaded());
+
+        return response;
+    }
+
+    private record Group(int key, long lines, long quantity, double revenue, double cost) {}
+
+    static final class ScanTask extends RecursiveTask<GroupAccumulator> {
+        private final OrderLineColumns columns;
+
+        private final int from;
+
+        private final int to;
+
+        private final long start;
+
+        private final long end;
+
+        private final int itemId;
+
+        private final int employeeId;
+
+        private final GroupBy groupBy;
+
+        private final long[] days;
+
+        ScanTask(OrderLineColumns columns, int from, int to, long start, long end,
+                 int itemId, int employeeId, GroupBy groupBy, long[] days) {
+            this.columns = columns;
+            this.from = from;
+            this.to = to;
+            this.start = start;
+            this.end = end;
+            this.itemId = itemId;
+            this.employeeId = employeeId;
+            this.groupBy = groupBy;
+            this.days = days;
+        }
+
+        @Override
+        protected GroupAccumulator compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                var middle = (from + to) >>> 1;
+                var left = new ScanTask(columns, from, middle, start, end, itemId, employeeId, groupBy, days);
+                var right = new ScanTask(columns, middle, to, start, end, itemId, employeeId, groupBy, days);
+
+                left.fork();
+
+                var result = right.compute();
+                var other = left.join();
+
+                /* Merge the smaller into the larger */
+                if (other.size() > result.size()) {
+                    other.addAll(result);
+                    return other;
+                }
+
+                result.addAll(other);
+                return result;
+            }
+
+            return scan();
+        }
+
+        private GroupAccumulator scan() {
+            var groups = new GroupAccumulator();
+            var c = columns;
+
+            for (int row = from; row < to; row++) {
+                var timestamp = c.timestamps[row];
+
+                if (timestamp < start || timestamp >= end
+                        || (itemId != ANY && c.itemIds[row] != itemId)
+                        || (employeeId != ANY && c.employeeIds[row] != employeeId)
+                        || c.isRemoved(row)) {
+                    continue;
+                }
+
+                var key = switch (groupBy) {
+                    case ITEM -> c.itemIds[row];
+                    case EMPLOYEE -> c.employeeIds[row];
+                    case DAY -> {
+                        var index = Arrays.binarySearch(days, timestamp);
+                        yield index >= 0 ? index : -index - 2;
+                    }
+                    case BASKET -> c.orderIds[row];
+                };
+
+                var quantity = c.quantities[row];
+
+                groups.add(key, 1, quantity, quantity * c.unitPrices[row], quantity * c.costs[row]);
+            }
+
+            return groups;
+        }
+    }
+}
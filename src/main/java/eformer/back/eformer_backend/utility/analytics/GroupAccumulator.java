@@ -0,0 +1,116 @@
+package eformer.back.eformer_backend.utility.analytics;
+
+import java.util.Arrays;
+
+
+/**
+ * Open-addressing map from an int group key to its sums, kept in parallel primitive arrays.
+ * Not thread-safe, each scan task fills its own & they are merged afterwards.
+ */
+final class GroupAccumulator {
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    private int[] keys;
+
+    private long[] lines;
+
+    private long[] quantities;
+
+    private double[] revenues;
+
+    private double[] costs;
+
+    private int size;
+
+    GroupAccumulator() {
+        allocate(64);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        lines = new long[capacity];
+        quantities = new long[capacity];
+        revenues = new double[capacity];
+        costs = new double[capacity];
+    }
+
+    private int slotOf(int key) {
+        var mask = keys.length - 1;
+        var hash = key * 0x9E3779B9;
+        var slot = (hash ^ hash >>> 16) & mask;
+
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    private void rehash() {
+        var oldKeys = keys;
+        var oldLines = lines;
+        var oldQuantities = quantities;
+        var oldRevenues = revenues;
+        var oldCosts = costs;
+
+        allocate(oldKeys.length * 2);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                var slot = slotOf(oldKeys[i]);
+
+                keys[slot] = oldKeys[i];
+                lines[slot] = oldLines[i];
+                quantities[slot] = oldQuantities[i];
+                revenues[slot] = oldRevenues[i];
+                costs[slot] = oldCosts[i];
+            }
+        }
+    }
+
+    /**
+     * `key` must not be Integer.MIN_VALUE.
+     * */
+    void add(int key, long lineCount, long quantity, double revenue, double cost) {
+        if (size * 2 >= keys.length) {
+            rehash();
+        }
+
+        var slot = slotOf(key);
+
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            size++;
+        }
+
+        lines[slot] += lineCount;
+        quantities[slot] += quantity;
+        revenues[slot] += revenue;
+        costs[slot] += cost;
+    }
+
+    void addAll(GroupAccumulator other) {
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.keys[i] != EMPTY) {
+                add(other.keys[i], other.lines[i], other.quantities[i], other.revenues[i], other.costs[i]);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    interface Visitor {
+        void visit(int key, long lines, long quantity, double revenue, double cost);
+    }
+
+    void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                visitor.visit(keys[i], lines[i], quantities[i], revenues[i], costs[i]);
+            }
+        }
+    }
+}
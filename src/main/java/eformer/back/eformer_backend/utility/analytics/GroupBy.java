@@ -0,0 +1,11 @@
+package eformer.back.eformer_backend.utility.analytics;
+
+/**
+ * What analytics rows are grouped by, BASKET groups orders by their total quantity.
+ */
+public enum GroupBy {
+    ITEM,
+    EMPLOYEE,
+    DAY,
+    BASKET
+}
@@ -0,0 +1,109 @@
+package eformer.back.eformer_backend.utility.analytics;
+
+import java.util.Arrays;
+
+
+/**
+ * Immutable snapshot of the confirmed order lines, one primitive array per column.
+ * <p>
+ * Rows below `size` never change once published, later appends write past it into the same arrays,
+ * so a snapshot stays consistent while the store grows. `removed` is split into pages of `PAGE_ROWS` rows,
+ * allocated on the first removal in them, & a removal publishes copies of only the pages it changes.
+ */
+public final class OrderLineColumns {
+    static final int PAGE_SHIFT = 16;
+
+    static final int PAGE_ROWS = 1 << PAGE_SHIFT;
+
+    final int size;
+
+    final int[] orderIds;
+
+    final int[] itemIds;
+
+    final int[] quantities;
+
+    final double[] unitPrices;
+
+    final double[] costs;
+
+    final long[] timestamps;
+
+    final int[] employeeIds;
+
+    /* Bit set of the rows of cancelled orders by page, null pages have none */
+    final long[][] removed;
+
+    OrderLineColumns(int size, int[] orderIds, int[] itemIds, int[] quantities, double[] unitPrices,
+                     double[] costs, long[] timestamps, int[] employeeIds, long[][] removed) {
+        this.size = size;
+        this.orderIds = orderIds;
+        this.itemIds = itemIds;
+        this.quantities = quantities;
+        this.unitPrices = unitPrices;
+        this.costs = costs;
+        this.timestamps = timestamps;
+        this.employeeIds = employeeIds;
+        this.removed = removed;
+    }
+
+    static OrderLineColumns empty(int capacity) {
+        return new OrderLineColumns(0, new int[capacity], new int[capacity], new int[capacity],
+                new double[capacity], new double[capacity], new long[capacity], new int[capacity],
+                new long[pages(capacity)][]);
+    }
+
+    private static int pages(int capacity) {
+        return (capacity + PAGE_ROWS - 1) >>> PAGE_SHIFT;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    int capacity() {
+        return orderIds.length;
+    }
+
+    boolean isRemoved(int row) {
+        var page = removed[row >>> PAGE_SHIFT];
+
+        return page != null && (page[(row & (PAGE_ROWS - 1)) >>> 6] & (1L << row)) != 0;
+    }
+
+    OrderLineColumns withSize(int newSize) {
+        return new OrderLineColumns(newSize, orderIds, itemIds, quantities, unitPrices,
+                costs, timestamps, employeeIds, removed);
+    }
+
+    OrderLineColumns grow(int capacity) {
+        return new OrderLineColumns(size,
+                Arrays.copyOf(orderIds, capacity),
+                Arrays.copyOf(itemIds, capacity),
+                Arrays.copyOf(quantities, capacity),
+                Arrays.copyOf(unitPrices, capacity),
+                Arrays.copyOf(costs, capacity),
+                Arrays.copyOf(timestamps, capacity),
+                Arrays.copyOf(employeeIds, capacity),
+                Arrays.copyOf(removed, pages(capacity)));
+    }
+
+    OrderLineColumns remove(int from, int count) {
+        var copy = removed.clone();
+        var copied = -1;
+
+        for (int row = from; row < from + count; row++) {
+            var index = row >>> PAGE_SHIFT;
+
+            if (index != copied) {
+                copy[index] = copy[index] == null ? new long[PAGE_ROWS >>> 6] : copy[index].clone();
+                copied = index;
+            }
+
+            copy[index][(row & (PAGE_ROWS - 1)) >>> 6] |= 1L << row;
+        }
+
+        return new OrderLineColumns(size, orderIds, itemIds, quantities, unitPrices,
+                costs, timestamps, employeeIds, copy);
+    }
+}
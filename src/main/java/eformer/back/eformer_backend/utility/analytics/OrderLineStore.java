@@ -0,0 +1,296 @@
+package eformer.back.eformer_backend.utility.analytics;
+
+import eformer.back.eformer_backend.repository.OrderArchiveRepository;
+import eformer.back.eformer_backend.repository.OrderItemsRepository;
+import eformer.back.eformer_backend.repository.projection.OrderLineFact;
+import eformer.back.eformer_backend.utility.archive.OrderHistory;
+import eformer.back.eformer_backend.utility.orders.event.OrderCancelled;
+import eformer.back.eformer_backend.utility.orders.event.OrderConfirmed;
+import eformer.back.eformer_backend.utility.orders.event.OrderLine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.BiFunction;
+
+
+/**
+ * In-memory columns of every confirmed order line, read by AnalyticsEngine.
+ * <p>
+ * Loaded once from the live & archived tables after startup, then kept current from the
+ * committed confirm & cancel events. Writers are serialized, readers take `snapshot()` & never lock.
+ * Loaded lines use the items' current price & cost, lines confirmed while running the ones of that moment.
+ * A cancel may be handled before its confirm, since listeners run on a pool, the order is then ignored.
+ * Only the latest `MAX_CANCELLED_EARLY` such cancels are remembered, the others concern orders
+ * that were never stored (e.g. past `max-rows`) & would otherwise be kept forever.
+ * <p>
+ * About `BYTES_PER_ROW` bytes per line. Storing stops at `max-rows`, or earlier where the columns & their
+ * copies while growing would take more than a quarter of the heap. Off unless `eformer.analytics.enabled`.
+ */
+@Component
+public class OrderLineStore {
+    private static final Logger log = LoggerFactory.getLogger(OrderLineStore.class);
+
+    static final int MAX_CANCELLED_EARLY = 10_000;
+
+    static final int BYTES_PER_ROW = 4 + 4 + 4 + 8 + 8 + 8 + 4;
+
+    private final OrderItemsRepository orderItems;
+
+    private final OrderArchiveRepository archive;
+
+    private final OrderHistory history;
+
+    private final boolean enabled;
+
+    private final int pageSize;
+
+    private final int maxRows;
+
+    private final Object lock = new Object();
+
+    /* Guarded by lock, first row & row count of each stored order */
+    private final HashMap<Integer, int[]> rowsByOrder = new HashMap<>();
+
+    /* Guarded by lock, cancelled orders whose confirm has not been seen, oldest first */
+    private final LinkedHashSet<Integer> cancelledEarly = new LinkedHashSet<>();
+
+    private volatile OrderLineColumns columns = OrderLineColumns.empty(1024);
+
+    private volatile boolean loaded;
+
+    public OrderLineStore(OrderItemsRepository orderItems,
+                          OrderArchiveRepository archive,
+                          OrderHistory history,
+                          @Value("${eformer.analytics.enabled:false}") boolean enabled,
+                          @Value("${eformer.analytics.load-page-size:1000}") int pageSize,
+                          @Value("${eformer.analytics.max-rows:2000000}") int maxRows) {
+        this.orderItems = orderItems;
+        this.archive = archive;
+        this.history = history;
+        this.enabled = enabled;
+        this.pageSize = pageSize;
+        this.maxRows = rowLimit(maxRows, Runtime.getRuntime().maxMemory());
+    }
+
+    /**
+     * At most `maxRows`, & few enough that growing, which briefly holds the old & the new columns,
+     * takes at most a quarter of `maxHeap`.
+     * */
+    static int rowLimit(int maxRows, long maxHeap) {
+        return (int) Math.min(maxRows, maxHeap / 4 / (2L * BYTES_PER_ROW));
+    }
+
+    int maxRows() {
+        return maxRows;
+    }
+
+    public OrderLineColumns snapshot() {
+        return columns;
+    }
+
+    /**
+     * Whether the initial load has finished, results are partial until then.
+     * */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Stores the lines of an order, does nothing if it is already stored or was cancelled.
+     * */
+    public boolean append(int orderId, int employeeId, long timestamp,
+                          int[] itemIds, int[] quantities, double[] unitPrices, double[] costs) {
+        synchronized (lock) {
+            if (rowsByOrder.containsKey(orderId) || cancelledEarly.remove(orderId)) {
+                return false;
+            }
+
+            var current = columns;
+            var count = itemIds.length;
+
+            if (current.size + count > maxRows) {
+                return false;
+            }
+
+            if (current.size + count > current.capacity()) {
+                current = current.grow(Math.min(maxRows, Math.max(current.size + count, current.capacity() * 2)));
+            }
+
+            for (int i = 0; i < count; i++) {
+                var row = current.size + i;
+
+                current.orderIds[row] = orderId;
+                current.itemIds[row] = itemIds[i];
+                current.quantities[row] = quantities[i];
+                current.unitPrices[row] = unitPrices[i];
+                current.costs[row] = costs[i];
+                current.timestamps[row] = timestamp;
+                current.employeeIds[row] = employeeId;
+            }
+
+            rowsByOrder.put(orderId, new int[]{current.size, count});
+            columns = current.withSize(current.size + count);
+
+            return true;
+        }
+    }
+
+    public void remove(int orderId) {
+        synchronized (lock) {
+            var rows = rowsByOrder.remove(orderId);
+
+            if (rows == null) {
+                cancelledEarly.add(orderId);
+
+                if (cancelledEarly.size() > MAX_CANCELLED_EARLY) {
+                    cancelledEarly.remove(cancelledEarly.iterator().next());
+                }
+            } else if (rows[1] > 0) {
+                columns = columns.remove(rows[0], rows[1]);
+            }
+        }
+    }
+
+    int cancelledEarlyCount() {
+        synchronized (lock) {
+            return cancelledEarly.size();
+        }
+    }
+
+    private static double valueOf(Double value) {
+        return value == null ? 0.0 : value;
+    }
+
+    private static int idOf(Integer id) {
+        return id == null ? 0 : id;
+    }
+
+    @Async("orderEventsExecutor")
+    @TransactionalEventListener
+    public void onConfirmed(OrderConfirmed event) {
+        if (!enabled) {
+            return;
+        }
+
+        List<OrderLine> lines = event.lines();
+        var count = lines.size();
+        var itemIds = new int[count];
+        var quantities = new int[count];
+        var unitPrices = new double[count];
+        var costs = new double[count];
+
+        for (int i = 0; i < count; i++) {
+            var line = lines.get(i);
+
+            itemIds[i] = line.itemId();
+            quantities[i] = line.quantity();
+            unitPrices[i] = valueOf(line.unitPrice());
+            costs[i] = valueOf(line.cost());
+        }
+
+        append(event.orderId(), idOf(event.employeeId()), event.createdAt().toEpochMilli(),
+                itemIds, quantities, unitPrices, costs);
+    }
+
+    @Async("orderEventsExecutor")
+    @TransactionalEventListener
+    public void onCancelled(OrderCancelled event) {
+        if (enabled && event.wasConfirmed()) {
+            remove(event.orderId());
+        }
+    }
+
+    @Async("statisticsExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            var start = System.nanoTime();
+
+            load(orderItems::findConfirmedLineFacts);
+
+            if (history.isEnabled()) {
+                load(archive::findConfirmedLineFacts);
+            }
+
+            log.info("Loaded {} order lines for analytics in {} ms",
+                    columns.size, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Analytics load failed, results only cover orders confirmed since startup", e);
+        } finally {
+            loaded = true;
+        }
+    }
+
+    private void load(BiFunction<Integer, Integer, List<OrderLineFact>> pages) {
+        var after = 0;
+
+        while (columns.size < maxRows) {
+            var page = pages.apply(after, pageSize);
+            var order = new ArrayList<OrderLineFact>();
+            var orders = 0;
+
+            for (var fact: page) {
+                if (!order.isEmpty() && !order.get(0).getOrderId().equals(fact.getOrderId())) {
+                    appendLoaded(order);
+                    order.clear();
+                }
+
+                if (order.isEmpty()) {
+                    orders++;
+                    after = fact.getOrderId();
+                }
+
+                order.add(fact);
+            }
+
+            if (!order.isEmpty()) {
+                appendLoaded(order);
+            }
+
+            if (orders < pageSize) {
+                return;
+            }
+        }
+
+        log.warn("Analytics stopped loading at {} rows", maxRows);
+    }
+
+    private void appendLoaded(List<OrderLineFact> order) {
+        var first = order.get(0);
+        var lines = first.getItemId() == null ? 0 : order.size();
+        var itemIds = new int[lines];
+        var quantities = new int[lines];
+        var unitPrices = new double[lines];
+        var costs = new double[lines];
+
+        for (int i = 0; i < lines; i++) {
+            var fact = order.get(i);
+
+            itemIds[i] = fact.getItemId();
+            quantities[i] = fact.getQuantity();
+            unitPrices[i] = valueOf(fact.getUnitPrice());
+            costs[i] = valueOf(fact.getCost());
+        }
+
+        append(first.getOrderId(), idOf(first.getEmployeeId()), first.getCreatedAt().getTime(),
+                itemIds, quantities, unitPrices, costs);
+    }
+}
@@ -0,0 +1,93 @@
+package eformer.back.eformer_backend.utility.archive;
+
+import eformer.back.eformer_backend.repository.OrderArchiveRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+
+
+/**
+ * Moves confirmed & cancelled orders older than the retention horizon, with their lines,
+ * into `orders_archive` & `order_items_archive`.
+ * <p>
+ * Each batch is locked, copied, added to the archived totals & deleted in one transaction,
+ * so an order is always in exactly one of the tables. Batches keep transactions & locks short,
+ * several nodes may run the job at the same time.
+ */
+@Component
+public class OrderArchiver {
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiver.class);
+
+    private final OrderArchiveRepository archive;
+
+    private final TransactionTemplate transactions;
+
+    private final OrderHistory history;
+
+    private final int batchSize;
+
+    public OrderArchiver(OrderArchiveRepository archive,
+                         PlatformTransactionManager transactionManager,
+                         OrderHistory history,
+                         @Value("${eformer.orders.archive.batch-size:500}") int batchSize) {
+        this.archive = archive;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.history = history;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${eformer.orders.archive.cron:0 30 3 * * *}")
+    public void run() {
+        if (!history.isEnabled()) {
+            return;
+        }
+
+        try {
+            var moved = archiveBefore(history.horizon());
+
+            if (moved > 0) {
+                log.info("Archived {} orders", moved);
+            }
+        } catch (RuntimeException e) {
+            /* The next run continues where this one stopped */
+            log.warn("Order archival failed", e);
+        }
+    }
+
+    /**
+     * Archives every closed order created before `horizon`, returns how many were moved.
+     * */
+    public int archiveBefore(Date horizon) {
+        var total = 0;
+
+        while (true) {
+            Integer moved = transactions.execute(status -> {
+                var ids = archive.lockArchivable(horizon, batchSize);
+
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+
+                archive.copyLines(ids);
+                archive.copyOrders(ids);
+                archive.addToTotals(ids);
+                archive.deleteLines(ids);
+                archive.deleteOrders(ids);
+
+                return ids.size();
+            });
+
+            total += moved == null ? 0 : moved;
+
+            if (moved == null || moved < batchSize) {
+                return total;
+            }
+        }
+    }
+}
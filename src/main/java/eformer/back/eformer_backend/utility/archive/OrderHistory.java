@@ -0,0 +1,209 @@
+package eformer.back.eformer_backend.utility.archive;
+
+import eformer.back.eformer_backend.model.Order;
+import eformer.back.eformer_backend.repository.OrderArchiveRepository;
+import eformer.back.eformer_backend.repository.OrderItemsRepository;
+import eformer.back.eformer_backend.repository.OrderRepository;
+import eformer.back.eformer_backend.repository.projection.OrderHistogramRow;
+import eformer.back.eformer_backend.repository.projection.OrderLineRow;
+import eformer.back.eformer_backend.repository.projection.OrderTotals;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+
+/**
+ * Order reports over the live table & the archive.
+ * <p>
+ * Every archived order is closed & older than the retention horizon, so a date range starting
+ * after the horizon is answered from `orders` alone (and pruned to its partitions),
+ * older ranges & all-time reports also read the archive. All-time sums add the running
+ * totals kept by OrderArchiver instead of scanning the archive.
+ * Lookups by ID, customer or employee only see live orders.
+ * <p>
+ * Reads run in one read-only transaction, so the live & archive queries see the same snapshot
+ * & an OrderArchiver batch committing in between cannot count an order twice or hide it.
+ * <p>
+ * Raising `retention-days` after orders were archived hides them from ranges that start
+ * between the old & the new horizon until they are moved back.
+ */
+@Service
+public class OrderHistory {
+    private final OrderRepository orders;
+
+    private final OrderArchiveRepository archive;
+
+    private final OrderItemsRepository orderItems;
+
+    private final boolean enabled;
+
+    private final long retentionMillis;
+
+    public OrderHistory(OrderRepository orders,
+                        OrderArchiveRepository archive,
+                        OrderItemsRepository orderItems,
+                        @Value("${eformer.orders.archive.enabled:false}") boolean enabled,
+                        @Value("${eformer.orders.archive.retention-days:365}") long retentionDays) {
+        this.orders = orders;
+        this.archive = archive;
+        this.orderItems = orderItems;
+        this.enabled = enabled;
+        this.retentionMillis = retentionDays * 86_400_000;
+    }
+
+    private static <T> List<T> concat(Iterable<T> first, List<T> second) {
+        var result = new ArrayList<T>(second.size());
+
+        first.forEach(result::add);
+        result.addAll(second);
+
+        return result;
+    }
+
+    private static Double add(Double first, Double second) {
+        return first == null ? second : second == null ? first : first + second;
+    }
+
+    private static Long add(Long first, Long second) {
+        return first == null ? second : second == null ? first : first + second;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Orders created before this may have been archived.
+     * */
+    public Date horizon() {
+        return new Date(System.currentTimeMillis() - retentionMillis);
+    }
+
+    /**
+     * Whether a range starting at `start` (null for unbounded) can contain archived orders.
+     * */
+    public boolean reachesArchive(Date start) {
+        return enabled && (start == null || start.before(horizon()));
+    }
+
+    @Transactional(readOnly = true)
+    public Iterable<Order> findAll() {
+        return enabled ? concat(orders.findAll(), archive.findAll()) : orders.findAll();
+    }
+
+    /**
+     * Pending orders are never archived.
+     * */
+    @Transactional(readOnly = true)
+    public List<Order> findAllByStatus(String status) {
+        var live = orders.findAllByStatus(status);
+
+        return enabled && !"Pending".equals(status) ? concat(live, archive.findAllByStatus(status)) : live;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Order> findAllByCreationDateAfter(Date date) {
+        var live = orders.findAllByCreationDateAfter(date);
+
+        return reachesArchive(date) ? concat(live, archive.findAllByCreationDateAfter(date)) : live;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Order> findAllByCreationDateBefore(Date date) {
+        var live = orders.findAllByCreationDateBefore(date);
+
+        return reachesArchive(null) ? concat(live, archive.findAllByCreationDateBefore(date)) : live;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Order> findAllByCreationDateBetween(Date start, Date end) {
+        var live = orders.findAllByCreationDateBetween(start, end);
+
+        return reachesArchive(start) ? concat(live, archive.findAllByCreationDateBetween(start, end)) : live;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Order> getAllPaid() {
+        var live = orders.getAllPaid();
+
+        return enabled ? concat(live, archive.getAllPaid()) : live;
+    }
+
+    @Transactional(readOnly = true)
+    public OrderTotals getTotals() {
+        var live = orders.getTotals();
+
+        if (!enabled) {
+            return live;
+        }
+
+        var archived = archive.getTotals();
+
+        return new Totals(
+                add(live.getTotalSales(), archived.getTotalSales()),
+                add(live.getTotalSoldQuantity(), archived.getTotalSoldQuantity()),
+                add(live.getTotalActualSales(), archived.getTotalActualSales()),
+                add(live.getTotalProfit(), archived.getTotalProfit()),
+                add(live.getOrderCount(), archived.getOrderCount())
+        );
+    }
+
+    @Transactional(readOnly = true)
+    public Double getTotalSales() {
+        return enabled ? getTotals().getTotalSales() : orders.getTotalSales();
+    }
+
+    @Transactional(readOnly = true)
+    public Number getTotalSoldQuantity() {
+        return enabled ? getTotals().getTotalSoldQuantity() : orders.getTotalSoldQuantity();
+    }
+
+    @Transactional(readOnly = true)
+    public Double getTotalActualSales() {
+        return enabled ? getTotals().getTotalActualSales() : orders.getTotalActualSales();
+    }
+
+    @Transactional(readOnly = true)
+    public Double getTotalProfit() {
+        return enabled ? getTotals().getTotalProfit() : orders.getTotalProfit();
+    }
+
+    /**
+     * Rows of both tables may share a bucket, callers must add them up.
+     * */
+    @Transactional(readOnly = true)
+    public List<OrderHistogramRow> getHistogram(Date origin, long width, Date start, Date end) {
+        var live = orders.getHistogram(origin, width, start, end);
+
+        return reachesArchive(start) ? concat(live, archive.getHistogram(origin, width, start, end)) : live;
+    }
+
+    /**
+     * Highest change sequence among the orders created in [start, end), null when there are none.
+     * Only live orders are read, archived ones are closed & never change again.
+     * */
+    @Transactional(readOnly = true)
+    public Long findMaxChangeSequenceCreatedBetween(Date start, Date end) {
+        return orders.findMaxChangeSequenceCreatedBetween(start, end);
+    }
+
+    /**
+     * Lines of the orders created in [start, end).
+     * */
+    @Transactional(readOnly = true)
+    public List<OrderLineRow> findLinesCreatedBetween(Date start, Date end) {
+        var live = orderItems.findLinesCreatedBetween(start, end);
+
+        return reachesArchive(start) ? concat(live, archive.findLinesCreatedBetween(start, end)) : live;
+    }
+
+    private record Totals(Double getTotalSales,
+                          Long getTotalSoldQuantity,
+                          Double getTotalActualSales,
+                          Double getTotalProfit,
+                          Long getOrderCount) implements OrderTotals {}
+}
@@ -0,0 +1,114 @@
+package eformer.back.eformer_backend.utility.archive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Keeps one `orders` partition per month, `months-ahead` months past the current one.
+ * <p>
+ * `db/orders-partitioning.sql` creates the monthly partitions of the existing orders, which rewrites the table.
+ * Runs here only split the upcoming months off an empty `pmax`, so the `REORGANIZE` moves no rows.
+ * When `pmax` holds orders, as after maintenance stopped for longer than `months-ahead`, nothing is done
+ * & the statement is logged to be run in a maintenance window. Emptied partitions are kept, one per month is negligible.
+ */
+@Component
+public class OrderPartitionMaintainer {
+    private static final Logger log = LoggerFactory.getLogger(OrderPartitionMaintainer.class);
+
+    private static final DateTimeFormatter NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final JdbcTemplate jdbc;
+
+    private final boolean enabled;
+
+    private final int monthsAhead;
+
+    public OrderPartitionMaintainer(JdbcTemplate jdbc,
+                                    @Value("${eformer.orders.partitioning.enabled:false}") boolean enabled,
+                                    @Value("${eformer.orders.partitioning.months-ahead:3}") int monthsAhead) {
+        this.jdbc = jdbc;
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+    }
+
+    /**
+     * The REORGANIZE statement splitting `pmax` into one partition per month in [from, to].
+     * */
+    static String reorganize(YearMonth from, YearMonth to) {
+        var sql = new StringBuilder("ALTER TABLE orders REORGANIZE PARTITION pmax INTO (");
+
+        for (var month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            sql.append("PARTITION ").append(month.format(NAME))
+               .append(" VALUES LESS THAN ('").append(month.plusMonths(1).atDay(1)).append("'), ");
+        }
+
+        return sql.append("PARTITION pmax VALUES LESS THAN (MAXVALUE))").toString();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${eformer.orders.partitioning.cron:0 0 3 * * *}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            maintain(YearMonth.now());
+        } catch (RuntimeException e) {
+            log.warn("Orders partition maintenance failed", e);
+        }
+    }
+
+    public void maintain(YearMonth now) {
+        List<String> names = jdbc.queryForList(
+                "SELECT partition_name FROM information_schema.partitions " +
+                "WHERE table_schema = DATABASE() AND table_name = 'orders' AND partition_name IS NOT NULL",
+                String.class);
+
+        if (!names.contains("pmax")) {
+            log.warn("orders is not partitioned, run db/orders-partitioning.sql first");
+            return;
+        }
+
+        var months = new ArrayList<YearMonth>();
+
+        for (var name: names) {
+            if (name.matches("p\\d{6}")) {
+                months.add(YearMonth.parse(name, NAME));
+            }
+        }
+
+        if (months.isEmpty()) {
+            log.warn("orders has no monthly partitions, run db/orders-partitioning.sql");
+            return;
+        }
+
+        var from = months.stream().max(YearMonth::compareTo).orElseThrow().plusMonths(1);
+        var to = now.plusMonths(monthsAhead);
+
+        if (from.isAfter(to)) {
+            return;
+        }
+
+        if (!jdbc.queryForList("SELECT 1 FROM orders PARTITION (pmax) LIMIT 1").isEmpty()) {
+            log.warn("orders partition pmax holds orders, splitting it rewrites them, run in a maintenance window: {}",
+                    reorganize(from, to));
+            return;
+        }
+
+        jdbc.execute(reorganize(from, to));
+        log.info("Added orders partitions {} to {}", from.format(NAME), to.format(NAME));
+    }
+}
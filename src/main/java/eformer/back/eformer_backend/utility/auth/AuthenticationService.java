@@ -9,6 +9,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import eformer.back.eformer_backend.model.User;
+import eformer.back.eformer_backend.utility.search.UserSearchIndex;
 import org.springframework.stereotype.Service;
 
 
@@ -22,14 +23,18 @@ public class AuthenticationService {
 
     private final AuthenticationManager authenticationManager;
 
+    private final UserSearchIndex searchIndex;
+
     public AuthenticationService(UserRepository userManager,
                                  PasswordEncoder encoder,
                                  JwtService tokenService,
-                                 AuthenticationManager authenticationManager) {
+                                 AuthenticationManager authenticationManager,
+                                 UserSearchIndex searchIndex) {
         this.userManager = userManager;
         this.encoder = encoder;
         this.tokenService = tokenService;
         this.authenticationManager = authenticationManager;
+        this.searchIndex = searchIndex;
     }
 
     public AuthenticationResponse register(RegisterRequest request) {
@@ -45,7 +50,7 @@ public class AuthenticationService {
             throw new RuntimeException("Already exists");
         }
 
-        userManager.save(user);
+        searchIndex.put(userManager.save(user));
 
         return new AuthenticationResponse(tokenService.generateToken(user));
     }
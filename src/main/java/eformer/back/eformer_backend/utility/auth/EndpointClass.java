@@ -0,0 +1,45 @@
+package eformer.back.eformer_backend.utility.auth;
+
+import java.util.Set;
+
+
+/**
+ * Groups of endpoints sharing a rate limit, see RequestRateLimiter.
+ */
+public enum EndpointClass {
+    CATALOG_READ("catalog-read"),
+    ORDER_WRITE("order-write"),
+    REPORTING("reporting");
+
+    private static final Set<String> ORDER_WRITES = Set.of(
+            "/api/v1/orders/create",
+            "/api/v1/orders/update",
+            "/api/v1/orders/confirm",
+            "/api/v1/orders/cancel"
+    );
+
+    private final String tag;
+
+    EndpointClass(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * The class of the given path, null when it is not rate limited.
+     * */
+    public static EndpointClass of(String path) {
+        if (path.startsWith("/api/v1/items/get") || path.startsWith("/api/v1/items/search")) {
+            return CATALOG_READ;
+        } else if (ORDER_WRITES.contains(path)) {
+            return ORDER_WRITE;
+        } else if (path.startsWith("/api/v1/orders/get") || path.startsWith("/api/v1/stats/")) {
+            return REPORTING;
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,163 @@
+package eformer.back.eformer_backend.utility.auth;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * In-memory sliding-window limiter of failed logins, keyed by username & by client address.
+ * The window is approximated from the current & previous fixed windows, so each key costs
+ * a constant amount of memory and its count decays on its own.
+ * At most `maxKeys` keys are tracked, stale keys are purged first once the limit is reached.
+ */
+@Component
+public class LoginAttemptLimiter {
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+
+    private final int maxFailuresPerUser;
+
+    private final int maxFailuresPerAddress;
+
+    private final long windowMillis;
+
+    private final int maxKeys;
+
+    private final Counter throttled;
+
+    public LoginAttemptLimiter(
+            @Value("${eformer.auth.throttle.max-failures-per-user:5}") int maxFailuresPerUser,
+            @Value("${eformer.auth.throttle.max-failures-per-address:20}") int maxFailuresPerAddress,
+            @Value("${eformer.auth.throttle.window-seconds:300}") int windowSeconds,
+            @Value("${eformer.auth.throttle.max-keys:100000}") int maxKeys,
+            MeterRegistry registry
+    ) {
+        this.maxFailuresPerUser = maxFailuresPerUser;
+        this.maxFailuresPerAddress = maxFailuresPerAddress;
+        this.windowMillis = windowSeconds * 1000L;
+        this.maxKeys = maxKeys;
+        this.throttled = registry.counter("eformer.auth.throttled");
+    }
+
+    private static String userKey(String username) {
+        return "u:" + (username == null ? "" : username.toLowerCase());
+    }
+
+    private static String addressKey(String address) {
+        return "a:" + address;
+    }
+
+    public long getWindowSeconds() {
+        return windowMillis / 1000;
+    }
+
+    /**
+     * Whether either the username or the address exceeded its failure threshold.
+     * Counted as a throttled attempt when true.
+     */
+    public boolean isBlocked(String username, String address) {
+        return isBlocked(username, address, System.currentTimeMillis());
+    }
+
+    boolean isBlocked(String username, String address, long now) {
+        var blocked = estimate(userKey(username), now) >= maxFailuresPerUser
+                || estimate(addressKey(address), now) >= maxFailuresPerAddress;
+
+        if (blocked) {
+            throttled.increment();
+        }
+
+        return blocked;
+    }
+
+    public void recordFailure(String username, String address) {
+        recordFailure(username, address, System.currentTimeMillis());
+    }
+
+    void recordFailure(String username, String address, long now) {
+        increment(userKey(username), now);
+        increment(addressKey(address), now);
+    }
+
+    public void recordSuccess(String username) {
+        windows.remove(userKey(username));
+    }
+
+    int size() {
+        return windows.size();
+    }
+
+    private double estimate(String key, long now) {
+        var window = windows.get(key);
+        return window == null ? 0 : window.estimate(now, windowMillis);
+    }
+
+    private void increment(String key, long now) {
+        if (windows.size() >= maxKeys && !windows.containsKey(key)) {
+            evict(now);
+        }
+
+        windows.computeIfAbsent(key, ignored -> new Window(now)).increment(now, windowMillis);
+    }
+
+    private void evict(long now) {
+        windows.values().removeIf(window -> window.isStale(now, windowMillis));
+
+        /* Still full of active keys, drop an arbitrary tenth rather than growing */
+        if (windows.size() >= maxKeys) {
+            var toDrop = Math.max(maxKeys / 10, 1);
+            var keys = windows.keySet().iterator();
+
+            while (toDrop-- > 0 && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+    }
+
+    private static class Window {
+        private long start;
+
+        private int current;
+
+        private int previous;
+
+        Window(long now) {
+            start = now;
+        }
+
+        private void roll(long now, long length) {
+            var elapsed = now - start;
+
+            if (elapsed >= 2 * length) {
+                previous = 0;
+                current = 0;
+                start = now;
+            } else if (elapsed >= length) {
+                previous = current;
+                current = 0;
+                start += length;
+            }
+        }
+
+        synchronized void increment(long now, long length) {
+            roll(now, length);
+            current++;
+        }
+
+        synchronized double estimate(long now, long length) {
+            roll(now, length);
+
+            var weight = 1.0 - (double) (now - start) / length;
+
+            return previous * weight + current;
+        }
+
+        synchronized boolean isStale(long now, long length) {
+            return now - start >= 2 * length;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package eformer.back.eformer_backend.utility.auth;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+
+/**
+ * Runs after JwtAuthenticationFilter so callers are identified by username,
+ * anonymous callers by their address. Rejected requests get a 429 with `Retry-After`.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    private final RequestRateLimiter limiter;
+
+    public RateLimitFilter(RequestRateLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        var endpointClass = EndpointClass.of(request.getRequestURI().substring(request.getContextPath().length()));
+
+        if (endpointClass != null) {
+            var authentication = SecurityContextHolder.getContext().getAuthentication();
+            var caller = authentication != null && authentication.isAuthenticated()
+                    ? "u:" + authentication.getName()
+                    : "a:" + request.getRemoteAddr();
+
+            var retryAfter = limiter.tryAcquire(caller, endpointClass);
+
+            if (retryAfter > 0) {
+                /* 429 */
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+                response.getWriter().write("Too many requests");
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,92 @@
+package eformer.back.eformer_backend.utility.auth;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Token-bucket admission control per user (or client address when anonymous) & endpoint class.
+ * At most `maxKeys` buckets are kept, full buckets are dropped first once the limit is reached.
+ * Rejections are counted as `eformer.ratelimit.rejected`, tagged by endpoint class.
+ */
+@Component
+public class RequestRateLimiter {
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    private final EnumMap<EndpointClass, double[]> limits = new EnumMap<>(EndpointClass.class);
+
+    private final boolean enabled;
+
+    private final int maxKeys;
+
+    private final MeterRegistry registry;
+
+    public RequestRateLimiter(
+            @Value("${eformer.ratelimit.enabled:true}") boolean enabled,
+            @Value("${eformer.ratelimit.max-keys:100000}") int maxKeys,
+            @Value("${eformer.ratelimit.catalog-read.capacity:60}") double catalogCapacity,
+            @Value("${eformer.ratelimit.catalog-read.refill-per-second:20}") double catalogRefill,
+            @Value("${eformer.ratelimit.order-write.capacity:20}") double orderCapacity,
+            @Value("${eformer.ratelimit.order-write.refill-per-second:5}") double orderRefill,
+            @Value("${eformer.ratelimit.reporting.capacity:10}") double reportingCapacity,
+            @Value("${eformer.ratelimit.reporting.refill-per-second:1}") double reportingRefill,
+            MeterRegistry registry
+    ) {
+        this.enabled = enabled;
+        this.maxKeys = maxKeys;
+        this.registry = registry;
+
+        limits.put(EndpointClass.CATALOG_READ, new double[]{catalogCapacity, catalogRefill});
+        limits.put(EndpointClass.ORDER_WRITE, new double[]{orderCapacity, orderRefill});
+        limits.put(EndpointClass.REPORTING, new double[]{reportingCapacity, reportingRefill});
+    }
+
+    /**
+     * Takes a token for the caller, returns 0 when admitted,
+     * otherwise the number of seconds to wait before retrying.
+     * */
+    public long tryAcquire(String caller, EndpointClass endpointClass) {
+        if (!enabled || endpointClass == null) {
+            return 0;
+        }
+
+        var now = System.nanoTime();
+        var key = endpointClass.ordinal() + ":" + caller;
+
+        if (buckets.size() >= maxKeys && !buckets.containsKey(key)) {
+            evict(now);
+        }
+
+        var limit = limits.get(endpointClass);
+        var wait = buckets
+                .computeIfAbsent(key, ignored -> new TokenBucket(limit[0], limit[1], now))
+                .tryTake(now);
+
+        if (wait == 0) {
+            return 0;
+        }
+
+        registry.counter("eformer.ratelimit.rejected", "class", endpointClass.getTag()).increment();
+
+        return Math.max(1, (wait + 999_999_999) / 1_000_000_000);
+    }
+
+    private void evict(long now) {
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+
+        /* Still full of active callers, drop an arbitrary tenth rather than growing */
+        if (buckets.size() >= maxKeys) {
+            var toDrop = Math.max(maxKeys / 10, 1);
+            var keys = buckets.keySet().iterator();
+
+            while (toDrop-- > 0 && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+    }
+}
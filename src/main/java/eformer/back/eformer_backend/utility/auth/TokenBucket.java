@@ -0,0 +1,54 @@
+package eformer.back.eformer_backend.utility.auth;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+
+/**
+ * Lock-free token bucket, the state is replaced atomically on every successful take.
+ * Tokens are refilled lazily from the elapsed time, nothing runs in the background.
+ */
+public class TokenBucket {
+    private final double capacity;
+
+    private final double refillPerNano;
+
+    private final AtomicReference<State> state;
+
+    public TokenBucket(double capacity, double refillPerSecond, long now) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000.0;
+        this.state = new AtomicReference<>(new State(capacity, now));
+    }
+
+    private double available(State current, long now) {
+        return Math.min(capacity, current.tokens() + Math.max(0, now - current.updatedAt()) * refillPerNano);
+    }
+
+    /**
+     * Takes a token, returns 0 when one was available,
+     * otherwise the nanoseconds until the next token without taking anything.
+     * */
+    public long tryTake(long now) {
+        while (true) {
+            var current = state.get();
+            var tokens = available(current, now);
+
+            if (tokens < 1) {
+                return (long) Math.ceil((1 - tokens) / refillPerNano);
+            }
+
+            if (state.compareAndSet(current, new State(tokens - 1, Math.max(now, current.updatedAt())))) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * A full bucket behaves like a new one, so it can be dropped without effect.
+     * */
+    public boolean isFull(long now) {
+        return available(state.get(), now) >= capacity;
+    }
+
+    private record State(double tokens, long updatedAt) {}
+}
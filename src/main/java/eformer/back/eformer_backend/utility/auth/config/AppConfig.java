@@ -1,6 +1,9 @@
 package eformer.back.eformer_backend.utility.auth.config;
 
 import eformer.back.eformer_backend.repository.UserRepository;
+import eformer.back.eformer_backend.utility.auth.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -32,17 +35,29 @@ public class AppConfig {
         return config.getAuthenticationManager();
     }
 
+    /**
+     * BCrypt confined to a core-sized pool with a bounded queue,
+     * 0 threads means one per available processor.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${eformer.auth.hashing.threads:0}") int threads,
+            @Value("${eformer.auth.hashing.queue-limit:64}") int queueLimit,
+            MeterRegistry registry
+    ) {
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), threads, queueLimit, registry);
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder encoder) {
         var provider = new DaoAuthenticationProvider();
 
         provider.setUserDetailsService(userDetailsService());
-        provider.setPasswordEncoder(passwordEncoder());
+        provider.setPasswordEncoder(encoder);
 
         return provider;
     }
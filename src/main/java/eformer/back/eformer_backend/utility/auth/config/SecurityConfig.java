@@ -2,6 +2,9 @@ package eformer.back.eformer_backend.utility.auth.config;
 
 
 import eformer.back.eformer_backend.utility.auth.JwtAuthenticationFilter;
+import eformer.back.eformer_backend.utility.auth.RateLimitFilter;
+import jakarta.servlet.DispatcherType;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -16,10 +19,13 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @EnableWebSecurity
 public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final AuthenticationProvider authenticationProvider;
 
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthFilter, AuthenticationProvider authenticationProvider) {
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthFilter, RateLimitFilter rateLimitFilter,
+                          AuthenticationProvider authenticationProvider) {
         this.jwtAuthFilter = jwtAuthFilter;
+        this.rateLimitFilter = rateLimitFilter;
         this.authenticationProvider = authenticationProvider;
     }
 
@@ -29,12 +35,18 @@ public class SecurityConfig {
                 .csrf()
                 .disable()
                 .authorizeHttpRequests()
+                .dispatcherTypeMatchers(DispatcherType.ASYNC) // Ends of streamed responses, already authorized
+                .permitAll()
                 .requestMatchers("/api/v1/auth/**") // Permit these requests
                 .permitAll()
                 .requestMatchers("/api/v1/items/get**") // Anyone can see the items
                 .permitAll()
+                .requestMatchers("/api/v1/items/search") // & search them
+                .permitAll()
                 .requestMatchers("/api/v1/users/roles") // Anyone can see the roles
                 .permitAll()
+                .requestMatchers(EndpointRequest.toAnyEndpoint()) // Served on the loopback management port only
+                .permitAll()
                 .anyRequest() // These require authentication
                 .authenticated()
                 .and()
@@ -42,7 +54,8 @@ public class SecurityConfig {
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS) // Require token for each request
                 .and()
                 .authenticationProvider(authenticationProvider)
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class); // Needs the authenticated user
 
         return http.build();
     }
@@ -0,0 +1,82 @@
+package eformer.back.eformer_backend.utility.catalog;
+
+import eformer.back.eformer_backend.model.Item;
+import eformer.back.eformer_backend.repository.ItemRepository;
+import eformer.back.eformer_backend.utility.sequence.ChangeSequencer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+
+/**
+ * Item writes stamped with a change version, so clients can sync the catalog by version.
+ * Stock changes from orders are stamped by OrderService.
+ */
+@Service
+public class CatalogService {
+    private final ItemRepository items;
+
+    private final ChangeSequencer sequencer;
+
+    public CatalogService(ItemRepository items, ChangeSequencer sequencer) {
+        this.items = items;
+        this.sequencer = sequencer;
+    }
+
+    @Transactional
+    public Item create(Item item) {
+        item.setRetired(false);
+
+        return save(item);
+    }
+
+    @Transactional
+    public Item save(Item item) {
+        if (item.getItemId() != null) {
+            items.lockById(item.getItemId());
+        }
+
+        item.setChangeVersion(sequencer.next(ChangeSequencer.ITEMS, 1));
+
+        return items.save(item);
+    }
+
+    /**
+     * Keeps the item as a tombstone, it can no longer be ordered.
+     * */
+    @Transactional
+    public Item retire(Integer itemId) {
+        var item = items.findById(itemId).orElseThrow();
+
+        if (item.isRetired()) {
+            return item;
+        }
+
+        item.setRetired(true);
+
+        return save(item);
+    }
+
+    /**
+     * Up to `limit` items changed after `version`, in version order, up to the sequencer's watermark.
+     * */
+    public List<Item> changesSince(long version, int limit) {
+        return items.findChangedSince(version, sequencer.watermark(ChangeSequencer.ITEMS), limit);
+    }
+
+    /**
+     * Versions the items written without one, such as those predating versions.
+     * */
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void versionUnversioned() {
+        var maxId = items.findMaxUnversionedId();
+
+        if (maxId != null && maxId > 0) {
+            items.assignVersions(sequencer.next(ChangeSequencer.ITEMS, maxId) - 1);
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package eformer.back.eformer_backend.utility.coldstorage;
+
+import eformer.back.eformer_backend.model.Order;
+import eformer.back.eformer_backend.model.User;
+import eformer.back.eformer_backend.repository.projection.OrderLineRow;
+import eformer.back.eformer_backend.utility.archive.OrderHistory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Closed months of orders exported to one segment file each (`orders-YYYY-MM.seg`),
+ * so yearly reports read local, compressed files instead of the database.
+ * <p>
+ * Months follow the server's zone like the `orders` partitions. A month is exported once it has ended,
+ * re-exporting replaces its segment. Each segment keeps every order's status & the highest change
+ * sequence it holds, a later change to one of its orders (say a pending order confirmed after the
+ * month ended) gets a higher sequence & the next export run rewrites the month. Until then reports
+ * see the status as exported.
+ * Reads never fall back to the database, months without a segment are reported as missing.
+ */
+@Service
+public class ColdStorage {
+    private static final Logger log = LoggerFactory.getLogger(ColdStorage.class);
+
+    public static final int MAX_MONTHS = 1_200;
+
+    private final OrderHistory history;
+
+    private final Path directory;
+
+    private final boolean exportEnabled;
+
+    private final int exportMonths;
+
+    private final int blockSize;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private final ConcurrentHashMap<YearMonth, Segment> segments = new ConcurrentHashMap<>();
+
+    public ColdStorage(OrderHistory history,
+                       @Value("${eformer.coldstorage.directory:cold-storage}") String directory,
+                       @Value("${eformer.coldstorage.export.enabled:false}") boolean exportEnabled,
+                       @Value("${eformer.coldstorage.export.months:24}") int exportMonths,
+                       @Value("${eformer.coldstorage.block-size:512}") int blockSize) {
+        this.history = history;
+        this.directory = Path.of(directory);
+        this.exportEnabled = exportEnabled;
+        this.exportMonths = exportMonths;
+        this.blockSize = blockSize;
+    }
+
+    private static int idOf(User user) {
+        return user == null || user.getUserId() == null ? 0 : user.getUserId();
+    }
+
+    private static double valueOf(Double value) {
+        return value == null ? 0.0 : value;
+    }
+
+    private Path pathOf(YearMonth month) {
+        return directory.resolve("orders-" + month + ".seg");
+    }
+
+    private Instant startOf(YearMonth month) {
+        return month.atDay(1).atStartOfDay(zone).toInstant();
+    }
+
+    private Segment segment(YearMonth month) {
+        var path = pathOf(month);
+
+        if (!Files.exists(path)) {
+            return null;
+        }
+
+        return segments.computeIfAbsent(month, ignored -> {
+            try {
+                return Segment.open(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Whether `month` has no segment, or one older than the latest change to its orders.
+     * */
+    private boolean isStale(YearMonth month) throws IOException {
+        var segment = segment(month);
+
+        if (segment == null) {
+            return true;
+        }
+
+        var latest = history.findMaxChangeSequenceCreatedBetween(Date.from(startOf(month)),
+                Date.from(startOf(month.plusMonths(1))));
+
+        return latest != null && latest > segment.changeSequence();
+    }
+
+    /**
+     * Exports the last `export.months` closed months that have no segment yet or whose orders changed since.
+     * */
+    @Scheduled(cron = "${eformer.coldstorage.export.cron:0 0 4 * * *}")
+    public void exportClosedMonths() {
+        if (!exportEnabled) {
+            return;
+        }
+
+        var current = YearMonth.now(zone);
+
+        for (int i = exportMonths; i > 0; i--) {
+            var month = current.minusMonths(i);
+
+            try {
+                if (!isStale(month)) {
+                    continue;
+                }
+
+                log.info("Exported {} orders of {}", export(month), month);
+            } catch (IOException | RuntimeException e) {
+                /* The next run tries again */
+                log.warn("Cold storage export of {} failed", month, e);
+            }
+        }
+    }
+
+    /**
+     * Writes every order created in `month`, with its lines, to the month's segment.
+     * Returns the number of orders written.
+     * */
+    public int export(YearMonth month) throws IOException {
+        if (!month.isBefore(YearMonth.now(zone))) {
+            throw new IllegalArgumentException("Month " + month + " has not ended");
+        }
+
+        var start = Date.from(startOf(month));
+        var end = Date.from(startOf(month.plusMonths(1)));
+        var lines = new HashMap<Integer, List<OrderLineRow>>();
+
+        for (var line: history.findLinesCreatedBetween(start, end)) {
+            lines.computeIfAbsent(line.getOrderId(), ignored -> new ArrayList<>()).add(line);
+        }
+
+        var records = new ArrayList<OrderRecord>();
+        var changeSequence = -1L;
+
+        /* Between is inclusive, the first instant of the next month belongs to its own segment */
+        for (Order order: history.findAllByCreationDateBetween(start, end)) {
+            var createdAt = order.getCreationDate().atZone(zone).toInstant().toEpochMilli();
+
+            if (createdAt >= end.getTime()) {
+                continue;
+            }
+
+            if (order.getChangeSequence() != null) {
+                changeSequence = Math.max(changeSequence, order.getChangeSequence());
+            }
+
+            var orderLines = lines.getOrDefault(order.getOrderId(), List.of());
+            var itemIds = new int[orderLines.size()];
+            var quantities = new int[orderLines.size()];
+
+            for (int i = 0; i < orderLines.size(); i++) {
+                itemIds[i] = orderLines.get(i).getItemId();
+                quantities[i] = orderLines.get(i).getQuantity();
+            }
+
+            records.add(new OrderRecord(order.getOrderId(), createdAt, OrderRecord.statusOf(order.getStatus()),
+                    idOf(order.getCustomer()), idOf(order.getEmployee()),
+                    valueOf(order.getTotal()), valueOf(order.getAmountPaid()), valueOf(order.getProfit()),
+                    order.getNumberOfItems() == null ? 0 : order.getNumberOfItems(),
+                    itemIds, quantities));
+        }
+
+        Files.createDirectories(directory);
+        SegmentWriter.write(pathOf(month), records, changeSequence, blockSize);
+        segments.remove(month);
+
+        return records.size();
+    }
+
+    /**
+     * Totals of the orders created in [start, end), per month of `reportZone` & overall.
+     * Only confirmed orders add to the sums, pending & cancelled ones are only counted.
+     * */
+    public LinkedHashMap<String, Object> aggregate(Instant start, Instant end, ZoneId reportZone) throws IOException {
+        var first = YearMonth.from(start.atZone(zone));
+        var last = YearMonth.from(end.minusMillis(1).atZone(zone));
+
+        if (first.plusMonths(MAX_MONTHS).isBefore(last)) {
+            throw new IllegalArgumentException("Range spans more than " + MAX_MONTHS + " months");
+        }
+
+        var months = new TreeMap<YearMonth, Summary>();
+        var total = new Summary();
+        var items = new HashMap<Integer, Long>();
+        var missing = new ArrayList<String>();
+
+        for (var month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            var segment = segment(month);
+
+            if (segment == null) {
+                missing.add(month.toString());
+                continue;
+            }
+
+            segment.scan(start.toEpochMilli(), end.toEpochMilli(), record -> {
+                var summary = months.computeIfAbsent(
+                        YearMonth.from(Instant.ofEpochMilli(record.createdAt()).atZone(reportZone)),
+                        ignored -> new Summary());
+
+                summary.add(record);
+                total.add(record);
+
+                if (record.isConfirmed()) {
+                    for (int i = 0; i < record.itemIds().length; i++) {
+                        items.merge(record.itemIds()[i], (long) record.quantities()[i], Long::sum);
+                    }
+                }
+            });
+        }
+
+        var perMonth = new ArrayList<LinkedHashMap<String, Object>>(months.size());
+
+        for (Map.Entry<YearMonth, Summary> entry: months.entrySet()) {
+            var row = new LinkedHashMap<String, Object>();
+
+            row.put("month", entry.getKey().toString());
+            row.putAll(entry.getValue().toMap());
+            perMonth.add(row);
+        }
+
+        var response = new LinkedHashMap<String, Object>();
+
+        response.put("months", perMonth);
+        response.put("total", total.toMap());
+        response.put("soldQuantityByItem", items);
+        response.put("missingMonths", missing);
+
+        return response;
+    }
+
+    private static final class Summary {
+        private long orders;
+
+        private long pending;
+
+        private long cancelled;
+
+        private long soldQuantity;
+
+        private double revenue;
+
+        private double amountPaid;
+
+        private double profit;
+
+        void add(OrderRecord record) {
+            if (record.isCancelled()) {
+                cancelled++;
+                return;
+            } else if (!record.isConfirmed()) {
+                pending++;
+                return;
+            }
+
+            orders++;
+            soldQuantity += record.numberOfItems();
+            revenue += record.total();
+            amountPaid += record.amountPaid();
+            profit += record.profit();
+        }
+
+        LinkedHashMap<String, Object> toMap() {
+            var map = new LinkedHashMap<String, Object>();
+
+            map.put("orders", orders);
+            map.put("pending", pending);
+            map.put("cancelled", cancelled);
+            map.put("soldQuantity", soldQuantity);
+            map.put("revenue", revenue);
+            map.put("amountPaid", amountPaid);
+            map.put("profit", profit);
+
+            return map;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package eformer.back.eformer_backend.utility.coldstorage;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+
+/**
+ * One order & its lines as kept in a segment, `itemIds[i]` was bought `quantities[i]` times.
+ */
+public record OrderRecord(int orderId,
+                          long createdAt,
+                          byte status,
+                          int customerId,
+                          int employeeId,
+                          double total,
+                          double amountPaid,
+                          double profit,
+                          int numberOfItems,
+                          int[] itemIds,
+                          int[] quantities) {
+    public static final byte PENDING = 0;
+
+    public static final byte CONFIRMED = 1;
+
+    public static final byte CANCELLED = 2;
+
+    /* Fixed part of an encoded record, followed by 8 bytes per line */
+    static final int HEADER_BYTES = 4 + 8 + 1 + 4 + 4 + 8 + 8 + 8 + 4 + 4;
+
+    public static byte statusOf(String status) {
+        return switch (status) {
+            case "Confirmed" -> CONFIRMED;
+            case "Cancelled" -> CANCELLED;
+            default -> PENDING;
+        };
+    }
+
+    public boolean isConfirmed() {
+        return status == CONFIRMED;
+    }
+
+    public boolean isCancelled() {
+        return status == CANCELLED;
+    }
+
+    int encodedSize() {
+        return HEADER_BYTES + 8 * itemIds.length;
+    }
+
+    void writeTo(ByteBuffer buffer) {
+        buffer.putInt(orderId)
+              .putLong(createdAt)
+              .put(status)
+              .putInt(customerId)
+              .putInt(employeeId)
+              .putDouble(total)
+              .putDouble(amountPaid)
+              .putDouble(profit)
+              .putInt(numberOfItems)
+              .putInt(itemIds.length);
+
+        for (int i = 0; i < itemIds.length; i++) {
+            buffer.putInt(itemIds[i]).putInt(quantities[i]);
+        }
+    }
+
+    static OrderRecord readFrom(ByteBuffer buffer) {
+        var orderId = buffer.getInt();
+        var createdAt = buffer.getLong();
+        var status = buffer.get();
+        var customerId = buffer.getInt();
+        var employeeId = buffer.getInt();
+        var total = buffer.getDouble();
+        var amountPaid = buffer.getDouble();
+        var profit = buffer.getDouble();
+        var numberOfItems = buffer.getInt();
+        var lines = buffer.getInt();
+        var itemIds = new int[lines];
+        var quantities = new int[lines];
+
+        for (int i = 0; i < lines; i++) {
+            itemIds[i] = buffer.getInt();
+            quantities[i] = buffer.getInt();
+        }
+
+        return new OrderRecord(orderId, createdAt, status, customerId, employeeId,
+                total, amountPaid, profit, numberOfItems, itemIds, quantities);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof OrderRecord record
+                && orderId == record.orderId
+                && createdAt == record.createdAt
+                && status == record.status
+                && customerId == record.customerId
+                && employeeId == record.employeeId
+                && Double.compare(total, record.total) == 0
+                && Double.compare(amountPaid, record.amountPaid) == 0
+                && Double.compare(profit, record.profit) == 0
+                && numberOfItems == record.numberOfItems
+                && Arrays.equals(itemIds, record.itemIds)
+                && Arrays.equals(quantities, record.quantities);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Integer.hashCode(orderId) + Long.hashCode(createdAt);
+    }
+}
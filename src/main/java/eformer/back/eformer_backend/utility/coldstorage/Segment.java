@@ -0,0 +1,179 @@
+package eformer.back.eformer_backend.utility.coldstorage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+
+/**
+ * Read-only view of a segment written by SegmentWriter, memory-mapped so the page cache
+ * holds the hot blocks & the heap only the sparse index.
+ * Safe for concurrent reads, each scan uses its own buffer views & Inflater.
+ */
+public final class Segment {
+    private final Path path;
+
+    private final MappedByteBuffer data;
+
+    private final long[] firstCreatedAt;
+
+    private final long[] lastCreatedAt;
+
+    private final long[] offsets;
+
+    private final int[] compressedLengths;
+
+    private final int[] rawLengths;
+
+    private final int[] counts;
+
+    private final long changeSequence;
+
+    private Segment(Path path, MappedByteBuffer data, int blocks, long changeSequence) {
+        this.path = path;
+        this.data = data;
+        this.changeSequence = changeSequence;
+        this.firstCreatedAt = new long[blocks];
+        this.lastCreatedAt = new long[blocks];
+        this.offsets = new long[blocks];
+        this.compressedLengths = new int[blocks];
+        this.rawLengths = new int[blocks];
+        this.counts = new int[blocks];
+    }
+
+    public static Segment open(Path path) throws IOException {
+        MappedByteBuffer data;
+
+        /* The mapping stays valid once the channel is closed */
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        var size = data.capacity();
+
+        if (size < 8 + SegmentWriter.TRAILER_BYTES
+                || data.getInt(0) != SegmentWriter.MAGIC
+                || data.getInt(size - 4) != SegmentWriter.MAGIC) {
+            throw new IOException("Not a segment: " + path);
+        }
+
+        var version = data.getInt(4);
+
+        if (version != SegmentWriter.VERSION) {
+            throw new IOException("Unsupported segment version " + version + ": " + path);
+        }
+
+        var trailer = size - SegmentWriter.TRAILER_BYTES;
+        var changeSequence = data.getLong(trailer + 12);
+        var indexOffset = (int) data.getLong(trailer);
+        var blocks = data.getInt(trailer + 8);
+        var segment = new Segment(path, data, blocks, changeSequence);
+
+        for (int i = 0; i < blocks; i++) {
+            var entry = indexOffset + i * SegmentWriter.INDEX_ENTRY_BYTES;
+
+            segment.firstCreatedAt[i] = data.getLong(entry);
+            segment.lastCreatedAt[i] = data.getLong(entry + 8);
+            segment.offsets[i] = data.getLong(entry + 16);
+            segment.compressedLengths[i] = data.getInt(entry + 24);
+            segment.rawLengths[i] = data.getInt(entry + 28);
+            segment.counts[i] = data.getInt(entry + 32);
+        }
+
+        return segment;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Highest change sequence among the segment's orders when exported, -1 when it had none.
+     * */
+    public long changeSequence() {
+        return changeSequence;
+    }
+
+    public long recordCount() {
+        long total = 0;
+
+        for (var count: counts) {
+            total += count;
+        }
+
+        return total;
+    }
+
+    /**
+     * Index of the first block that may hold a record created at or after `from`.
+     * */
+    private int firstBlock(long from) {
+        int low = 0;
+        int high = lastCreatedAt.length;
+
+        while (low < high) {
+            var middle = (low + high) >>> 1;
+
+            if (lastCreatedAt[middle] < from) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    private ByteBuffer inflate(int block, Inflater inflater) throws IOException {
+        var raw = new byte[rawLengths[block]];
+        var input = data.slice((int) offsets[block], compressedLengths[block]);
+
+        inflater.reset();
+        inflater.setInput(input);
+
+        try {
+            var size = 0;
+
+            while (size < raw.length && !inflater.finished()) {
+                size += inflater.inflate(raw, size, raw.length - size);
+            }
+
+            if (size != raw.length) {
+                throw new IOException("Truncated block " + block + " in " + path);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt block " + block + " in " + path, e);
+        }
+
+        return ByteBuffer.wrap(raw);
+    }
+
+    /**
+     * Passes every record created in [from, to) to `visitor`, in creation order.
+     * */
+    public void scan(long from, long to, Consumer<OrderRecord> visitor) throws IOException {
+        var inflater = new Inflater();
+
+        try {
+            for (int block = firstBlock(from); block < firstCreatedAt.length && firstCreatedAt[block] < to; block++) {
+                var buffer = inflate(block, inflater);
+
+                for (int i = 0; i < counts[block]; i++) {
+                    var record = OrderRecord.readFrom(buffer);
+
+                    if (record.createdAt() >= from && record.createdAt() < to) {
+                        visitor.accept(record);
+                    }
+                }
+            }
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package eformer.back.eformer_backend.utility.coldstorage;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.Deflater;
+
+
+/**
+ * Writes orders into an immutable segment file:
+ * <pre>
+ * header   magic, version
+ * blocks   Deflate-compressed runs of up to `blockSize` records, sorted by creation time then ID
+ * index    per block: first & last creation time, offset, compressed & raw length, record count
+ * trailer  index offset, block count, change sequence, magic
+ * </pre>
+ * The index is sparse, one entry per block, so a range read inflates only the blocks overlapping it.
+ * The change sequence is the highest one among the exported orders, a later change to any of them
+ * gets a higher one & makes the segment stale.
+ * The file is written next to its target & renamed, readers never see a partial segment.
+ */
+public final class SegmentWriter {
+    static final int MAGIC = 0x45465347; /* EFSG */
+
+    static final int VERSION = 1;
+
+    static final int INDEX_ENTRY_BYTES = 8 + 8 + 8 + 4 + 4 + 4;
+
+    static final int TRAILER_BYTES = 8 + 4 + 8 + 4;
+
+    private SegmentWriter() {
+    }
+
+    private static byte[] deflate(byte[] raw, int length, Deflater deflater) {
+        var out = new byte[Math.max(64, length + length / 100 + 64)];
+        var size = 0;
+
+        deflater.reset();
+        deflater.setInput(raw, 0, length);
+        deflater.finish();
+
+        while (!deflater.finished()) {
+            if (size == out.length) {
+                out = Arrays.copyOf(out, out.length * 2);
+            }
+
+            size += deflater.deflate(out, size, out.length - size);
+        }
+
+        return Arrays.copyOf(out, size);
+    }
+
+    private static void drain(OutputStream out, ByteBuffer scratch) throws IOException {
+        out.write(scratch.array(), 0, scratch.position());
+        scratch.clear();
+    }
+
+    public static void write(Path target, List<OrderRecord> records, long changeSequence, int blockSize)
+            throws IOException {
+        var sorted = new ArrayList<>(records);
+        sorted.sort(Comparator.comparingLong(OrderRecord::createdAt).thenComparingInt(OrderRecord::orderId));
+
+        var blocks = (sorted.size() + blockSize - 1) / blockSize;
+        var index = ByteBuffer.allocate(blocks * INDEX_ENTRY_BYTES);
+        var scratch = ByteBuffer.allocate(TRAILER_BYTES);
+        var temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        var deflater = new Deflater(Deflater.BEST_COMPRESSION);
+
+        try (var out = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+            long offset = 8;
+
+            drain(out, scratch.putInt(MAGIC).putInt(VERSION));
+
+            for (int from = 0; from < sorted.size(); from += blockSize) {
+                var block = sorted.subList(from, Math.min(sorted.size(), from + blockSize));
+                var rawLength = 0;
+
+                for (var record: block) {
+                    rawLength += record.encodedSize();
+                }
+
+                var raw = ByteBuffer.allocate(rawLength);
+
+                for (var record: block) {
+                    record.writeTo(raw);
+                }
+
+                var compressed = deflate(raw.array(), rawLength, deflater);
+
+                out.write(compressed);
+                index.putLong(block.get(0).createdAt())
+                     .putLong(block.get(block.size() - 1).createdAt())
+                     .putLong(offset)
+                     .putInt(compressed.length)
+                     .putInt(rawLength)
+                     .putInt(block.size());
+                offset += compressed.length;
+            }
+
+            out.write(index.array());
+            drain(out, scratch.putLong(offset).putInt(blocks).putLong(changeSequence).putInt(MAGIC));
+        } finally {
+            deflater.end();
+        }
+
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
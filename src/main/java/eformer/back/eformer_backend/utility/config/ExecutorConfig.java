@@ -0,0 +1,104 @@
+package eformer.back.eformer_backend.utility.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class ExecutorConfig {
+    /**
+     * Bounded pool used to evaluate independent statistics queries concurrently.
+     * When saturated the caller runs the task itself, so requests degrade to
+     * sequential evaluation instead of queueing without bound.
+     */
+    @Bean(name = "statisticsExecutor")
+    public ThreadPoolTaskExecutor statisticsExecutor(
+            @Value("${eformer.statistics.pool-size:4}") int poolSize,
+            @Value("${eformer.statistics.queue-capacity:32}") int queueCapacity
+    ) {
+        var executor = new ThreadPoolTaskExecutor();
+
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("statistics-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+
+        return executor;
+    }
+
+    /**
+     * Bounded pool running the order event listeners after commit.
+     * When saturated the committing thread runs the listener, so no event is dropped.
+     */
+    @Bean(name = "orderEventsExecutor")
+    public ThreadPoolTaskExecutor orderEventsExecutor(
+            @Value("${eformer.events.pool-size:2}") int poolSize,
+            @Value("${eformer.events.queue-capacity:1000}") int queueCapacity
+    ) {
+        var executor = new ThreadPoolTaskExecutor();
+
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("order-events-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+
+        return executor;
+    }
+
+    /**
+     * Bounded pool writing the queued item deltas to the stream connections.
+     * When saturated the flush is skipped & the deltas wait for the next one.
+     */
+    @Bean(name = "itemStreamExecutor")
+    public ThreadPoolTaskExecutor itemStreamExecutor(
+            @Value("${eformer.stream.items.pool-size:4}") int poolSize,
+            @Value("${eformer.stream.items.queue-capacity:1000}") int queueCapacity
+    ) {
+        var executor = new ThreadPoolTaskExecutor();
+
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("item-stream-");
+
+        return executor;
+    }
+
+    /**
+     * Runs the `@Scheduled` jobs. Several threads, so a long archive, export or outbox poll
+     * does not hold back the others.
+     */
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${eformer.scheduling.pool-size:4}") int poolSize) {
+        var scheduler = new ThreadPoolTaskScheduler();
+
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("scheduling-");
+
+        return scheduler;
+    }
+
+    /**
+     * Runs only the item stream flush, which must keep its pace whatever the scheduled jobs are doing.
+     */
+    @Bean(name = "itemStreamScheduler")
+    public ThreadPoolTaskScheduler itemStreamScheduler() {
+        var scheduler = new ThreadPoolTaskScheduler();
+
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("item-stream-flush-");
+
+        return scheduler;
+    }
+}
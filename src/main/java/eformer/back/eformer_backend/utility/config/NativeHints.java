@@ -0,0 +1,64 @@
+package eformer.back.eformer_backend.utility.config;
+
+import eformer.back.eformer_backend.api.v1.response.AuthenticationResponse;
+import eformer.back.eformer_backend.model.Item;
+import eformer.back.eformer_backend.model.Order;
+import eformer.back.eformer_backend.model.OrderItem;
+import eformer.back.eformer_backend.model.User;
+import eformer.back.eformer_backend.repository.projection.OrderTotals;
+import eformer.back.eformer_backend.utility.orders.event.OrderCancelled;
+import eformer.back.eformer_backend.utility.orders.event.OrderConfirmed;
+import eformer.back.eformer_backend.utility.orders.event.OrderCreated;
+import eformer.back.eformer_backend.utility.orders.event.OrderLinesChanged;
+import eformer.back.eformer_backend.utility.stream.ItemDelta;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.util.List;
+
+
+/**
+ * Reflection the AOT processor cannot see, needed by the native image (`-P native`).
+ * <p>
+ * Controllers return `Object` & maps, so the types Jackson writes inside them are registered
+ * for binding, as are the order events the outbox serializes. jjwt creates its implementation
+ * & its Jackson serializer by class name.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeHints.JwtHints.class)
+@RegisterReflectionForBinding({
+        Item.class, Order.class, OrderItem.class, User.class, OrderTotals.class,
+        AuthenticationResponse.class, ItemDelta.class,
+        OrderCreated.class, OrderLinesChanged.class, OrderConfirmed.class, OrderCancelled.class
+})
+public class NativeHints {
+    static class JwtHints implements RuntimeHintsRegistrar {
+        private static final List<String> TYPES = List.of(
+                "io.jsonwebtoken.impl.DefaultJwtBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtParser",
+                "io.jsonwebtoken.impl.DefaultClaims",
+                "io.jsonwebtoken.impl.DefaultHeader",
+                "io.jsonwebtoken.impl.DefaultJwsHeader",
+                "io.jsonwebtoken.impl.compression.DeflateCompressionCodec",
+                "io.jsonwebtoken.impl.compression.GzipCompressionCodec",
+                "io.jsonwebtoken.jackson.io.JacksonSerializer",
+                "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+        );
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (var type: TYPES) {
+                hints.reflection().registerType(TypeReference.of(type),
+                        MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+
+            hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+        }
+    }
+}
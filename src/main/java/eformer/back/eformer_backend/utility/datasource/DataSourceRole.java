@@ -0,0 +1,6 @@
+package eformer.back.eformer_backend.utility.datasource;
+
+public enum DataSourceRole {
+    PRIMARY,
+    REPLICA
+}
@@ -0,0 +1,32 @@
+package eformer.back.eformer_backend.utility.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary.
+ * Must be wrapped in a LazyConnectionDataSourceProxy, otherwise the connection is
+ * taken before the transaction's read-only flag is known.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    private final ReadYourWritesGuard guard;
+
+    public ReadWriteRoutingDataSource(ReadYourWritesGuard guard) {
+        this.guard = guard;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return DataSourceRole.PRIMARY;
+        }
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            guard.recordWrite();
+            return DataSourceRole.PRIMARY;
+        }
+
+        return guard.mustReadPrimary() ? DataSourceRole.PRIMARY : DataSourceRole.REPLICA;
+    }
+}
@@ -0,0 +1,56 @@
+package eformer.back.eformer_backend.utility.datasource;
+
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Keeps a user's reads on the primary for a short window after that user wrote,
+ * so replication lag never hides their own changes.
+ * Requests without an authenticated user are not tracked.
+ */
+public class ReadYourWritesGuard {
+    private static final int MAX_USERS = 10_000;
+
+    private final ConcurrentHashMap<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    private final long windowMillis;
+
+    public ReadYourWritesGuard(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    private static String currentUser() {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? null : authentication.getName();
+    }
+
+    public void recordWrite() {
+        var user = currentUser();
+
+        if (windowMillis <= 0 || user == null) {
+            return;
+        }
+
+        var now = System.currentTimeMillis();
+
+        if (lastWrites.size() >= MAX_USERS) {
+            lastWrites.values().removeIf(at -> now - at > windowMillis);
+        }
+
+        lastWrites.put(user, now);
+    }
+
+    public boolean mustReadPrimary() {
+        var user = currentUser();
+
+        if (windowMillis <= 0 || user == null) {
+            return false;
+        }
+
+        var at = lastWrites.get(user);
+
+        return at != null && System.currentTimeMillis() - at <= windowMillis;
+    }
+}
@@ -0,0 +1,247 @@
+package eformer.back.eformer_backend.utility.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eformer.back.eformer_backend.model.IdempotencyRecord;
+import eformer.back.eformer_backend.repository.IdempotencyRecordRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+
+/**
+ * Executes a request at most once per `Idempotency-Key`.
+ * <p>
+ * The first successful (2xx) response is stored in the same transaction as the request's own writes,
+ * so either both commit or neither does, and is replayed to retries until it expires.
+ * Recent responses are kept in a bounded in-memory cache in front of the `idempotency_keys` table.
+ * A duplicate arriving while the first request is still running waits for its result
+ * instead of executing again. Failed responses are not stored, the request may be retried.
+ * <p>
+ * Keys are scoped by endpoint & user, waiting on an in-flight request only works within one instance.
+ * Rows are keyed by a SHA-256 of endpoint, user & key, so any username & key length fits the column.
+ */
+@Service
+public class IdempotencyService {
+    public static final String HEADER = "idempotency-key";
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository records;
+
+    private final TransactionTemplate transactions;
+
+    private final ObjectMapper mapper;
+
+    private final long ttlMillis;
+
+    private final long waitMillis;
+
+    private final Map<String, IdempotencyRecord> cache;
+
+    private final ConcurrentHashMap<String, CompletableFuture<ResponseEntity<Object>>> inFlight =
+            new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository records,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper mapper,
+                              @Value("${eformer.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                              @Value("${eformer.idempotency.cache-size:10000}") int cacheSize,
+                              @Value("${eformer.idempotency.wait-seconds:30}") long waitSeconds) {
+        this.records = records;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.mapper = mapper;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.waitMillis = waitSeconds * 1000;
+
+        /* Least recently used entries are dropped first, they are still in the table */
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    private static String currentUser() {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? "" : authentication.getName();
+    }
+
+    /**
+     * Hex SHA-256 of the scoped key. The username's length is included so
+     * user `a:b` with key `c` never shares a row with user `a` & key `b:c`.
+     * */
+    static String recordKey(String endpoint, String user, String key) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(
+                    (endpoint + ":" + user.length() + ":" + user + ":" + key).getBytes(StandardCharsets.UTF_8));
+
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required on every JVM", e);
+        }
+    }
+
+    private boolean isExpired(IdempotencyRecord record) {
+        return System.currentTimeMillis() - record.getCreatedAt().getTime() > ttlMillis;
+    }
+
+    private static ResponseEntity<Object> replay(IdempotencyRecord record) {
+        var response = ResponseEntity.status(record.getStatus()).header(REPLAYED_HEADER, "true");
+
+        if (record.getBody() == null) {
+            return response.build();
+        }
+
+        return response.contentType(MediaType.APPLICATION_JSON).body(record.getBody());
+    }
+
+    private IdempotencyRecord lookup(String id) {
+        var record = cache.get(id);
+
+        if (record == null) {
+            record = records.findById(id).orElse(null);
+
+            if (record != null) {
+                cache.put(id, record);
+            }
+        }
+
+        return record == null || isExpired(record) ? null : record;
+    }
+
+    /**
+     * Runs `action` unless a response for the same endpoint, user & key exists.
+     * A null key runs the action as usual.
+     * */
+    public ResponseEntity<Object> execute(String endpoint, String key, Supplier<ResponseEntity<Object>> action) {
+        if (key == null) {
+            return action.get();
+        } else if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            /* 422 */
+            return new ResponseEntity<>("Idempotency-Key must have 1 to " + MAX_KEY_LENGTH + " characters",
+                    HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+
+        var id = recordKey(endpoint, currentUser(), key);
+        var stored = lookup(id);
+
+        if (stored != null) {
+            return replay(stored);
+        }
+
+        var pending = new CompletableFuture<ResponseEntity<Object>>();
+        var running = inFlight.putIfAbsent(id, pending);
+
+        if (running != null) {
+            return await(running);
+        }
+
+        try {
+            /* The first request may have finished between the lookup & the claim */
+            stored = lookup(id);
+
+            var response = stored != null ? replay(stored) : run(id, action);
+
+            pending.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, pending);
+        }
+    }
+
+    private ResponseEntity<Object> run(String id, Supplier<ResponseEntity<Object>> action) {
+        var saved = new AtomicReference<IdempotencyRecord>();
+
+        var response = transactions.execute(status -> {
+            var result = action.get();
+
+            if (!result.getStatusCode().is2xxSuccessful() || status.isRollbackOnly()) {
+                /* Undo partial work, nothing is stored so the request can be retried */
+                status.setRollbackOnly();
+                return result;
+            }
+
+            saved.set(records.save(new IdempotencyRecord(id, result.getStatusCode().value(),
+                    serialize(result.getBody()), new Timestamp(System.currentTimeMillis()))));
+
+            return result;
+        });
+
+        /* Only cached once committed */
+        if (saved.get() != null) {
+            cache.put(id, saved.get());
+        }
+
+        return response;
+    }
+
+    private String serialize(Object body) {
+        if (body == null) {
+            return null;
+        }
+
+        try {
+            return mapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response cannot be stored", e);
+        }
+    }
+
+    private ResponseEntity<Object> await(CompletableFuture<ResponseEntity<Object>> running) {
+        try {
+            return running.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            /* 409 */
+            return new ResponseEntity<>("A request with this Idempotency-Key is still in progress",
+                    HttpStatus.CONFLICT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ResponseEntity<>("Interrupted", HttpStatus.CONFLICT); /* 409 */
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${eformer.idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        records.deleteAllCreatedBefore(new Date(System.currentTimeMillis() - ttlMillis));
+
+        synchronized (cache) {
+            cache.values().removeIf(this::isExpired);
+        }
+    }
+}
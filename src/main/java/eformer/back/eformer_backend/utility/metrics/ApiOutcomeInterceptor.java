@@ -0,0 +1,44 @@
+package eformer.back.eformer_backend.utility.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+
+/**
+ * Counts the client-error outcomes the controllers produce (400, 403 & 422),
+ * tagged by controller and handler method.
+ */
+@Component
+public class ApiOutcomeInterceptor implements HandlerInterceptor {
+    private final MeterRegistry registry;
+
+    public ApiOutcomeInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    private static boolean isTracked(int status) {
+        return status == 400 || status == 403 || status == 422;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request,
+                                HttpServletResponse response,
+                                Object handler,
+                                Exception ex) {
+        var status = response.getStatus();
+
+        if (!isTracked(status) || !(handler instanceof HandlerMethod method)) {
+            return;
+        }
+
+        registry.counter("eformer.api.outcomes",
+                "controller", method.getBeanType().getSimpleName(),
+                "method", method.getMethod().getName(),
+                "status", String.valueOf(status)
+        ).increment();
+    }
+}
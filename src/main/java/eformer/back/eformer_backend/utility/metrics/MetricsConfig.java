@@ -0,0 +1,25 @@
+package eformer.back.eformer_backend.utility.metrics;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+
+/**
+ * Controller timers (`http.server.requests`), repository timers
+ * (`spring.data.repository.invocations`) & connection pool gauges (`hikaricp.*`)
+ * are provided by actuator, see application.properties for their histograms.
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+    private final ApiOutcomeInterceptor outcomeInterceptor;
+
+    public MetricsConfig(ApiOutcomeInterceptor outcomeInterceptor) {
+        this.outcomeInterceptor = outcomeInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(outcomeInterceptor).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,33 @@
+package eformer.back.eformer_backend.utility.metrics;
+
+import eformer.back.eformer_backend.utility.orders.event.OrderConfirmed;
+import eformer.back.eformer_backend.utility.orders.event.OrderEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+
+/**
+ * Counts committed order events as `eformer.orders.events`, tagged by type,
+ * and records the total & profit of confirmed orders.
+ */
+@Component
+public class OrderEventMetrics {
+    private final MeterRegistry registry;
+
+    public OrderEventMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Async("orderEventsExecutor")
+    @TransactionalEventListener
+    public void onOrderEvent(OrderEvent event) {
+        registry.counter("eformer.orders.events", "type", event.getClass().getSimpleName()).increment();
+
+        if (event instanceof OrderConfirmed confirmed) {
+            registry.summary("eformer.orders.confirmed.total").record(confirmed.total());
+            registry.summary("eformer.orders.confirmed.profit").record(confirmed.profit());
+        }
+    }
+}
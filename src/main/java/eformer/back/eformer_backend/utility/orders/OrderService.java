@@ -0,0 +1,307 @@
+package eformer.back.eformer_backend.utility.orders;
+
+import eformer.back.eformer_backend.model.Item;
+import eformer.back.eformer_backend.model.Order;
+import eformer.back.eformer_backend.model.OrderItem;
+import eformer.back.eformer_backend.model.User;
+import eformer.back.eformer_backend.repository.ItemRepository;
+import eformer.back.eformer_backend.repository.OrderItemsRepository;
+import eformer.back.eformer_backend.repository.OrderRepository;
+import eformer.back.eformer_backend.utility.InvalidOrderUpdateException;
+import eformer.back.eformer_backend.utility.orders.event.OrderCancelled;
+import eformer.back.eformer_backend.utility.orders.event.OrderConfirmed;
+import eformer.back.eformer_backend.utility.orders.event.OrderCreated;
+import eformer.back.eformer_backend.utility.orders.event.OrderLine;
+import eformer.back.eformer_backend.utility.orders.event.OrderLinesChanged;
+import eformer.back.eformer_backend.utility.sequence.ChangeSequencer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Order lifecycle, each operation runs in a single transaction.
+ * Items are loaded in one query, the totals are computed in memory & the order header
+ * is written once, so a failure part way leaves neither the order nor the stock changed.
+ * Confirm & cancel row-lock the items before loading them, so stock changes of concurrent
+ * orders apply one after the other & their change versions follow the commit order.
+ * Every operation publishes an OrderEvent, side effects beyond the order & its stock
+ * belong in listeners running after commit.
+ * Every operation also gives the order a new change sequence, read by `changesSince`,
+ * taken as late as possible since readers only wait `eformer.sequence.commit-lag-ms` for its commit.
+ */
+@Service
+public class OrderService {
+    private final OrderRepository orders;
+
+    private final OrderItemsRepository orderItems;
+
+    private final ItemRepository items;
+
+    private final ApplicationEventPublisher events;
+
+    private final ChangeSequencer sequencer;
+
+    public OrderService(OrderRepository orders, OrderItemsRepository orderItems,
+                        ItemRepository items, ApplicationEventPublisher events,
+                        ChangeSequencer sequencer) {
+        this.orders = orders;
+        this.orderItems = orderItems;
+        this.items = items;
+        this.events = events;
+        this.sequencer = sequencer;
+    }
+
+    /**
+     * Gives each item whose stock changed a new change version, see CatalogService.
+     * */
+    private void stamp(List<Item> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        var version = sequencer.next(ChangeSequencer.ITEMS, changed.size());
+
+        for (var item: changed) {
+            item.setChangeVersion(version++);
+        }
+    }
+
+    private static List<OrderLine> toLines(Iterable<OrderItem> orderLines) {
+        var lines = new ArrayList<OrderLine>();
+
+        for (var line: orderLines) {
+            lines.add(OrderLine.of(line.getItem(), line.getQuantity()));
+        }
+
+        return lines;
+    }
+
+    private void sequence(Order order) {
+        order.setChangeSequence(sequencer.next(ChangeSequencer.ORDERS, 1));
+    }
+
+    /**
+     * Up to `limit` orders changed after `sequence`, in sequence order, up to the sequencer's watermark.
+     * Orders moved to the archive are no longer reported.
+     * */
+    public List<Order> changesSince(long sequence, int limit) {
+        return orders.findAllByChangeSequenceGreaterThanAndChangeSequenceLessThanEqualOrderByChangeSequence(
+                sequence, sequencer.watermark(ChangeSequencer.ORDERS), PageRequest.of(0, limit));
+    }
+
+    /**
+     * Sequences the orders written without one, such as those predating sequences.
+     * */
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void sequenceUnsequenced() {
+        var maxId = orders.findMaxUnsequencedId();
+
+        if (maxId != null && maxId > 0) {
+            orders.assignSequences(sequencer.next(ChangeSequencer.ORDERS, maxId) - 1);
+        }
+    }
+
+    /**
+     * Parses a basket of item ID to quantity, keeping the request's order.
+     * */
+    private static LinkedHashMap<Integer, Integer> parse(Map<String, Integer> basket) {
+        var quantities = new LinkedHashMap<Integer, Integer>();
+
+        for (var entry: basket.entrySet()) {
+            quantities.put(Integer.parseInt(entry.getKey()), entry.getValue());
+        }
+
+        return quantities;
+    }
+
+    /**
+     * Loads every item of the basket in one query, fails when one is unknown.
+     * */
+    private HashMap<Integer, Item> load(Iterable<Integer> itemIds) {
+        var loaded = new HashMap<Integer, Item>();
+
+        for (var item: items.findAllById(itemIds)) {
+            loaded.put(item.getItemId(), item);
+        }
+
+        return loaded;
+    }
+
+    private static void checkStock(Map<Integer, Integer> quantities, Map<Integer, Item> loaded,
+                                   Map<Integer, OrderItem> current) {
+        for (var entry: quantities.entrySet()) {
+            var item = loaded.get(entry.getKey());
+            var line = current.get(entry.getKey());
+            var available = item == null ? 0 : item.getQuantity() + (line == null ? 0 : line.getQuantity());
+
+            if (item != null && item.isRetired() && line == null) {
+                throw new InvalidOrderUpdateException(item.getName() + " is no longer sold");
+            } else if (item == null || entry.getValue() == null || available < entry.getValue()) {
+                throw new InvalidOrderUpdateException("Quantities too large");
+            }
+        }
+    }
+
+    /**
+     * Throws InvalidOrderUpdateException when an item is unknown or short of stock.
+     * */
+    @Transactional
+    public Order create(User customer, User employee, String note, Map<String, Integer> basket) {
+        var quantities = parse(basket);
+        var loaded = load(quantities.keySet());
+
+        checkStock(quantities, loaded, Map.of());
+
+        var order = new Order(customer, employee);
+        order.setNote(note);
+
+        for (var entry: quantities.entrySet()) {
+            order.addLine(loaded.get(entry.getKey()), entry.getValue());
+        }
+
+        var saved = orders.save(order);
+        var lines = new ArrayList<OrderItem>();
+
+        for (var entry: quantities.entrySet()) {
+            lines.add(new OrderItem(saved, loaded.get(entry.getKey()), entry.getValue()));
+        }
+
+        orderItems.saveAll(lines);
+        orderItems.flush();
+
+        /* Sequenced once its rows are written, at the cost of updating the header again at commit */
+        sequence(saved);
+
+        events.publishEvent(new OrderCreated(saved.getOrderId(), customer.getUserId(), employee.getUserId(),
+                Instant.now(), toLines(lines)));
+
+        return saved;
+    }
+
+    /**
+     * Replaces the order's lines with `basket`.
+     * Lines kept are updated in place, only added & removed lines are inserted or deleted.
+     * */
+    @Transactional
+    public Order update(Order order, Map<String, Integer> basket) {
+        var quantities = parse(basket);
+        var current = new HashMap<Integer, OrderItem>();
+
+        for (var line: orderItems.findAllByOrder(order)) {
+            current.put(line.getItem().getItemId(), line);
+        }
+
+        var loaded = load(quantities.keySet());
+
+        order.clearLines();
+        checkStock(quantities, loaded, current);
+
+        var saved = new ArrayList<OrderItem>();
+        var lines = new ArrayList<OrderLine>();
+
+        for (var entry: quantities.entrySet()) {
+            var item = loaded.get(entry.getKey());
+            var line = current.remove(entry.getKey());
+
+            order.addLine(item, entry.getValue());
+            lines.add(OrderLine.of(item, entry.getValue()));
+
+            if (line == null) {
+                saved.add(new OrderItem(order, item, entry.getValue()));
+            } else if (!line.getQuantity().equals(entry.getValue())) {
+                line.setQuantity(entry.getValue());
+                saved.add(line);
+            }
+        }
+
+        /* Whatever is left is no longer in the basket */
+        orderItems.deleteAll(current.values());
+        orderItems.saveAll(saved);
+
+        events.publishEvent(new OrderLinesChanged(order.getOrderId(), Instant.now(), lines));
+        sequence(order);
+
+        return orders.save(order);
+    }
+
+    /**
+     * Takes the ordered quantities out of stock, fails without changes when one is short.
+     * */
+    @Transactional
+    public Order confirm(Order order, Double amountPaid) {
+        order.confirm(amountPaid);
+        items.lockAllInOrder(order);
+
+        var changed = new ArrayList<Item>();
+        var lines = orderItems.findAllByOrder(order);
+
+        for (var line: lines) {
+            var item = line.getItem();
+
+            if (!item.removeQuantity(line.getQuantity())) {
+                throw new InvalidOrderUpdateException("Not enough " + item.getName() + " in stock");
+            }
+
+            changed.add(item);
+        }
+
+        stamp(changed);
+        items.saveAll(changed);
+
+        var employee = order.getEmployee();
+
+        events.publishEvent(new OrderConfirmed(order.getOrderId(), employee == null ? null : employee.getUserId(),
+                order.getTotal(), order.getProfit(), amountPaid,
+                order.getCreationDate().atZone(ZoneId.systemDefault()).toInstant(), Instant.now(), toLines(lines)));
+        sequence(order);
+
+        return orders.save(order);
+    }
+
+    /**
+     * Returns the stock of a confirmed order & drops its lines.
+     * */
+    @Transactional
+    public Order cancel(Order order) {
+        var wasConfirmed = order.isConfirmed();
+
+        order.cancel();
+
+        List<OrderItem> returned = List.of();
+
+        if (wasConfirmed) {
+            items.lockAllInOrder(order);
+
+            var changed = new ArrayList<Item>();
+            returned = orderItems.findAllByOrder(order);
+
+            for (var line: returned) {
+                line.getItem().addQuantity(line.getQuantity());
+                changed.add(line.getItem());
+            }
+
+            stamp(changed);
+            items.saveAll(changed);
+        }
+
+        orderItems.deleteAllByOrder(order);
+
+        events.publishEvent(new OrderCancelled(order.getOrderId(), wasConfirmed, Instant.now(), toLines(returned)));
+        sequence(order);
+
+        return orders.save(order);
+    }
+}
@@ -0,0 +1,11 @@
+package eformer.back.eformer_backend.utility.orders.event;
+
+import java.time.Instant;
+import java.util.List;
+
+
+/**
+ * Lines are the ones returned to stock, empty unless the order was confirmed.
+ */
+public record OrderCancelled(Integer orderId, boolean wasConfirmed,
+                             Instant occurredAt, List<OrderLine> lines) implements OrderEvent {}
@@ -0,0 +1,11 @@
+package eformer.back.eformer_backend.utility.orders.event;
+
+import java.time.Instant;
+import java.util.List;
+
+
+/**
+ * The lines' stock is the stock left once the order was taken out.
+ */
+public record OrderConfirmed(Integer orderId, Integer employeeId, Double total, Double profit, Double amountPaid,
+                             Instant createdAt, Instant occurredAt, List<OrderLine> lines) implements OrderEvent {}
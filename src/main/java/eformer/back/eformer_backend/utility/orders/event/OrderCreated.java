@@ -0,0 +1,8 @@
+package eformer.back.eformer_backend.utility.orders.event;
+
+import java.time.Instant;
+import java.util.List;
+
+
+public record OrderCreated(Integer orderId, Integer customerId, Integer employeeId,
+                           Instant occurredAt, List<OrderLine> lines) implements OrderEvent {}
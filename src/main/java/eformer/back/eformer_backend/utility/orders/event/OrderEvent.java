@@ -0,0 +1,17 @@
+package eformer.back.eformer_backend.utility.orders.event;
+
+import java.time.Instant;
+import java.util.List;
+
+
+/**
+ * Published by OrderService inside the order's transaction,
+ * listeners registered for AFTER_COMMIT only see orders that were committed.
+ */
+public interface OrderEvent {
+    Integer orderId();
+
+    Instant occurredAt();
+
+    List<OrderLine> lines();
+}
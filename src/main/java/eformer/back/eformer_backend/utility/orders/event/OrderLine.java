@@ -0,0 +1,15 @@
+package eformer.back.eformer_backend.utility.orders.event;
+
+import eformer.back.eformer_backend.model.Item;
+
+
+/**
+ * An order line as of the event, with the item's price, cost, remaining stock & change version at that time.
+ */
+public record OrderLine(Integer itemId, Integer quantity, Double unitPrice, Double cost, Integer stockAfter,
+                        Long changeVersion) {
+    public static OrderLine of(Item item, Integer quantity) {
+        return new OrderLine(item.getItemId(), quantity, item.getUnitPrice(), item.getCost(), item.getQuantity(),
+                item.getChangeVersion());
+    }
+}
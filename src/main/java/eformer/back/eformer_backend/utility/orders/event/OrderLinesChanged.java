@@ -0,0 +1,10 @@
+package eformer.back.eformer_backend.utility.orders.event;
+
+import java.time.Instant;
+import java.util.List;
+
+
+/**
+ * Carries every line of the order after the change.
+ */
+public record OrderLinesChanged(Integer orderId, Instant occurredAt, List<OrderLine> lines) implements OrderEvent {}
@@ -0,0 +1,21 @@
+package eformer.back.eformer_backend.utility.outbox;
+
+import eformer.back.eformer_backend.model.OutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Default publisher until a downstream system is wired in, logs each event.
+ */
+@Component
+public class LoggingOutboxPublisher implements OutboxPublisher {
+    private static final Logger log = LoggerFactory.getLogger(LoggingOutboxPublisher.class);
+
+    @Override
+    public void publish(OutboxEvent event) {
+        log.info("Outbox event {} {} for order {}: {}",
+                event.getEventId(), event.getType(), event.getAggregateId(), event.getPayload());
+    }
+}
@@ -0,0 +1,191 @@
+package eformer.back.eformer_backend.utility.outbox;
+
+import eformer.back.eformer_backend.model.OutboxEvent;
+import eformer.back.eformer_backend.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Polls the outbox & hands due events to the OutboxPublisher.
+ * <p>
+ * Each batch is claimed in a short transaction: the rows are locked with `FOR UPDATE SKIP LOCKED`
+ * & their `available_at` is pushed `claim-lease-ms` ahead, so several nodes can poll concurrently
+ * without picking the same rows. The events are published after that transaction commits, no lock
+ * or connection is held during the external calls, & the outcomes are saved in a second short transaction.
+ * A node that dies before saving them leaves the events to be claimed again once the lease runs out,
+ * as does a publish outlasting the lease (at-least-once).
+ * Failed deliveries are retried with exponential backoff, after `max-attempts` the event is DEAD.
+ * <p>
+ * Metrics: `eformer.outbox.dispatched` (tagged sent, retry or dead, its rate is the throughput),
+ * `eformer.outbox.pending` & `eformer.outbox.lag.seconds`, the age of the oldest pending event.
+ */
+@Component
+public class OutboxDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private final OutboxEventRepository outbox;
+
+    private final TransactionTemplate transactions;
+
+    private final OutboxPublisher publisher;
+
+    private final MeterRegistry registry;
+
+    private final boolean enabled;
+
+    private final int batchSize;
+
+    private final int maxBatchesPerPoll;
+
+    private final int maxAttempts;
+
+    private final long backoffMillis;
+
+    private final long maxBackoffMillis;
+
+    private final long leaseMillis;
+
+    private final long retentionMillis;
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    public OutboxDispatcher(OutboxEventRepository outbox,
+                            PlatformTransactionManager transactionManager,
+                            OutboxPublisher publisher,
+                            MeterRegistry registry,
+                            @Value("${eformer.outbox.dispatcher.enabled:true}") boolean enabled,
+                            @Value("${eformer.outbox.batch-size:100}") int batchSize,
+                            @Value("${eformer.outbox.max-batches-per-poll:10}") int maxBatchesPerPoll,
+                            @Value("${eformer.outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${eformer.outbox.backoff-ms:1000}") long backoffMillis,
+                            @Value("${eformer.outbox.max-backoff-ms:600000}") long maxBackoffMillis,
+                            @Value("${eformer.outbox.claim-lease-ms:60000}") long leaseMillis,
+                            @Value("${eformer.outbox.retention-hours:24}") long retentionHours) {
+        this.outbox = outbox;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.publisher = publisher;
+        this.registry = registry;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxBatchesPerPoll = maxBatchesPerPoll;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.leaseMillis = leaseMillis;
+        this.retentionMillis = retentionHours * 3_600_000;
+
+        registry.gauge("eformer.outbox.pending", pending);
+        registry.gauge("eformer.outbox.lag.seconds", lagSeconds);
+    }
+
+    @Scheduled(fixedDelayString = "${eformer.outbox.poll-interval-ms:1000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            for (int i = 0; i < maxBatchesPerPoll; i++) {
+                var claimed = dispatchBatch();
+
+                if (claimed < batchSize) {
+                    break;
+                }
+            }
+
+            transactions.executeWithoutResult(status -> {
+                var oldest = outbox.findOldestPending();
+
+                pending.set(outbox.countByStatus(OutboxEvent.PENDING));
+                lagSeconds.set(oldest == null ? 0 : (System.currentTimeMillis() - oldest.getTime()) / 1000);
+            });
+        } catch (RuntimeException e) {
+            /* The next poll tries again */
+            log.warn("Outbox dispatch failed", e);
+        }
+    }
+
+    private int dispatchBatch() {
+        var now = System.currentTimeMillis();
+        var batch = transactions.execute(status -> claim(now));
+
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        for (var event: batch) {
+            deliver(event, now);
+        }
+
+        transactions.executeWithoutResult(status -> outbox.saveAll(batch));
+
+        return batch.size();
+    }
+
+    /**
+     * Locks the due events & hides them from other pollers until the lease runs out.
+     * */
+    private List<OutboxEvent> claim(long now) {
+        var batch = outbox.claimDue(new Date(now), batchSize);
+
+        for (var event: batch) {
+            event.setAvailableAt(new Timestamp(now + leaseMillis));
+        }
+
+        outbox.saveAll(batch);
+
+        return batch;
+    }
+
+    /**
+     * Publishes one claimed event & records the outcome on it, saving is up to the caller.
+     * */
+    public void deliver(OutboxEvent event, long now) {
+        try {
+            publisher.publish(event);
+
+            event.setStatus(OutboxEvent.SENT);
+            event.setSentAt(new Timestamp(now));
+            event.setLastError(null);
+            registry.counter("eformer.outbox.dispatched", "outcome", "sent").increment();
+        } catch (Exception e) {
+            var attempts = event.getAttempts() + 1;
+            var error = String.valueOf(e.getMessage());
+
+            event.setAttempts(attempts);
+            event.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+
+            if (attempts >= maxAttempts) {
+                event.setStatus(OutboxEvent.DEAD);
+                registry.counter("eformer.outbox.dispatched", "outcome", "dead").increment();
+                log.error("Outbox event {} is dead after {} attempts", event.getEventId(), attempts, e);
+            } else {
+                var backoff = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempts - 1, 30));
+
+                event.setAvailableAt(new Timestamp(now + backoff));
+                registry.counter("eformer.outbox.dispatched", "outcome", "retry").increment();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${eformer.outbox.purge-interval-ms:3600000}")
+    public void purgeSent() {
+        if (enabled) {
+            outbox.deleteSentBefore(new Date(System.currentTimeMillis() - retentionMillis));
+        }
+    }
+}
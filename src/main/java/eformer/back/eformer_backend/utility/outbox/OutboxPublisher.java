@@ -0,0 +1,12 @@
+package eformer.back.eformer_backend.utility.outbox;
+
+import eformer.back.eformer_backend.model.OutboxEvent;
+
+
+/**
+ * Delivers an outbox event downstream, throwing marks the attempt as failed.
+ * Delivery is at-least-once, consumers should de-duplicate on the event ID.
+ */
+public interface OutboxPublisher {
+    void publish(OutboxEvent event) throws Exception;
+}
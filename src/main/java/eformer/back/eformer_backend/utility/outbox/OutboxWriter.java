@@ -0,0 +1,35 @@
+package eformer.back.eformer_backend.utility.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eformer.back.eformer_backend.model.OutboxEvent;
+import eformer.back.eformer_backend.repository.OutboxEventRepository;
+import eformer.back.eformer_backend.utility.orders.event.OrderEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+
+
+/**
+ * Writes every order event to the outbox just before the order's transaction commits,
+ * so the event is stored if & only if the change is.
+ */
+@Component
+public class OutboxWriter {
+    private final OutboxEventRepository outbox;
+
+    private final ObjectMapper mapper;
+
+    public OutboxWriter(OutboxEventRepository outbox, ObjectMapper mapper) {
+        this.outbox = outbox;
+        this.mapper = mapper;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onOrderEvent(OrderEvent event) throws JsonProcessingException {
+        outbox.save(new OutboxEvent(event.orderId(), event.getClass().getSimpleName(),
+                mapper.writeValueAsString(event), Timestamp.from(event.occurredAt())));
+    }
+}
@@ -0,0 +1,89 @@
+package eformer.back.eformer_backend.utility.search;
+
+import eformer.back.eformer_backend.model.Item;
+import eformer.back.eformer_backend.repository.ItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+
+
+/**
+ * Typeahead index over the name & description of every item, names weigh three times more.
+ * <p>
+ * Built after startup, updated by ItemsApi on each create & update & rebuilt every `refresh-ms`
+ * to pick up items changed through other nodes. Only IDs are indexed, callers load the rows
+ * so quantities & prices are never stale.
+ */
+@Component
+public class ItemSearchIndex {
+    private static final Logger log = LoggerFactory.getLogger(ItemSearchIndex.class);
+
+    private static final int NAME_WEIGHT = 3;
+
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final ItemRepository items;
+
+    private final PrefixIndex<Integer> index = new PrefixIndex<>(NAME_WEIGHT, DESCRIPTION_WEIGHT);
+
+    public ItemSearchIndex(ItemRepository items) {
+        this.items = items;
+    }
+
+    /**
+     * Indexes the item, or drops it once retired.
+     * */
+    public void put(Item item) {
+        if (item.isRetired()) {
+            index.remove(item.getItemId());
+        } else {
+            index.put(item.getItemId(), item.getItemId(), item.getName(), item.getDescription());
+        }
+    }
+
+    /**
+     * IDs of the `limit` items best matching `query`, best first.
+     * */
+    public List<Integer> search(String query, int limit) {
+        return index.search(query, null, 0, limit);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        var start = System.nanoTime();
+
+        rebuild();
+        log.info("Indexed {} items for search in {} ms", index.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Re-indexes every item & drops the deleted ones. Items created while it runs are kept,
+     * an update racing it may be overwritten by the older row until the next rebuild.
+     * */
+    @Scheduled(fixedDelayString = "${eformer.search.items.refresh-ms:300000}",
+               initialDelayString = "${eformer.search.items.refresh-ms:300000}")
+    public void rebuild() {
+        var seen = new HashSet<Integer>();
+        var maxId = Integer.MIN_VALUE;
+
+        for (var item: items.findAll()) {
+            put(item);
+            seen.add(item.getItemId());
+            maxId = Math.max(maxId, item.getItemId());
+        }
+
+        var newest = maxId;
+
+        index.retainIf(id -> id > newest || seen.contains(id));
+    }
+}
@@ -0,0 +1,245 @@
+package eformer.back.eformer_backend.utility.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+
+/**
+ * In-memory token index answering "every query word is a prefix of some indexed word" queries.
+ * <p>
+ * Each document has a fixed list of text fields, each with a weight. Fields are lowercased,
+ * stripped of accents & split on anything that is not a letter or digit. The sorted token map
+ * turns a prefix into a range scan, so a lookup costs the matching tokens, not the documents.
+ * <p>
+ * A document matches when every query word prefixes one of its tokens. Per word it scores
+ * the best field weight, doubled for a whole-token match, & the first field starting with the
+ * whole query adds twice its weight. Ties go to the shorter first field, then the lower ID.
+ * <p>
+ * Writers are serialized, searches never lock & may see a document being updated half indexed.
+ */
+public class PrefixIndex<T> {
+    private final int[] weights;
+
+    /* Token to document ID to the bit mask of the fields containing it */
+    private final ConcurrentSkipListMap<String, ConcurrentHashMap<Integer, Integer>> postings =
+            new ConcurrentSkipListMap<>();
+
+    private final ConcurrentHashMap<Integer, Document<T>> documents = new ConcurrentHashMap<>();
+
+    public PrefixIndex(int... weights) {
+        if (weights.length == 0 || weights.length > Integer.SIZE) {
+            throw new IllegalArgumentException("Between 1 and 32 fields");
+        }
+
+        this.weights = weights.clone();
+    }
+
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+
+        return Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    public static List<String> tokens(String text) {
+        var tokens = new ArrayList<String>();
+
+        for (var token: normalize(text).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+
+        return tokens;
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    public boolean contains(int id) {
+        return documents.containsKey(id);
+    }
+
+    /**
+     * Adds or replaces a document, `fields` follow the order of the weights.
+     * */
+    public synchronized void put(int id, T value, String... fields) {
+        if (fields.length != weights.length) {
+            throw new IllegalArgumentException("Expected " + weights.length + " fields");
+        }
+
+        var masks = new HashMap<String, Integer>();
+
+        for (int field = 0; field < fields.length; field++) {
+            for (var token: tokens(fields[field])) {
+                masks.merge(token, 1 << field, (a, b) -> a | b);
+            }
+        }
+
+        var previous = documents.get(id);
+
+        if (previous != null) {
+            for (var token: previous.tokens()) {
+                if (!masks.containsKey(token)) {
+                    unpost(token, id);
+                }
+            }
+        }
+
+        for (var entry: masks.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), ignored -> new ConcurrentHashMap<>()).put(id, entry.getValue());
+        }
+
+        documents.put(id, new Document<>(value, normalize(fields[0]), masks.keySet().toArray(String[]::new)));
+    }
+
+    public synchronized void remove(int id) {
+        var previous = documents.remove(id);
+
+        if (previous != null) {
+            for (var token: previous.tokens()) {
+                unpost(token, id);
+            }
+        }
+    }
+
+    /**
+     * Removes every document whose ID does not match `keep`.
+     * */
+    public synchronized void retainIf(IntPredicate keep) {
+        for (var id: new ArrayList<>(documents.keySet())) {
+            if (!keep.test(id)) {
+                remove(id);
+            }
+        }
+    }
+
+    private void unpost(String token, int id) {
+        var ids = postings.get(token);
+
+        if (ids != null) {
+            ids.remove(id);
+
+            if (ids.isEmpty()) {
+                postings.remove(token, ids);
+            }
+        }
+    }
+
+    /**
+     * Best score of `word` per matching document.
+     * */
+    private Map<Integer, Integer> scores(String word) {
+        var scores = new HashMap<Integer, Integer>();
+
+        for (var entry: postings.subMap(word, true, word + Character.MAX_VALUE, false).entrySet()) {
+            var exact = entry.getKey().length() == word.length();
+
+            for (var posting: entry.getValue().entrySet()) {
+                var score = 0;
+
+                for (int field = 0; field < weights.length; field++) {
+                    if ((posting.getValue() & (1 << field)) != 0) {
+                        score = Math.max(score, exact ? 2 * weights[field] : weights[field]);
+                    }
+                }
+
+                scores.merge(posting.getKey(), score, Math::max);
+            }
+        }
+
+        return scores;
+    }
+
+    /**
+     * Documents matching `query` & `filter`, best first, skipping `offset` & returning at most `limit`.
+     * */
+    public List<T> search(String query, Predicate<T> filter, int offset, int limit) {
+        var words = new LinkedHashSet<>(tokens(query));
+
+        if (words.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Map<Integer, Integer> matches = null;
+
+        for (var word: words) {
+            var scores = scores(word);
+
+            if (matches == null) {
+                matches = scores;
+            } else {
+                var previous = matches;
+
+                matches = new HashMap<>();
+
+                for (var entry: previous.entrySet()) {
+                    var score = scores.get(entry.getKey());
+
+                    if (score != null) {
+                        matches.put(entry.getKey(), entry.getValue() + score);
+                    }
+                }
+            }
+
+            if (matches.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        var phrase = normalize(query).trim();
+        var wanted = offset + limit;
+        var comparator = Comparator.<Hit<T>>comparingInt(Hit::score)
+                .thenComparing(Comparator.<Hit<T>>comparingInt(hit -> hit.document().first().length()).reversed())
+                .thenComparing(Comparator.<Hit<T>>comparingInt(Hit::id).reversed());
+
+        /* Worst of the best `wanted` on top */
+        var best = new PriorityQueue<>(comparator);
+
+        for (var entry: matches.entrySet()) {
+            var document = documents.get(entry.getKey());
+
+            if (document == null || (filter != null && !filter.test(document.value()))) {
+                continue;
+            }
+
+            var score = entry.getValue() + (document.first().startsWith(phrase) ? 2 * weights[0] : 0);
+
+            best.add(new Hit<>(entry.getKey(), score, document));
+
+            if (best.size() > wanted) {
+                best.poll();
+            }
+        }
+
+        var ranked = new ArrayList<Hit<T>>(best);
+        ranked.sort(comparator.reversed());
+
+        var result = new ArrayList<T>(Math.max(0, ranked.size() - offset));
+
+        for (int i = offset; i < ranked.size(); i++) {
+            result.add(ranked.get(i).document().value());
+        }
+
+        return result;
+    }
+
+    private record Document<T>(T value, String first, String[] tokens) {}
+
+    private record Hit<T>(int id, int score, Document<T> document) {}
+}
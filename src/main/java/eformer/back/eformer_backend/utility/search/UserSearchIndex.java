@@ -0,0 +1,90 @@
+package eformer.back.eformer_backend.utility.search;
+
+import eformer.back.eformer_backend.model.User;
+import eformer.back.eformer_backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+
+
+/**
+ * Lookup index over the full name, username & email of every user, matching word prefixes.
+ * Emails are split at `@` & `.`, so `jdoe@exa` matches `jdoe@example.com`.
+ * <p>
+ * Built after startup, updated on each register, create & update & rebuilt every `refresh-ms`
+ * to pick up users changed through other nodes. Only IDs & levels are indexed, no personal data
+ * beyond the tokens & the rows are loaded by the caller.
+ */
+@Component
+public class UserSearchIndex {
+    private static final Logger log = LoggerFactory.getLogger(UserSearchIndex.class);
+
+    private static final int FULL_NAME_WEIGHT = 3;
+
+    private static final int USERNAME_WEIGHT = 3;
+
+    private static final int EMAIL_WEIGHT = 2;
+
+    private final UserRepository users;
+
+    private final PrefixIndex<Entry> index = new PrefixIndex<>(FULL_NAME_WEIGHT, USERNAME_WEIGHT, EMAIL_WEIGHT);
+
+    public UserSearchIndex(UserRepository users) {
+        this.users = users;
+    }
+
+    public void put(User user) {
+        index.put(user.getUserId(), new Entry(user.getUserId(), user.getAdLevel()),
+                user.getFullName(), user.getUsername(), user.getEmail());
+    }
+
+    /**
+     * IDs of the users best matching `query`, of level `adLevel` unless null, best first.
+     * */
+    public List<Integer> search(String query, Integer adLevel, int offset, int limit) {
+        return index.search(query, entry -> adLevel == null || adLevel.equals(entry.adLevel()), offset, limit)
+                .stream()
+                .map(Entry::userId)
+                .toList();
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        var start = System.nanoTime();
+
+        rebuild();
+        log.info("Indexed {} users for search in {} ms", index.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Re-indexes every user & drops the deleted ones, users created while it runs are kept.
+     * */
+    @Scheduled(fixedDelayString = "${eformer.search.users.refresh-ms:300000}",
+               initialDelayString = "${eformer.search.users.refresh-ms:300000}")
+    public void rebuild() {
+        var seen = new HashSet<Integer>();
+        var maxId = Integer.MIN_VALUE;
+
+        for (var user: users.findAll()) {
+            put(user);
+            seen.add(user.getUserId());
+            maxId = Math.max(maxId, user.getUserId());
+        }
+
+        var newest = maxId;
+
+        index.retainIf(id -> id > newest || seen.contains(id));
+    }
+
+    private record Entry(int userId, Integer adLevel) {}
+}
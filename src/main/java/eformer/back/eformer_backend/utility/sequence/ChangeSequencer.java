@@ -0,0 +1,97 @@
+package eformer.back.eformer_backend.utility.sequence;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+
+/**
+ * Hands out increasing change versions, shared by every node through one row per counter.
+ * <p>
+ * Versions are taken in a short transaction of their own (see JdbcCounterIssuer), writers never wait on
+ * one another for them. The writer's own transaction commits later, so a lower version may become visible
+ * after a higher one. Readers paging by version stop at the watermark, the last version issued at least
+ * `eformer.sequence.commit-lag-ms` ago: writers take versions once their rows are written or locked & the
+ * lag has to outlast the time from there to their commit. A version whose writer rolls back is never seen.
+ */
+@Component
+public class ChangeSequencer {
+    public static final String ITEMS = "items";
+
+    public static final String ORDERS = "orders";
+
+    public static final List<String> COUNTERS = List.of(ITEMS, ORDERS);
+
+    private record Sample(long at, long issued) {}
+
+    private final CounterIssuer issuer;
+
+    private final long commitLagMs;
+
+    private final LongSupplier clock;
+
+    /* Per counter, issued values read no more often than every tenth of the lag, oldest first */
+    private final Map<String, ArrayDeque<Sample>> samples = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ChangeSequencer(
+            CounterIssuer issuer,
+            @Value("${eformer.sequence.commit-lag-ms:5000}") long commitLagMs
+    ) {
+        this(issuer, commitLagMs, System::currentTimeMillis);
+    }
+
+    ChangeSequencer(CounterIssuer issuer, long commitLagMs, LongSupplier clock) {
+        this.issuer = issuer;
+        this.commitLagMs = commitLagMs;
+        this.clock = clock;
+    }
+
+    /**
+     * First of `count` consecutive versions of `counter`, each greater than any taken before.
+     * */
+    public long next(String counter, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Count must be positive");
+        }
+
+        return issuer.issue(counter, count) - count + 1;
+    }
+
+    /**
+     * Highest version of `counter` readers may page up to, every change up to it is committed or rolled back.
+     * Never decreases, 0 until this node has watched the counter for the lag.
+     * */
+    public long watermark(String counter) {
+        var now = clock.getAsLong();
+        var history = samples.computeIfAbsent(counter, name -> new ArrayDeque<>());
+
+        synchronized (history) {
+            if (history.isEmpty() || now - history.getLast().at() >= commitLagMs / 10) {
+                history.addLast(new Sample(now, issuer.issued(counter)));
+            }
+
+            /* Keep the newest sample old enough & the younger ones */
+            while (history.size() > 1) {
+                var iterator = history.iterator();
+                iterator.next();
+
+                if (now - iterator.next().at() < commitLagMs) {
+                    break;
+                }
+
+                history.removeFirst();
+            }
+
+            var oldest = history.getFirst();
+
+            return now - oldest.at() >= commitLagMs ? oldest.issued() : 0;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package eformer.back.eformer_backend.utility.sequence;
+
+
+/**
+ * Storage of the counters behind ChangeSequencer.
+ */
+public interface CounterIssuer {
+    /**
+     * Adds `count` to `counter`, created at 0 when missing, & returns the sum.
+     * Committed on return, whatever transaction the caller is in.
+     * */
+    long issue(String counter, int count);
+
+    /**
+     * Value of `counter`, 0 before its first issue.
+     * */
+    long issued(String counter);
+}
@@ -0,0 +1,77 @@
+package eformer.back.eformer_backend.utility.sequence;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+
+/**
+ * Bumps the `change_counters` rows in transactions of their own, on a small pool of its own
+ * (`eformer.sequence.pool-size`) so that callers holding a connection of the main pool never wait on it.
+ * The row is locked only for the UPDATE & the SELECT that follows.
+ * The pool is not a DataSource bean, it would replace the one Spring Boot configures.
+ */
+@Component
+public class JdbcCounterIssuer implements CounterIssuer, DisposableBean {
+    private final HikariDataSource dataSource;
+
+    private final JdbcTemplate jdbc;
+
+    private final TransactionTemplate transactions;
+
+    public JdbcCounterIssuer(
+            DataSourceProperties properties,
+            @Value("${eformer.sequence.pool-size:2}") int poolSize
+    ) {
+        dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("change-sequencer");
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setMinimumIdle(1);
+
+        jdbc = new JdbcTemplate(dataSource);
+        transactions = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @Override
+    public long issue(String counter, int count) {
+        var issued = transactions.execute(status -> increment(counter, count));
+
+        if (issued != null) {
+            return issued;
+        }
+
+        try {
+            jdbc.update("INSERT INTO change_counters (name, issued) VALUES (?, 0)", counter);
+        } catch (DuplicateKeyException e) {
+            /* Created by another node at the same time */
+        }
+
+        return transactions.execute(status -> increment(counter, count));
+    }
+
+    private Long increment(String counter, int count) {
+        if (jdbc.update("UPDATE change_counters SET issued = issued + ? WHERE name = ?", count, counter) == 0) {
+            return null;
+        }
+
+        return jdbc.queryForObject("SELECT issued FROM change_counters WHERE name = ?", Long.class, counter);
+    }
+
+    @Override
+    public long issued(String counter) {
+        var issued = jdbc.queryForList("SELECT issued FROM change_counters WHERE name = ?", Long.class, counter);
+
+        return issued.isEmpty() ? 0 : issued.get(0);
+    }
+
+    @Override
+    public void destroy() {
+        dataSource.close();
+    }
+}
@@ -0,0 +1,79 @@
+package eformer.back.eformer_backend.utility.stats;
+
+import eformer.back.eformer_backend.model.Order;
+import eformer.back.eformer_backend.repository.projection.OrderTotals;
+import eformer.back.eformer_backend.utility.archive.OrderHistory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+
+/**
+ * Computes every manager dashboard metric in one pass.
+ * Scalar sums come from a single aggregate query, the order listing is
+ * fetched concurrently on the statistics executor and the paid orders
+ * are derived from it instead of issuing another scan.
+ * Archived orders are included, see OrderHistory.
+ */
+@Service
+public class DashboardService {
+    private final OrderHistory manager;
+
+    private final Executor executor;
+
+    public DashboardService(OrderHistory manager,
+                            @Qualifier("statisticsExecutor") Executor executor) {
+        this.manager = manager;
+        this.executor = executor;
+    }
+
+    private static <T> Timed<T> time(Supplier<T> query) {
+        var start = System.nanoTime();
+        var value = query.get();
+
+        return new Timed<>(value, (System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    public HashMap<String, Object> compute() {
+        var start = System.nanoTime();
+
+        var ordersFuture = CompletableFuture.supplyAsync(() -> time(manager::findAll), executor);
+        var totals = time(manager::getTotals);
+        var orders = ordersFuture.join();
+
+        var paid = new ArrayList<Order>();
+
+        for (var order: orders.value()) {
+            if (order.getAmountPaid() != null && order.getAmountPaid() > 0) {
+                paid.add(order);
+            }
+        }
+
+        var timings = new LinkedHashMap<String, Double>();
+        timings.put("totals", totals.millis());
+        timings.put("orders", orders.millis());
+        timings.put("total", (System.nanoTime() - start) / 1_000_000.0);
+
+        var response = new HashMap<String, Object>();
+        OrderTotals sums = totals.value();
+
+        response.put("totalSales", sums.getTotalSales());
+        response.put("totalSoldQuantity", sums.getTotalSoldQuantity());
+        response.put("totalActualSales", sums.getTotalActualSales());
+        response.put("totalProfit", sums.getTotalProfit());
+        response.put("orderCount", sums.getOrderCount());
+        response.put("paid", paid);
+        response.put("orders", orders.value());
+        response.put("timings", timings);
+
+        return response;
+    }
+
+    private record Timed<T>(T value, double millis) {}
+}
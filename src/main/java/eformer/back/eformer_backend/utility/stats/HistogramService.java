@@ -0,0 +1,151 @@
+package eformer.back.eformer_backend.utility.stats;
+
+import eformer.back.eformer_backend.api.v1.request.HistogramRequest;
+import eformer.back.eformer_backend.utility.archive.OrderHistory;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+
+
+/**
+ * Order count, revenue & profit per hour, or per calendar day or week (from Monday) of the requested zone.
+ * <p>
+ * The grouped query counts fixed-width buckets, which match calendar days only while the zone's
+ * UTC offset stays the same. The range is therefore queried once per daylight saving period it
+ * spans, each query with an origin aligned to that period's midnights, so the 23 & 25 hour days
+ * keep their own orders. Ranges reaching past the archive horizon also count archived orders.
+ */
+@Service
+public class HistogramService {
+    public static final int MAX_BUCKETS = 5_000;
+
+    private final OrderHistory manager;
+
+    public HistogramService(OrderHistory manager) {
+        this.manager = manager;
+    }
+
+    private static ChronoUnit unitOf(String bucket) {
+        return switch (bucket.toUpperCase(Locale.ROOT)) {
+            case "HOUR" -> ChronoUnit.HOURS;
+            case "DAY" -> ChronoUnit.DAYS;
+            case "WEEK" -> ChronoUnit.WEEKS;
+            default -> throw new IllegalArgumentException("Invalid bucket " + bucket + ", must be HOUR, DAY or WEEK");
+        };
+    }
+
+    /**
+     * Start of every bucket overlapping [start, end), followed by the end of the last one.
+     * Days start at the zone's start of day, which is not always midnight.
+     * */
+    private static List<Instant> boundaries(Instant start, Instant end, ZoneId zone, ChronoUnit unit) {
+        var boundaries = new ArrayList<Instant>();
+        var local = start.atZone(zone);
+        var firstHour = local.truncatedTo(ChronoUnit.HOURS).toInstant();
+        var firstDay = unit == ChronoUnit.WEEKS
+                ? local.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                : local.toLocalDate();
+
+        for (long i = 0; ; i++) {
+            var boundary = unit == ChronoUnit.HOURS
+                    ? firstHour.plus(i, ChronoUnit.HOURS)
+                    : firstDay.plus(i, unit).atStartOfDay(zone).toInstant();
+
+            boundaries.add(boundary);
+
+            if (!boundary.isBefore(end)) {
+                return boundaries;
+            } else if (boundaries.size() > MAX_BUCKETS) {
+                throw new IllegalArgumentException("Range spans more than " + MAX_BUCKETS + " buckets");
+            }
+        }
+    }
+
+    /**
+     * Splits [start, end) where the zone's UTC offset changes.
+     * Hours keep their length across the changes, so they are never split.
+     * */
+    private static List<Instant> cuts(Instant start, Instant end, ZoneId zone, ChronoUnit unit) {
+        var cuts = new ArrayList<Instant>();
+
+        cuts.add(start);
+
+        if (unit != ChronoUnit.HOURS) {
+            var rules = zone.getRules();
+
+            for (var transition = rules.nextTransition(start);
+                 transition != null && transition.getInstant().isBefore(end);
+                 transition = rules.nextTransition(transition.getInstant())) {
+                cuts.add(transition.getInstant());
+            }
+        }
+
+        cuts.add(end);
+
+        return cuts;
+    }
+
+    /**
+     * Returns one entry per bucket, empty buckets included, in chronological order.
+     * */
+    public List<LinkedHashMap<String, Object>> compute(HistogramRequest request) {
+        var zone = request.getZoneId();
+        var unit = unitOf(request.getBucket());
+        var width = unit.getDuration().getSeconds();
+        var boundaries = boundaries(request.getStart(), request.getEnd(), zone, unit);
+        var count = boundaries.size() - 1;
+        var buckets = new ArrayList<LinkedHashMap<String, Object>>(count);
+
+        for (int i = 0; i < count; i++) {
+            var bucket = new LinkedHashMap<String, Object>();
+
+            bucket.put("start", boundaries.get(i).atZone(zone).toOffsetDateTime().toString());
+            bucket.put("orders", 0L);
+            bucket.put("revenue", 0.0);
+            bucket.put("profit", 0.0);
+            buckets.add(bucket);
+        }
+
+        var cuts = cuts(request.getStart(), request.getEnd(), zone, unit);
+
+        for (int c = 0; c + 1 < cuts.size(); c++) {
+            var from = cuts.get(c);
+
+            /* Bucket holding `from`, the ones after it start exactly `width` apart until the next cut */
+            var first = Collections.binarySearch(boundaries, from);
+            first = first >= 0 ? first : -first - 2;
+
+            var origin = boundaries.get(first + 1).minusSeconds(width);
+            var rows = manager.getHistogram(Date.from(origin), width, Date.from(from), Date.from(cuts.get(c + 1)));
+
+            for (var row: rows) {
+                var index = first + row.getBucket().intValue();
+
+                if (index < 0 || index >= count) {
+                    continue;
+                }
+
+                var bucket = buckets.get(index);
+
+                /* Live & archived rows, & the rows of two periods, may fall in the same bucket */
+                bucket.merge("orders", row.getOrders().longValue(), (a, b) -> (Long) a + (Long) b);
+                bucket.merge("revenue", row.getRevenue() == null ? 0.0 : row.getRevenue().doubleValue(),
+                        (a, b) -> (Double) a + (Double) b);
+                bucket.merge("profit", row.getProfit() == null ? 0.0 : row.getProfit().doubleValue(),
+                        (a, b) -> (Double) a + (Double) b);
+            }
+        }
+
+        return buckets;
+    }
+}
@@ -0,0 +1,126 @@
+package eformer.back.eformer_backend.utility.stats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+
+/**
+ * Single-flight execution of read-only report queries.
+ * Concurrent calls with the same key share one execution & its result,
+ * which may also be kept for `ttl-ms` so requests arriving right after reuse it.
+ * <p>
+ * `invalidate()` drops kept results, a query that started before it is not kept.
+ * Calls are counted as `eformer.statistics.coalescing`, tagged executed, shared or cached.
+ */
+@Component
+public class ReportCoalescer {
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, Result> results = new ConcurrentHashMap<>();
+
+    /* Bumped by every invalidation */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final long ttlMillis;
+
+    private final int maxResults;
+
+    private final MeterRegistry registry;
+
+    public ReportCoalescer(@Value("${eformer.statistics.result-ttl-ms:0}") long ttlMillis,
+                           @Value("${eformer.statistics.max-results:1000}") int maxResults,
+                           MeterRegistry registry) {
+        this.ttlMillis = ttlMillis;
+        this.maxResults = maxResults;
+        this.registry = registry;
+    }
+
+    private void count(String outcome) {
+        registry.counter("eformer.statistics.coalescing", "outcome", outcome).increment();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> query) {
+        var kept = results.get(key);
+
+        if (kept != null && kept.isFresh(System.currentTimeMillis())) {
+            count("cached");
+            return (T) kept.value();
+        }
+
+        var mine = new CompletableFuture<Object>();
+        var running = inFlight.putIfAbsent(key, mine);
+
+        if (running != null) {
+            count("shared");
+
+            try {
+                return (T) running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        var startedIn = generation.get();
+
+        try {
+            count("executed");
+
+            var value = query.get();
+
+            keep(key, value, startedIn);
+            mine.complete(value);
+
+            return value;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private void keep(String key, Object value, long startedIn) {
+        if (ttlMillis <= 0) {
+            return;
+        }
+
+        var now = System.currentTimeMillis();
+
+        if (results.size() >= maxResults) {
+            results.values().removeIf(result -> !result.isFresh(now));
+
+            if (results.size() >= maxResults) {
+                results.clear();
+            }
+        }
+
+        results.put(key, new Result(value, now + ttlMillis));
+
+        /* Invalidated while the query ran, the result may predate the change */
+        if (generation.get() != startedIn) {
+            results.remove(key);
+        }
+    }
+
+    /**
+     * Drops every kept result, called when the underlying data changed.
+     * */
+    public void invalidate() {
+        generation.incrementAndGet();
+        results.clear();
+    }
+
+    private record Result(Object value, long expiresAt) {
+        boolean isFresh(long now) {
+            return now < expiresAt;
+        }
+    }
+}
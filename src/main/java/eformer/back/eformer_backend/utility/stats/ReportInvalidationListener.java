@@ -0,0 +1,25 @@
+package eformer.back.eformer_backend.utility.stats;
+
+import eformer.back.eformer_backend.utility.orders.event.OrderEvent;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+
+/**
+ * Drops kept report results once an order change is committed.
+ */
+@Component
+public class ReportInvalidationListener {
+    private final ReportCoalescer reports;
+
+    public ReportInvalidationListener(ReportCoalescer reports) {
+        this.reports = reports;
+    }
+
+    @Async("orderEventsExecutor")
+    @TransactionalEventListener
+    public void onOrderEvent(OrderEvent event) {
+        reports.invalidate();
+    }
+}
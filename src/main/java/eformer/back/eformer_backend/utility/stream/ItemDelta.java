@@ -0,0 +1,19 @@
+package eformer.back.eformer_backend.utility.stream;
+
+import eformer.back.eformer_backend.model.Item;
+import eformer.back.eformer_backend.utility.orders.event.OrderLine;
+
+
+/**
+ * Stock & price of an item after a change, as pushed to the POS clients.
+ * `version` is the item's change version, the delta of the higher one is the more recent.
+ */
+public record ItemDelta(Integer itemId, Integer quantity, Double unitPrice, Long version) {
+    public static ItemDelta of(Item item) {
+        return new ItemDelta(item.getItemId(), item.getQuantity(), item.getUnitPrice(), item.getChangeVersion());
+    }
+
+    public static ItemDelta of(OrderLine line) {
+        return new ItemDelta(line.itemId(), line.stockAfter(), line.unitPrice(), line.changeVersion());
+    }
+}
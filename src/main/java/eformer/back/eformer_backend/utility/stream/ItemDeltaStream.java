@@ -0,0 +1,254 @@
+package eformer.back.eformer_backend.utility.stream;
+
+import eformer.back.eformer_backend.utility.orders.event.OrderCancelled;
+import eformer.back.eformer_backend.utility.orders.event.OrderConfirmed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * Pushes item stock & price changes to the connected POS clients as server-sent events.
+ * <p>
+ * Each connection queues at most one delta per item, the one of the highest version, & every
+ * `flush-ms` the queue is sent as one `items` event holding a JSON array. A connection queueing
+ * more than `max-pending` items is sent a `resync` event instead & should reload the catalog.
+ * Idle connections get a comment every `heartbeat-ms`, so dead ones are noticed & dropped.
+ * <p>
+ * The flush runs on its own scheduler thread, so the batch jobs of the shared scheduler never delay it.
+ * Sends run on a small pool, at most one per connection, so a slow client only delays itself.
+ * A send blocks while the client is not reading, so a connection whose send has not finished after
+ * `write-timeout-ms` is closed, which fails the write & frees its thread for the other connections.
+ * Clients should subscribe before loading the catalog, so no change falls between the two.
+ */
+@Component
+public class ItemDeltaStream {
+    private static final Logger log = LoggerFactory.getLogger(ItemDeltaStream.class);
+
+    private final TaskExecutor executor;
+
+    private final TaskScheduler scheduler;
+
+    private final long flushMs;
+
+    private final int maxConnections;
+
+    private final int maxPending;
+
+    private final long heartbeatMs;
+
+    private final long timeoutMs;
+
+    private final long writeTimeoutMs;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    public ItemDeltaStream(@Qualifier("itemStreamExecutor") TaskExecutor executor,
+                           @Qualifier("itemStreamScheduler") TaskScheduler scheduler,
+                           @Value("${eformer.stream.items.flush-ms:250}") long flushMs,
+                           @Value("${eformer.stream.items.max-connections:1000}") int maxConnections,
+                           @Value("${eformer.stream.items.max-pending:1000}") int maxPending,
+                           @Value("${eformer.stream.items.heartbeat-ms:15000}") long heartbeatMs,
+                           @Value("${eformer.stream.items.timeout-ms:1800000}") long timeoutMs,
+                           @Value("${eformer.stream.items.write-timeout-ms:10000}") long writeTimeoutMs) {
+        this.executor = executor;
+        this.scheduler = scheduler;
+        this.flushMs = flushMs;
+        this.maxConnections = maxConnections;
+        this.maxPending = maxPending;
+        this.heartbeatMs = heartbeatMs;
+        this.timeoutMs = timeoutMs;
+        this.writeTimeoutMs = writeTimeoutMs;
+    }
+
+    /**
+     * A new connection, null when `max-connections` are open.
+     * */
+    public SseEmitter subscribe() {
+        var emitter = new SseEmitter(timeoutMs);
+
+        return subscribe(emitter) ? emitter : null;
+    }
+
+    boolean subscribe(SseEmitter emitter) {
+        var subscriber = new Subscriber(emitter);
+
+        synchronized (subscribers) {
+            if (subscribers.size() >= maxConnections) {
+                return false;
+            }
+
+            subscribers.add(subscriber);
+        }
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        return true;
+    }
+
+    public int connections() {
+        return subscribers.size();
+    }
+
+    public void publish(ItemDelta delta) {
+        for (var subscriber: subscribers) {
+            subscriber.offer(delta, maxPending);
+        }
+    }
+
+    /* Runs on the committing thread, it only queues */
+    @TransactionalEventListener
+    public void onConfirmed(OrderConfirmed event) {
+        event.lines().forEach(line -> publish(ItemDelta.of(line)));
+    }
+
+    @TransactionalEventListener
+    public void onCancelled(OrderCancelled event) {
+        event.lines().forEach(line -> publish(ItemDelta.of(line)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::flush, Duration.ofMillis(flushMs));
+    }
+
+    public void flush() {
+        var now = System.currentTimeMillis();
+
+        for (var subscriber: subscribers) {
+            if (subscriber.isStalled(now, writeTimeoutMs)) {
+                drop(subscriber, new TimeoutException("Client not reading for " + writeTimeoutMs + " ms"));
+                continue;
+            }
+
+            if (!subscriber.isDue(now, heartbeatMs) || !subscriber.sending.compareAndSet(false, true)) {
+                continue;
+            }
+
+            try {
+                executor.execute(() -> send(subscriber));
+            } catch (TaskRejectedException e) {
+                /* Pool busy, the deltas stay queued until the next flush */
+                subscriber.sending.set(false);
+            }
+        }
+    }
+
+    private void send(Subscriber subscriber) {
+        subscriber.sendStarted = System.currentTimeMillis();
+
+        try {
+            var batch = subscriber.drain();
+
+            if (batch == null) {
+                subscriber.emitter.send(SseEmitter.event().name("resync").data(""));
+            } else if (!batch.isEmpty()) {
+                subscriber.emitter.send(SseEmitter.event().name("items").data(batch, MediaType.APPLICATION_JSON));
+            } else {
+                subscriber.emitter.send(SseEmitter.event().comment(""));
+            }
+        } catch (Exception e) {
+            drop(subscriber, e);
+        } finally {
+            subscriber.sendStarted = 0;
+            subscriber.sending.set(false);
+        }
+    }
+
+    private void drop(Subscriber subscriber, Exception cause) {
+        if (subscribers.remove(subscriber)) {
+            log.debug("Dropping item stream connection", cause);
+            subscriber.emitter.completeWithError(cause);
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        /* When the running send started, 0 when none runs or it still waits for a thread */
+        private volatile long sendStarted;
+
+        /* Guarded by this */
+        private final LinkedHashMap<Integer, ItemDelta> pending = new LinkedHashMap<>();
+
+        /* Guarded by this */
+        private boolean overflowed;
+
+        /* Guarded by this */
+        private long lastSent = System.currentTimeMillis();
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private synchronized void offer(ItemDelta delta, int maxPending) {
+            if (overflowed) {
+                return;
+            }
+
+            var queued = pending.get(delta.itemId());
+
+            /* Listeners of concurrent commits may run out of order */
+            if (queued != null && queued.version() >= delta.version()) {
+                return;
+            }
+
+            pending.put(delta.itemId(), delta);
+
+            if (pending.size() > maxPending) {
+                pending.clear();
+                overflowed = true;
+            }
+        }
+
+        private boolean isStalled(long now, long writeTimeoutMs) {
+            var started = sendStarted;
+
+            return started != 0 && now - started >= writeTimeoutMs;
+        }
+
+        private synchronized boolean isDue(long now, long heartbeatMs) {
+            return overflowed || !pending.isEmpty() || now - lastSent >= heartbeatMs;
+        }
+
+        /**
+         * The queued deltas, empty for a heartbeat & null after an overflow.
+         * */
+        private synchronized List<ItemDelta> drain() {
+            lastSent = System.currentTimeMillis();
+
+            if (overflowed) {
+                overflowed = false;
+                return null;
+            }
+
+            var batch = new ArrayList<>(pending.values());
+
+            pending.clear();
+
+            return batch;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package eformer.back.eformer_backend.utility.validation;
+
+import eformer.back.eformer_backend.model.Item;
+import eformer.back.eformer_backend.model.User;
+import eformer.back.eformer_backend.repository.ItemRepository;
+import eformer.back.eformer_backend.repository.UserRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.regex.Pattern;
+
+
+/**
+ * Shared request validation for users & items.
+ * Patterns are compiled once, uniqueness takes at most one query per entity,
+ * and item name uniqueness is left to the unique constraint (see {@link ValidationError#ITEM_NAME_TAKEN}).
+ */
+@Component
+public class RequestValidator {
+    private static final Pattern emailPattern = Pattern.compile("^[a-zA-Z0-9_!#$%&'*+/=?`{|}~^.-]+@[a-zA-Z0-9.-]+$");
+
+    private static final Pattern usernamePattern = Pattern.compile("^\\w+$");
+
+    private final UserRepository users;
+
+    private final ItemRepository items;
+
+    public RequestValidator(UserRepository users, ItemRepository items) {
+        this.users = users;
+        this.items = items;
+    }
+
+    public static boolean isNotValidEmail(String email) {
+        return email == null || !emailPattern.matcher(email).matches();
+    }
+
+    public static boolean isNotValidUsername(String username) {
+        return username == null || !usernamePattern.matcher(username).matches();
+    }
+
+    public static boolean isNotValidPassword(String password) {
+        return password == null || password.length() < 8;
+    }
+
+    private static Double toDouble(Object value) {
+        return value instanceof Integer integer ? Double.valueOf(integer) : (Double) value;
+    }
+
+    public ValidationErrors checkUser(User user) {
+        var errors = new ValidationErrors();
+        var username = user.getUsername();
+        var email = user.getEmail();
+        var badUsername = isNotValidUsername(username);
+        var badEmail = isNotValidEmail(email);
+
+        if (badUsername) {
+            errors.add(ValidationError.USERNAME_INVALID);
+        }
+
+        if (!User.isValidAdLevel(user.getAdLevel())) {
+            errors.add(ValidationError.AD_LEVEL_INVALID, user.getAdLevel(), User.getMaxAdLevel());
+        }
+
+        if (isNotValidPassword(user.getPassword())) {
+            errors.add(ValidationError.PASSWORD_TOO_SHORT);
+        }
+
+        if (badEmail) {
+            errors.add(ValidationError.EMAIL_INVALID);
+        }
+
+        if (!badUsername || !badEmail) {
+            /* One round-trip for both uniqueness checks */
+            var conflicts = users.findConflicts(badUsername ? null : username, badEmail ? null : email);
+
+            if (conflicts.getUsernameTaken() > 0) {
+                errors.add(ValidationError.USERNAME_TAKEN);
+            }
+
+            if (conflicts.getEmailTaken() > 0) {
+                errors.add(ValidationError.EMAIL_TAKEN);
+            }
+        }
+
+        return errors;
+    }
+
+    public ValidationErrors checkUserUpdate(User user) {
+        var errors = new ValidationErrors();
+        var email = user.getEmail();
+        var password = user.getPassword();
+        var adLevel = user.getAdLevel();
+
+        if (adLevel != null && !User.isValidAdLevel(adLevel)) {
+            errors.add(ValidationError.AD_LEVEL_INVALID, adLevel, User.getMaxAdLevel());
+        }
+
+        if (password != null && isNotValidPassword(password)) {
+            errors.add(ValidationError.PASSWORD_TOO_SHORT);
+        }
+
+        if (email != null && isNotValidEmail(email)) {
+            errors.add(ValidationError.EMAIL_INVALID);
+        }
+
+        return errors;
+    }
+
+    /**
+     * Name uniqueness is not checked, the unique constraint rejects duplicates on save.
+     * */
+    public ValidationErrors checkItem(Item item) {
+        var errors = new ValidationErrors();
+
+        if (item.getQuantity() <= 0) {
+            errors.add(ValidationError.QUANTITY_NOT_POSITIVE, item.getQuantity());
+        }
+
+        if (item.getUnitPrice() <= 0) {
+            errors.add(ValidationError.UNIT_PRICE_NOT_POSITIVE, item.getUnitPrice());
+        }
+
+        if (item.getCost() <= 0) {
+            errors.add(ValidationError.COST_NOT_POSITIVE, item.getCost());
+        }
+
+        if (item.getItemId() > 0) {
+            errors.add(ValidationError.ITEM_ID_SUPPLIED);
+        }
+
+        return errors;
+    }
+
+    public ValidationErrors checkItemUpdate(HashMap<String, Object> item) {
+        var errors = new ValidationErrors();
+
+        var quantity = (Integer) item.get("quantity");
+        var name = (String) item.get("name");
+        var unitPrice = toDouble(item.get("unitPrice"));
+        var cost = toDouble(item.get("cost"));
+        var itemId = (Integer) item.get("itemId");
+
+        if (quantity != null && quantity <= 0) {
+            errors.add(ValidationError.QUANTITY_NOT_POSITIVE, quantity);
+        }
+
+        if (unitPrice != null && unitPrice <= 0) {
+            errors.add(ValidationError.UNIT_PRICE_NOT_POSITIVE, unitPrice);
+        }
+
+        if (cost != null && cost <= 0) {
+            errors.add(ValidationError.COST_NOT_POSITIVE, cost);
+        }
+
+        /* One round-trip for both existence checks */
+        var matches = items.findMatches(itemId, name);
+
+        if (name != null && matches.getNameMatches() == 0) {
+            errors.add(ValidationError.ITEM_NAME_UNKNOWN, name);
+        }
+
+        if (matches.getIdMatches() == 0) {
+            errors.add(ValidationError.ITEM_NOT_FOUND, itemId);
+        }
+
+        return errors;
+    }
+}
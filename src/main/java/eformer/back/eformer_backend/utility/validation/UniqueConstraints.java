@@ -0,0 +1,55 @@
+package eformer.back.eformer_backend.utility.validation;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+
+/**
+ * Names of the unique constraints whose violations are answered with a validation error.
+ * Any other integrity violation is a bug & must not be reported as a taken name.
+ */
+public final class UniqueConstraints {
+    public static final String ITEM_NAME = "uk_items_name";
+
+    public static final String USER_USERNAME = "uk_users_username";
+
+    public static final String USER_EMAIL = "uk_users_email";
+
+    private UniqueConstraints() {
+    }
+
+    /**
+     * Whether the database rejected the statement for violating one of `names`.
+     * Databases report the name differently (MySQL `items.uk_items_name`, H2 the index in upper case),
+     * so the reported name & the driver's messages are searched ignoring case.
+     * */
+    public static boolean isViolated(DataIntegrityViolationException e, String... names) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (mentions(cause.getMessage(), names)
+                    || cause instanceof ConstraintViolationException violation
+                    && mentions(violation.getConstraintName(), names)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean mentions(String text, String[] names) {
+        if (text == null) {
+            return false;
+        }
+
+        var lower = text.toLowerCase(Locale.ROOT);
+
+        for (var name: names) {
+            if (lower.contains(name)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
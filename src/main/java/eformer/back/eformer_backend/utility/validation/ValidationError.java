@@ -0,0 +1,40 @@
+package eformer.back.eformer_backend.utility.validation;
+
+/**
+ * Validation error codes, each with a message template.
+ * `{}` placeholders are filled with the arguments, in order, only when the message is rendered.
+ */
+public enum ValidationError {
+    USERNAME_INVALID("Username already in use or is invalid (Must consist of alphanumeric characters only)"),
+    USERNAME_TAKEN("Username already in use or is invalid (Must consist of alphanumeric characters only)"),
+    EMAIL_INVALID("Email already in use or is invalid"),
+    EMAIL_TAKEN("Email already in use or is invalid"),
+    USER_TAKEN("Username or email already in use"),
+    AD_LEVEL_INVALID("Administrative level {} is invalid, must be <= {}"),
+    PASSWORD_TOO_SHORT("Invalid password must 8 chars at least"),
+    QUANTITY_NOT_POSITIVE("Invalid quantity {} must be a positive integer"),
+    UNIT_PRICE_NOT_POSITIVE("Invalid unit price {} must be a positive number"),
+    COST_NOT_POSITIVE("Invalid cost price {} must be a positive number"),
+    ITEM_NAME_TAKEN("Invalid item name '{}' already taken"),
+    ITEM_NAME_UNKNOWN("Invalid item '{}' does not exist"),
+    ITEM_ID_SUPPLIED("Cannot supply own ID"),
+    ITEM_NOT_FOUND("Item (ID: {}) does not exist");
+
+    private final String template;
+
+    ValidationError(String template) {
+        this.template = template;
+    }
+
+    void render(StringBuilder out, Object[] args) {
+        var arg = 0;
+        var from = 0;
+
+        for (var at = template.indexOf("{}"); at >= 0; at = template.indexOf("{}", from)) {
+            out.append(template, from, at).append(arg < args.length ? args[arg++] : "{}");
+            from = at + 2;
+        }
+
+        out.append(template, from, template.length());
+    }
+}
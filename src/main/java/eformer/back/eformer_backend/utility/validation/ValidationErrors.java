@@ -0,0 +1,73 @@
+package eformer.back.eformer_backend.utility.validation;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Errors collected while validating a request.
+ * Only codes & arguments are stored, messages are rendered when the response is built.
+ */
+public class ValidationErrors {
+    public static final String CODES_HEADER = "X-Validation-Errors";
+
+    private final List<ValidationError> codes = new ArrayList<>(2);
+
+    private final List<Object[]> args = new ArrayList<>(2);
+
+    public static ValidationErrors of(ValidationError code, Object... args) {
+        return new ValidationErrors().add(code, args);
+    }
+
+    public ValidationErrors add(ValidationError code, Object... args) {
+        this.codes.add(code);
+        this.args.add(args);
+
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return codes.isEmpty();
+    }
+
+    public List<ValidationError> getCodes() {
+        return codes;
+    }
+
+    /**
+     * 422 carrying the rendered messages as body and the codes in {@link #CODES_HEADER}.
+     */
+    public ResponseEntity<Object> toResponse() {
+        var headers = new HttpHeaders();
+        var names = new StringBuilder();
+
+        for (var code: codes) {
+            if (names.length() > 0) {
+                names.append(',');
+            }
+
+            names.append(code.name());
+        }
+
+        headers.set(CODES_HEADER, names.toString());
+
+        /* 422 */
+        return new ResponseEntity<>(toString(), headers, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @Override
+    public String toString() {
+        var out = new StringBuilder();
+
+        for (int i = 0; i < codes.size(); i++) {
+            codes.get(i).render(out, args.get(i));
+            out.append('\n');
+        }
+
+        return out.toString();
+    }
+}
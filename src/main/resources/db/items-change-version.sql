@@ -0,0 +1,15 @@
+-- Adds the change versions & retired flag of `items` & the counters handing the versions out.
+-- Only needed where Hibernate does not update the schema, such as the `partitioned` profile:
+--   mysql eFormer < items-change-version.sql
+-- Existing items are versioned by the application at startup.
+
+CREATE TABLE IF NOT EXISTS change_counters (
+    name VARCHAR(32) NOT NULL PRIMARY KEY,
+    issued BIGINT NOT NULL
+);
+INSERT IGNORE INTO change_counters (name, issued) VALUES ('items', 0);
+
+ALTER TABLE items
+    ADD COLUMN change_version BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN retired BIT NOT NULL DEFAULT 0,
+    ADD INDEX idx_items_change_version (change_version);
@@ -0,0 +1,15 @@
+-- Adds the change sequence of `orders`, read by orders/getChangesSince.
+-- Only needed where Hibernate does not update the schema, such as the `partitioned` profile:
+--   mysql eFormer < orders-change-sequence.sql
+-- Run after items-change-version.sql, which creates `change_counters`.
+-- Existing orders are sequenced by the application at startup.
+
+INSERT IGNORE INTO change_counters (name, issued) VALUES ('orders', 0);
+
+ALTER TABLE orders
+    ADD COLUMN change_sequence BIGINT NOT NULL DEFAULT 0,
+    ADD INDEX idx_orders_change_sequence (change_sequence);
+
+-- The archive is copied with INSERT ... SELECT *, it needs the same columns.
+-- Skip where db/orders-partitioning.sql was never run.
+ALTER TABLE orders_archive ADD COLUMN change_sequence BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,87 @@
+-- Range partitions `orders` by `creation_date` & creates the archive tables used by OrderArchiver.
+-- MySQL 8 only, run once with the mysql client during a maintenance window:
+--   mysql eFormer < orders-partitioning.sql
+-- then start the application with the `partitioned` profile.
+--
+-- MySQL requires the partition column in every unique key & does not support foreign keys on
+-- partitioned tables, so the foreign keys to & from `orders` are dropped and the primary key
+-- becomes (order_id, creation_date). order_id stays AUTO_INCREMENT & unique.
+-- Hibernate's `update` would try to add the foreign keys back, the profile turns it off.
+
+-- Archive tables, copied before partitioning so they are plain tables
+CREATE TABLE IF NOT EXISTS orders_archive LIKE orders;
+ALTER TABLE orders_archive MODIFY order_id INT NOT NULL;
+CREATE TABLE IF NOT EXISTS order_items_archive LIKE order_items;
+
+-- Running all-time sums of the archived orders
+CREATE TABLE IF NOT EXISTS orders_archive_totals (
+    id TINYINT NOT NULL PRIMARY KEY,
+    total_sales DOUBLE NOT NULL DEFAULT 0,
+    sold_quantity BIGINT NOT NULL DEFAULT 0,
+    actual_sales DOUBLE NOT NULL DEFAULT 0,
+    profit DOUBLE NOT NULL DEFAULT 0,
+    order_count BIGINT NOT NULL DEFAULT 0
+);
+INSERT IGNORE INTO orders_archive_totals (id) VALUES (1);
+
+-- Foreign keys referencing or declared on `orders`, their names are generated by Hibernate
+DROP PROCEDURE IF EXISTS eformer_drop_order_foreign_keys;
+DELIMITER //
+CREATE PROCEDURE eformer_drop_order_foreign_keys()
+BEGIN
+    DECLARE done INT DEFAULT FALSE;
+    DECLARE owner VARCHAR(64);
+    DECLARE constraint_name_ VARCHAR(64);
+    DECLARE keys_ CURSOR FOR
+        SELECT table_name, constraint_name FROM information_schema.referential_constraints
+        WHERE constraint_schema = DATABASE() AND (table_name = 'orders' OR referenced_table_name = 'orders');
+    DECLARE CONTINUE HANDLER FOR NOT FOUND SET done = TRUE;
+
+    OPEN keys_;
+    drop_loop: LOOP
+        FETCH keys_ INTO owner, constraint_name_;
+        IF done THEN
+            LEAVE drop_loop;
+        END IF;
+        SET @statement = CONCAT('ALTER TABLE `', owner, '` DROP FOREIGN KEY `', constraint_name_, '`');
+        PREPARE drop_key FROM @statement;
+        EXECUTE drop_key;
+        DEALLOCATE PREPARE drop_key;
+    END LOOP;
+    CLOSE keys_;
+END //
+DELIMITER ;
+CALL eformer_drop_order_foreign_keys();
+DROP PROCEDURE eformer_drop_order_foreign_keys;
+
+-- The partition column must be part of the primary key
+ALTER TABLE orders
+    MODIFY creation_date DATETIME(6) NOT NULL,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (order_id, creation_date);
+
+-- One partition per month from the oldest order to 3 months ahead & an empty catch-all `pmax`.
+-- This rewrites the whole table, so it is done here rather than by the application, which only
+-- splits the next empty months off `pmax` (see OrderPartitionMaintainer).
+DROP PROCEDURE IF EXISTS eformer_partition_orders;
+DELIMITER //
+CREATE PROCEDURE eformer_partition_orders()
+BEGIN
+    DECLARE month_ DATE DEFAULT DATE_FORMAT(IFNULL((SELECT MIN(creation_date) FROM orders), NOW()), '%Y-%m-01');
+    DECLARE last_ DATE DEFAULT DATE_FORMAT(NOW() + INTERVAL 3 MONTH, '%Y-%m-01');
+
+    SET @statement = 'ALTER TABLE orders PARTITION BY RANGE COLUMNS (creation_date) (';
+    WHILE month_ <= last_ DO
+        SET @statement = CONCAT(@statement, 'PARTITION p', DATE_FORMAT(month_, '%Y%m'),
+                                ' VALUES LESS THAN (''', month_ + INTERVAL 1 MONTH, '''), ');
+        SET month_ = month_ + INTERVAL 1 MONTH;
+    END WHILE;
+    SET @statement = CONCAT(@statement, 'PARTITION pmax VALUES LESS THAN (MAXVALUE))');
+
+    PREPARE partition_orders FROM @statement;
+    EXECUTE partition_orders;
+    DEALLOCATE PREPARE partition_orders;
+END //
+DELIMITER ;
+CALL eformer_partition_orders();
+DROP PROCEDURE eformer_partition_orders;
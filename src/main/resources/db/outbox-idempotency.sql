@@ -0,0 +1,26 @@
+-- Creates the tables of the order outbox (OutboxEvent) & of the idempotency keys (IdempotencyRecord).
+-- Only needed where Hibernate does not update the schema, such as the `partitioned` profile:
+--   mysql eFormer < outbox-idempotency.sql
+-- Without them every order write rolls back, its outbox insert failing before commit.
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    event_id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    aggregate_id INT,
+    type VARCHAR(64),
+    payload LONGTEXT,
+    status VARCHAR(16),
+    attempts INT,
+    created_at DATETIME(6),
+    available_at DATETIME(6),
+    sent_at DATETIME(6),
+    last_error VARCHAR(1000),
+    INDEX idx_outbox_events_status_available (status, available_at)
+);
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    record_key VARCHAR(64) NOT NULL PRIMARY KEY,
+    status INT,
+    body LONGTEXT,
+    created_at DATETIME(6),
+    INDEX idx_idempotency_keys_created_at (created_at)
+);
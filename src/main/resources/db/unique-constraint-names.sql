@@ -0,0 +1,25 @@
+-- Names the unique keys of `items` & `users`, the APIs tell a taken name from other integrity
+-- failures by these names (see UniqueConstraints). Replaces the UK_<hash> keys Hibernate generated.
+-- Needed by every database created before, run it before starting the new version:
+--   mysql eFormer < unique-constraint-names.sql
+
+SET @drops = (SELECT GROUP_CONCAT(DISTINCT CONCAT('DROP INDEX `', index_name, '`, ') SEPARATOR '')
+              FROM information_schema.statistics
+              WHERE table_schema = DATABASE() AND table_name = 'items'
+                AND non_unique = 0 AND index_name LIKE 'UK\_%' AND column_name = 'name');
+SET @sql = CONCAT('ALTER TABLE items ', IFNULL(@drops, ''),
+                  'ADD CONSTRAINT uk_items_name UNIQUE (name)');
+PREPARE statement FROM @sql;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+SET @drops = (SELECT GROUP_CONCAT(DISTINCT CONCAT('DROP INDEX `', index_name, '`, ') SEPARATOR '')
+              FROM information_schema.statistics
+              WHERE table_schema = DATABASE() AND table_name = 'users'
+                AND non_unique = 0 AND index_name LIKE 'UK\_%' AND column_name IN ('username', 'email'));
+SET @sql = CONCAT('ALTER TABLE users ', IFNULL(@drops, ''),
+                  'ADD CONSTRAINT uk_users_username UNIQUE (username), ',
+                  'ADD CONSTRAINT uk_users_email UNIQUE (email)');
+PREPARE statement FROM @sql;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
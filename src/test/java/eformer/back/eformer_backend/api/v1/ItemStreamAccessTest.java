@@ -0,0 +1,58 @@
+package eformer.back.eformer_backend.api.v1;
+
+import eformer.back.eformer_backend.model.User;
+import eformer.back.eformer_backend.repository.UserRepository;
+import eformer.back.eformer_backend.utility.auth.JwtService;
+import eformer.back.eformer_backend.utility.stream.ItemDeltaStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ItemStreamAccessTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private JwtService jService;
+
+    @Autowired
+    private ItemDeltaStream stream;
+
+    @Test
+    void anonymousClientsCannotConnect() throws Exception {
+        var before = stream.connections();
+
+        mvc.perform(get("/api/v1/items/stream"))
+                .andExpect(status().isForbidden());
+
+        assertEquals(before, stream.connections());
+    }
+
+    @Test
+    void signedInClientsAreStreamed() throws Exception {
+        var user = userRepo.save(new User("stream_client", "stream_client@stream.test", "password", 0, "Stream"));
+        var before = stream.connections();
+
+        mvc.perform(get("/api/v1/items/stream")
+                        .header("authorization", "Bearer " + jService.generateToken(user)))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+
+        assertEquals(before + 1, stream.connections());
+    }
+}
@@ -0,0 +1,254 @@
+package eformer.back.eformer_backend.api.v1;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eformer.back.eformer_backend.model.Item;
+import eformer.back.eformer_backend.model.User;
+import eformer.back.eformer_backend.repository.ItemRepository;
+import eformer.back.eformer_backend.repository.UserRepository;
+import eformer.back.eformer_backend.support.StatementCounter;
+import eformer.back.eformer_backend.utility.auth.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+
+/**
+ * Guards the number of SQL statements each endpoint issues.
+ * Every endpoint is measured with a small & a large input, the count must stay within
+ * `base + perItem * size`, and endpoints with no per-item budget must not grow at all.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StatementCountTest {
+    private static final int SMALL = 1;
+
+    private static final int LARGE = 6;
+
+    private static final AtomicInteger sequence = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private ItemRepository itemRepo;
+
+    @Autowired
+    private JwtService jService;
+
+    private User customer;
+
+    private String employeeToken;
+
+    @BeforeEach
+    void setUp() {
+        customer = newUser(0);
+        employeeToken = jService.generateToken(newUser(2));
+    }
+
+    private User newUser(int adLevel) {
+        var name = "count_user_" + sequence.incrementAndGet();
+        return userRepo.save(new User(name, name + "@count.test", "password", adLevel, name));
+    }
+
+    private List<Item> newItems(int count) {
+        var items = new ArrayList<Item>();
+
+        for (int i = 0; i < count; i++) {
+            items.add(itemRepo.save(new Item("Count item " + sequence.incrementAndGet(), "",
+                    1_000, 3.0, 1.0)));
+        }
+
+        return items;
+    }
+
+    private HashMap<String, Integer> basket(List<Item> items) {
+        var basket = new HashMap<String, Integer>();
+
+        for (var item: items) {
+            basket.put(String.valueOf(item.getItemId()), 2);
+        }
+
+        return basket;
+    }
+
+    private MockHttpServletRequestBuilder authorized(MockHttpServletRequestBuilder request) {
+        return request.header("authorization", "Bearer " + employeeToken);
+    }
+
+    private String perform(MockHttpServletRequestBuilder request, Object body) throws Exception {
+        if (body != null) {
+            request.contentType(MediaType.APPLICATION_JSON).content(mapper.writeValueAsString(body));
+        }
+
+        return mvc.perform(authorized(request))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+    }
+
+    private int count(MockHttpServletRequestBuilder request, Object body) throws Exception {
+        StatementCounter.reset();
+        perform(request, body);
+        return StatementCounter.count();
+    }
+
+    private Integer createOrder(List<Item> items) throws Exception {
+        var body = new HashMap<String, Object>();
+        body.put("customerId", customer.getUserId());
+        body.put("items", basket(items));
+
+        return mapper.readTree(perform(post("/api/v1/orders/create"), body)).get("orderId").asInt();
+    }
+
+    private void confirmOrder(Integer orderId) throws Exception {
+        var body = new HashMap<String, Object>();
+        body.put("orderId", orderId);
+        body.put("amountPaid", 10.0);
+
+        perform(post("/api/v1/orders/confirm"), body);
+    }
+
+    private interface SizedCall {
+        int count(int size) throws Exception;
+    }
+
+    private void assertBudget(String endpoint, int base, int perItem, SizedCall call) throws Exception {
+        var small = call.count(SMALL);
+        var large = call.count(LARGE);
+
+        assertTrue(small <= base + perItem * SMALL,
+                endpoint + " issued " + small + " statements for " + SMALL + " item(s)");
+        assertTrue(large <= base + perItem * LARGE,
+                endpoint + " issued " + large + " statements for " + LARGE + " item(s)");
+
+        if (perItem == 0) {
+            assertEquals(small, large, endpoint + " statement count grows with input size");
+        }
+    }
+
+    /*
+     * The order write paths load items & lines in one query each,
+     * what remains per item is at most one insert, update or delete of a line or a stock row.
+     * Base budgets include the outbox row every order change writes, for create the second write
+     * of the header setting its change sequence & for confirm & cancel the query locking the items.
+     * Change versions are taken outside Hibernate, on the sequencer's own connections, & are not counted.
+     */
+
+    @Test
+    void createOrder() throws Exception {
+        assertBudget("orders/create", 12, 1, size -> {
+            var body = new HashMap<String, Object>();
+            body.put("customerId", customer.getUserId());
+            body.put("items", basket(newItems(size)));
+
+            return count(post("/api/v1/orders/create"), body);
+        });
+    }
+
+    @Test
+    void updateOrder() throws Exception {
+        assertBudget("orders/update", 13, 1, size -> {
+            var items = newItems(size);
+            var orderId = createOrder(items);
+
+            var props = new HashMap<String, Integer>();
+
+            /* New quantities, so every existing line is rewritten */
+            basket(items).forEach((itemId, quantity) -> props.put(itemId, quantity + 1));
+            props.put("orderId", orderId);
+
+            return count(post("/api/v1/orders/update"), props);
+        });
+    }
+
+    @Test
+    void confirmOrder() throws Exception {
+        assertBudget("orders/confirm", 12, 1, size -> {
+            var orderId = createOrder(newItems(size));
+
+            var body = new HashMap<String, Object>();
+            body.put("orderId", orderId);
+            body.put("amountPaid", 10.0);
+
+            return count(post("/api/v1/orders/confirm"), body);
+        });
+    }
+
+    @Test
+    void cancelConfirmedOrder() throws Exception {
+        assertBudget("orders/cancel", 12, 1, size -> {
+            var orderId = createOrder(newItems(size));
+            confirmOrder(orderId);
+
+            return count(post("/api/v1/orders/cancel"), orderId);
+        });
+    }
+
+    @Test
+    void getOrderItems() throws Exception {
+        assertBudget("orders/getOrderItems", 5, 0, size -> {
+            var orderId = createOrder(newItems(size));
+
+            return count(post("/api/v1/orders/getOrderItems"), orderId);
+        });
+    }
+
+    @Test
+    void getAllOrders() throws Exception {
+        assertBudget("orders/getAll", 4, 0, size -> {
+            /* Every order gets its own customer so eager user loading would show up */
+            for (int i = 0; i < size; i++) {
+                customer = newUser(0);
+                createOrder(newItems(1));
+            }
+
+            return count(post("/api/v1/orders/getAll"), null);
+        });
+    }
+
+    @Test
+    void getDashboard() throws Exception {
+        assertBudget("orders/getDashboard", 5, 0, size -> {
+            for (int i = 0; i < size; i++) {
+                customer = newUser(0);
+                createOrder(newItems(1));
+            }
+
+            return count(post("/api/v1/orders/getDashboard"), null);
+        });
+    }
+
+    @Test
+    void getItems() throws Exception {
+        assertBudget("items/getAll", 2, 0, size -> {
+            newItems(size);
+
+            return count(get("/api/v1/items/getAll"), null);
+        });
+    }
+}
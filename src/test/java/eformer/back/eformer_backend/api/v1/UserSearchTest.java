@@ -0,0 +1,175 @@
+package eformer.back.eformer_backend.api.v1;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eformer.back.eformer_backend.api.v1.request.RegisterRequest;
+import eformer.back.eformer_backend.model.User;
+import eformer.back.eformer_backend.repository.UserRepository;
+import eformer.back.eformer_backend.utility.auth.JwtService;
+import eformer.back.eformer_backend.utility.search.UserSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+
+/**
+ * Each test searches for a word no other test's users carry, the database is shared.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserSearchTest {
+    private static final AtomicInteger sequence = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private UserSearchIndex searchIndex;
+
+    @Autowired
+    private JwtService jService;
+
+    private String managerToken;
+
+    @BeforeEach
+    void setUp() {
+        managerToken = jService.generateToken(newUser(2, "Search Manager"));
+    }
+
+    private User newUser(int adLevel, String fullName) {
+        var name = "search_user_" + sequence.incrementAndGet();
+        var user = userRepo.save(new User(name, name + "@search.test", "password", adLevel, fullName));
+
+        searchIndex.put(user);
+
+        return user;
+    }
+
+    private JsonNode search(String query) throws Exception {
+        var response = mvc.perform(get("/api/v1/users/search?" + query)
+                        .header("authorization", "Bearer " + managerToken))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        return mapper.readTree(response);
+    }
+
+    private static Set<Integer> idsOf(JsonNode page) {
+        var ids = new HashSet<Integer>();
+        page.get("users").forEach(user -> ids.add(user.get("userId").asInt()));
+        return ids;
+    }
+
+    @Test
+    void filtersByLevel() throws Exception {
+        newUser(0, "Ocelot Customer");
+        var employee = newUser(1, "Ocelot Employee");
+        newUser(2, "Ocelot Manager");
+
+        assertEquals(3, idsOf(search("q=ocelot")).size());
+        assertEquals(Set.of(employee.getUserId()), idsOf(search("q=ocelot&adLevel=1")));
+        assertEquals(Set.of(), idsOf(search("q=ocelot&adLevel=3")));
+    }
+
+    @Test
+    void pagesThroughEveryMatchOnce() throws Exception {
+        var expected = new HashSet<Integer>();
+
+        for (int i = 0; i < 5; i++) {
+            expected.add(newUser(0, "Pangolin " + i).getUserId());
+        }
+
+        var seen = new ArrayList<Integer>();
+
+        for (int page = 0; page < 3; page++) {
+            var result = search("q=pangolin&size=2&page=" + page);
+
+            assertEquals(page < 2, result.get("hasMore").asBoolean());
+            result.get("users").forEach(user -> seen.add(user.get("userId").asInt()));
+        }
+
+        assertEquals(5, seen.size());
+        assertEquals(expected, new HashSet<>(seen));
+        assertTrue(search("q=pangolin&size=2&page=3").get("users").isEmpty());
+
+        mvc.perform(get("/api/v1/users/search?q=pangolin&size=" + (UsersApi.MAX_SEARCH_PAGE_SIZE + 1))
+                        .header("authorization", "Bearer " + managerToken))
+                .andExpect(status().isUnprocessableEntity());
+        mvc.perform(get("/api/v1/users/search?q=pangolin&page=-1")
+                        .header("authorization", "Bearer " + managerToken))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void registeredUsersAreFoundRightAway() throws Exception {
+        var name = "search_register_" + sequence.incrementAndGet();
+        var request = new RegisterRequest("Wombat Registered", name + "@search.test", name, "password", 0);
+
+        mvc.perform(post("/api/v1/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        var registered = userRepo.findByUsername(name).orElseThrow();
+
+        assertEquals(Set.of(registered.getUserId()), idsOf(search("q=wombat")));
+        assertEquals(Set.of(registered.getUserId()), idsOf(search("q=" + name)));
+    }
+
+    @Test
+    void updatesReplaceTheIndexedName() throws Exception {
+        var user = newUser(0, "Quokka Before");
+
+        var props = new HashMap<String, Object>();
+        props.put("userId", user.getUserId());
+        props.put("username", user.getUsername());
+        props.put("fullName", "Narwhal After");
+        props.put("adLevel", 1);
+
+        mvc.perform(post("/api/v1/users/update")
+                        .header("authorization", "Bearer " + managerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(props)))
+                .andExpect(status().isOk());
+
+        assertTrue(search("q=quokka").get("users").isEmpty());
+        assertEquals(Set.of(user.getUserId()), idsOf(search("q=narwhal&adLevel=1")));
+        assertFalse(idsOf(search("q=narwhal&adLevel=0")).contains(user.getUserId()));
+    }
+
+    @Test
+    void employeesOnly() throws Exception {
+        var customerToken = jService.generateToken(newUser(0, "Search Customer"));
+
+        mvc.perform(get("/api/v1/users/search?q=search")
+                        .header("authorization", "Bearer " + customerToken))
+                .andExpect(status().isForbidden());
+    }
+}
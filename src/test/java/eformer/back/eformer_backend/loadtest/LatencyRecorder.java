@@ -0,0 +1,78 @@
+package eformer.back.eformer_backend.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Collects per-endpoint latencies & error counts from concurrent workers.
+ */
+public class LatencyRecorder {
+    private final ConcurrentHashMap<String, Samples> samples = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, long nanos, boolean ok) {
+        samples.computeIfAbsent(endpoint, ignored -> new Samples()).add(nanos, ok);
+    }
+
+    public String report(double elapsedSeconds) {
+        var report = new StringBuilder();
+        var sorted = new TreeMap<String, Samples>(samples);
+
+        report.append(String.format("%-28s %8s %7s %10s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms"));
+
+        for (Map.Entry<String, Samples> entry: sorted.entrySet()) {
+            var snapshot = entry.getValue().snapshot();
+            Arrays.sort(snapshot.latencies());
+
+            report.append(String.format("%-28s %8d %7d %10.1f %9.2f %9.2f %9.2f%n",
+                    entry.getKey(),
+                    snapshot.latencies().length,
+                    snapshot.errors(),
+                    snapshot.latencies().length / elapsedSeconds,
+                    percentile(snapshot.latencies(), 0.50),
+                    percentile(snapshot.latencies(), 0.95),
+                    percentile(snapshot.latencies(), 0.99)));
+        }
+
+        return report.toString();
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+
+        var index = (int) Math.ceil(quantile * sorted.length) - 1;
+
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    private static class Samples {
+        private long[] latencies = new long[1024];
+
+        private int size;
+
+        private long errors;
+
+        synchronized void add(long nanos, boolean ok) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+
+            latencies[size++] = nanos;
+
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        synchronized Snapshot snapshot() {
+            return new Snapshot(Arrays.copyOf(latencies, size), errors);
+        }
+    }
+
+    private record Snapshot(long[] latencies, long errors) {}
+}
@@ -0,0 +1,280 @@
+package eformer.back.eformer_backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eformer.back.eformer_backend.Application;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+
+/**
+ * Offline load-test harness for the order flows.
+ * Boots the application against an in-memory MySQL-mode H2 database, seeds users & items,
+ * then drives a configurable mix of authenticate, item browse & order
+ * create/update/confirm/cancel scenarios and prints throughput and p50/p95/p99 per endpoint.
+ * <p>
+ * Run with: ./mvnw -P load-test test-compile exec:java@load-test
+ * <p>
+ * Tunables (system properties):
+ *  loadtest.concurrency: Number of concurrent workers (8)
+ *  loadtest.iterations: Scenarios executed by each worker (200)
+ *  loadtest.items: Catalog size (50)
+ *  loadtest.customers: Number of customers (20)
+ *  loadtest.basket: Maximum distinct items per order (5)
+ *  loadtest.mix: Scenario weights as browse,order,auth (50,40,10)
+ * */
+public class OrderFlowLoadTest {
+    private static final String PASSWORD = "load-test-password";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    private final String baseUrl;
+
+    private final List<Integer> itemIds = new ArrayList<>();
+
+    private final List<Integer> customerIds = new ArrayList<>();
+
+    private final List<String> employees = new ArrayList<>();
+
+    private final int basket;
+
+    private final int[] mix;
+
+    private String managerToken;
+
+    public OrderFlowLoadTest(String baseUrl, int basket, int[] mix) {
+        this.baseUrl = baseUrl;
+        this.basket = basket;
+        this.mix = mix;
+    }
+
+    public static void main(String[] args) throws Exception {
+        var concurrency = Integer.getInteger("loadtest.concurrency", 8);
+        var iterations = Integer.getInteger("loadtest.iterations", 200);
+        var items = Integer.getInteger("loadtest.items", 50);
+        var customers = Integer.getInteger("loadtest.customers", 20);
+        var basket = Integer.getInteger("loadtest.basket", 5);
+        var mix = parseMix(System.getProperty("loadtest.mix", "50,40,10"));
+
+        var app = new SpringApplication(Application.class);
+        app.setAdditionalProfiles("loadtest");
+
+        try (var context = (ServletWebServerApplicationContext) app.run(args)) {
+            var port = context.getWebServer().getPort();
+            var harness = new OrderFlowLoadTest("http://localhost:" + port + "/api/v1/", basket, mix);
+
+            harness.seed(concurrency, items, customers);
+
+            var elapsed = harness.run(concurrency, iterations);
+
+            System.out.printf("%nconcurrency=%d iterations=%d elapsed=%.2fs%n",
+                    concurrency, iterations, elapsed);
+            System.out.println(harness.recorder.report(elapsed));
+        }
+    }
+
+    private static int[] parseMix(String mix) {
+        var parts = mix.split(",");
+        return new int[]{
+                Integer.parseInt(parts[0].trim()),
+                Integer.parseInt(parts[1].trim()),
+                Integer.parseInt(parts[2].trim())
+        };
+    }
+
+    private void seed(int employeeCount, int itemCount, int customerCount) throws Exception {
+        managerToken = register("load_manager", 2);
+
+        for (int i = 0; i < employeeCount; i++) {
+            var username = "load_employee_" + i;
+            register(username, 1);
+            employees.add(username);
+        }
+
+        for (int i = 0; i < customerCount; i++) {
+            var username = "load_customer_" + i;
+            register(username, 0);
+
+            var customer = call("users/getByUsername", managerToken, username);
+            customerIds.add(customer.get("userId").asInt());
+        }
+
+        for (int i = 0; i < itemCount; i++) {
+            var item = new HashMap<String, Object>();
+            item.put("name", "Load item " + i);
+            item.put("description", "Seeded by the load-test harness");
+            item.put("quantity", 1_000_000);
+            item.put("unitPrice", 1.5 + i);
+            item.put("cost", 1.0 + i);
+
+            itemIds.add(call("items/create", managerToken, item).get("itemId").asInt());
+        }
+    }
+
+    private double run(int concurrency, int iterations) throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        var futures = new ArrayList<Future<?>>();
+        var start = System.nanoTime();
+
+        for (int w = 0; w < concurrency; w++) {
+            var username = employees.get(w);
+
+            futures.add(workers.submit(() -> {
+                var token = authenticate(username);
+
+                for (int i = 0; i < iterations; i++) {
+                    try {
+                        token = scenario(username, token);
+                    } catch (Exception ignored) {
+                        /* Failures are recorded per request */
+                    }
+                }
+
+                return null;
+            }));
+        }
+
+        for (var future: futures) {
+            future.get();
+        }
+
+        workers.shutdown();
+
+        return (System.nanoTime() - start) / 1_000_000_000.0;
+    }
+
+    private String scenario(String username, String token) throws Exception {
+        var random = ThreadLocalRandom.current();
+        var pick = random.nextInt(mix[0] + mix[1] + mix[2]);
+
+        if (pick < mix[0]) {
+            get("items/getAll");
+            get("items/getById?id=" + itemIds.get(random.nextInt(itemIds.size())));
+        } else if (pick < mix[0] + mix[1]) {
+            orderFlow(token);
+        } else {
+            token = authenticate(username);
+        }
+
+        return token;
+    }
+
+    private void orderFlow(String token) throws Exception {
+        var random = ThreadLocalRandom.current();
+
+        var body = new HashMap<String, Object>();
+        body.put("customerId", customerIds.get(random.nextInt(customerIds.size())));
+        body.put("items", randomBasket());
+        body.put("note", "load");
+
+        var order = call("orders/create", token, body);
+
+        if (order == null || !order.has("orderId")) {
+            return;
+        }
+
+        var orderId = order.get("orderId").asInt();
+
+        if (random.nextBoolean()) {
+            var props = new HashMap<String, Object>(randomBasket());
+            props.put("orderId", orderId);
+            call("orders/update", token, props);
+        }
+
+        if (random.nextInt(10) < 8) {
+            var confirm = new HashMap<String, Object>();
+            confirm.put("orderId", orderId);
+            confirm.put("amountPaid", 100.0);
+            call("orders/confirm", token, confirm);
+        } else {
+            call("orders/cancel", token, orderId);
+        }
+    }
+
+    private HashMap<String, Integer> randomBasket() {
+        var random = ThreadLocalRandom.current();
+        var lines = new HashMap<String, Integer>();
+        var size = 1 + random.nextInt(basket);
+
+        while (lines.size() < size) {
+            lines.put(String.valueOf(itemIds.get(random.nextInt(itemIds.size()))), 1 + random.nextInt(3));
+        }
+
+        return lines;
+    }
+
+    private String register(String username, int adLevel) throws Exception {
+        var body = new HashMap<String, Object>();
+        body.put("fullName", username);
+        body.put("email", username + "@load.test");
+        body.put("username", username);
+        body.put("password", PASSWORD);
+        body.put("adLevel", adLevel);
+
+        return call("auth/register", null, body).get("token").asText();
+    }
+
+    private String authenticate(String username) throws Exception {
+        var body = new HashMap<String, Object>();
+        body.put("username", username);
+        body.put("password", PASSWORD);
+
+        return call("auth/authenticate", null, body).get("token").asText();
+    }
+
+    private JsonNode get(String path) throws Exception {
+        return send(path, HttpRequest.newBuilder(URI.create(baseUrl + path)).GET());
+    }
+
+    private JsonNode call(String path, String token, Object body) throws Exception {
+        /* Plain `String` request bodies are read verbatim, so they must not be JSON quoted */
+        var payload = body instanceof String text ? text : mapper.writeValueAsString(body);
+        var request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", body instanceof String ? "text/plain" : "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(payload));
+
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+
+        return send(path, request);
+    }
+
+    private JsonNode send(String path, HttpRequest.Builder request) throws Exception {
+        var endpoint = path.split("\\?")[0];
+        var start = System.nanoTime();
+        HttpResponse<String> response;
+
+        try {
+            response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        } catch (Exception e) {
+            recorder.record(endpoint, System.nanoTime() - start, false);
+            throw e;
+        }
+
+        var ok = response.statusCode() / 100 == 2;
+        recorder.record(endpoint, System.nanoTime() - start, ok);
+
+        if (!ok || response.body() == null || response.body().isEmpty()) {
+            return null;
+        }
+
+        return mapper.readTree(response.body());
+    }
+}
@@ -0,0 +1,20 @@
+package eformer.back.eformer_backend.support;
+
+import eformer.back.eformer_backend.utility.sequence.CounterIssuer;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+
+public class InMemoryCounterIssuer implements CounterIssuer {
+    private final ConcurrentHashMap<String, Long> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public long issue(String counter, int count) {
+        return counters.merge(counter, (long) count, Long::sum);
+    }
+
+    @Override
+    public long issued(String counter) {
+        return counters.getOrDefault(counter, 0L);
+    }
+}
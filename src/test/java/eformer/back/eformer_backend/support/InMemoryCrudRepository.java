@@ -0,0 +1,114 @@
+package eformer.back.eformer_backend.support;
+
+import org.springframework.data.repository.CrudRepository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+
+/**
+ * Map-backed CrudRepository stand-in for benchmarks & unit tests.
+ * Not thread-safe.
+ */
+public abstract class InMemoryCrudRepository<T, ID> implements CrudRepository<T, ID> {
+    protected final LinkedHashMap<ID, T> store = new LinkedHashMap<>();
+
+    private final Function<T, ID> idOf;
+
+    protected InMemoryCrudRepository(Function<T, ID> idOf) {
+        this.idOf = idOf;
+    }
+
+    protected List<T> filter(Predicate<T> predicate) {
+        var result = new ArrayList<T>();
+
+        for (var entity: store.values()) {
+            if (predicate.test(entity)) {
+                result.add(entity);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public <S extends T> S save(S entity) {
+        store.put(idOf.apply(entity), entity);
+        return entity;
+    }
+
+    @Override
+    public <S extends T> Iterable<S> saveAll(Iterable<S> entities) {
+        var result = new ArrayList<S>();
+
+        for (var entity: entities) {
+            result.add(save(entity));
+        }
+
+        return result;
+    }
+
+    @Override
+    public Optional<T> findById(ID id) {
+        return Optional.ofNullable(store.get(id));
+    }
+
+    @Override
+    public boolean existsById(ID id) {
+        return store.containsKey(id);
+    }
+
+    @Override
+    public Iterable<T> findAll() {
+        return new ArrayList<>(store.values());
+    }
+
+    @Override
+    public Iterable<T> findAllById(Iterable<ID> ids) {
+        var result = new ArrayList<T>();
+
+        for (var id: ids) {
+            findById(id).ifPresent(result::add);
+        }
+
+        return result;
+    }
+
+    @Override
+    public long count() {
+        return store.size();
+    }
+
+    @Override
+    public void deleteById(ID id) {
+        store.remove(id);
+    }
+
+    @Override
+    public void delete(T entity) {
+        store.remove(idOf.apply(entity));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends ID> ids) {
+        for (var id: ids) {
+            deleteById(id);
+        }
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        for (var entity: entities) {
+            delete(entity);
+        }
+    }
+
+    @Override
+    public void deleteAll() {
+        store.clear();
+    }
+}
@@ -0,0 +1,108 @@
+package eformer.back.eformer_backend.support;
+
+import eformer.back.eformer_backend.model.Item;
+import eformer.back.eformer_backend.model.Order;
+import eformer.back.eformer_backend.repository.ItemRepository;
+import eformer.back.eformer_backend.repository.projection.ItemMatches;
+
+import java.sql.Timestamp;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+
+public class InMemoryItemRepository extends InMemoryCrudRepository<Item, Integer> implements ItemRepository {
+    public InMemoryItemRepository() {
+        super(Item::getItemId);
+    }
+
+    /**
+     * Stores a new item with the given ID, which the public constructors cannot assign.
+     */
+    public Item stock(Integer itemId, String name, Integer quantity, Double unitPrice, Double cost) {
+        var item = new Item(itemId, name, "", quantity, unitPrice,
+                new Timestamp(new Date().getTime()), cost) {};
+
+        return save(item);
+    }
+
+    @Override
+    public Optional<Item> findByName(String name) {
+        return filter(item -> item.getName().equals(name)).stream().findFirst();
+    }
+
+    @Override
+    public List<Item> findAllByIntroductionDateAfter(Date date) {
+        return filter(item -> Timestamp.valueOf(item.getIntroductionDate()).after(date));
+    }
+
+    @Override
+    public List<Item> findAllByIntroductionDateBefore(Date date) {
+        return filter(item -> Timestamp.valueOf(item.getIntroductionDate()).before(date));
+    }
+
+    @Override
+    public boolean existsByNameIgnoreCase(String name) {
+        return !filter(item -> item.getName().equalsIgnoreCase(name)).isEmpty();
+    }
+
+    @Override
+    public List<Item> findAllByRetiredFalse() {
+        return filter(item -> !item.isRetired());
+    }
+
+    @Override
+    public Optional<Item> lockById(Integer itemId) {
+        return findById(itemId);
+    }
+
+    /* Only used for its lock, the lines live in InMemoryOrderItemsRepository */
+    @Override
+    public List<Item> lockAllInOrder(Order order) {
+        return List.of();
+    }
+
+    @Override
+    public List<Item> findChangedSince(long version, long upTo, int limit) {
+        return filter(item -> item.getChangeVersion() > version && item.getChangeVersion() <= upTo).stream()
+                .sorted(Comparator.comparing(Item::getChangeVersion))
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public Integer findMaxUnversionedId() {
+        return filter(item -> item.getChangeVersion() == 0).stream()
+                .map(Item::getItemId)
+                .max(Integer::compare)
+                .orElse(null);
+    }
+
+    @Override
+    public int assignVersions(long base) {
+        var unversioned = filter(item -> item.getChangeVersion() == 0);
+
+        unversioned.forEach(item -> item.setChangeVersion(base + item.getItemId()));
+
+        return unversioned.size();
+    }
+
+    @Override
+    public ItemMatches findMatches(Integer itemId, String name) {
+        long ids = filter(item -> item.getItemId().equals(itemId)).size();
+        long names = filter(item -> name != null && item.getName().equalsIgnoreCase(name)).size();
+
+        return new ItemMatches() {
+            @Override
+            public Long getIdMatches() {
+                return ids;
+            }
+
+            @Override
+            public Long getNameMatches() {
+                return names;
+            }
+        };
+    }
+}
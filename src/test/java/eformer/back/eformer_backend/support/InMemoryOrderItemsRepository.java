@@ -0,0 +1,82 @@
+package eformer.back.eformer_backend.support;
+
+import eformer.back.eformer_backend.model.Item;
+import eformer.back.eformer_backend.model.Order;
+import eformer.back.eformer_backend.model.OrderItem;
+import eformer.back.eformer_backend.model.keys.OrderItemId;
+import eformer.back.eformer_backend.repository.OrderItemsRepository;
+import eformer.back.eformer_backend.repository.projection.OrderLineFact;
+import eformer.back.eformer_backend.repository.projection.OrderLineRow;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+
+public class InMemoryOrderItemsRepository extends InMemoryCrudRepository<OrderItem, OrderItemId>
+        implements OrderItemsRepository {
+    public InMemoryOrderItemsRepository() {
+        super(line -> new OrderItemId(line.getItem().getItemId(), line.getOrder().getOrderId()));
+    }
+
+    @Override
+    public void flush() {
+        /* Saved right away */
+    }
+
+    @Override
+    public List<OrderItem> findAllByItem(Item item) {
+        return filter(line -> line.getItem().equals(item));
+    }
+
+    @Override
+    public List<OrderItem> findAllByOrder(Order order) {
+        return filter(line -> line.getOrder().equals(order));
+    }
+
+    @Override
+    public List<Object> findAllInItemIds(Order order) {
+        var result = new ArrayList<Object>();
+
+        for (var line: findAllByOrder(order)) {
+            result.add(new Object[]{line.getItem(), line.getQuantity()});
+        }
+
+        return result;
+    }
+
+    @Override
+    public Integer getSoldItemQuantity(Item item) {
+        var sum = 0;
+
+        for (var line: findAllByItem(item)) {
+            sum += line.getQuantity();
+        }
+
+        return sum;
+    }
+
+    @Override
+    public void deleteAllByOrder(Order order) {
+        deleteAll(findAllByOrder(order));
+    }
+
+    @Override
+    public List<OrderLineRow> findLinesCreatedBetween(Date start, Date end) {
+        record Row(Integer getOrderId, Integer getItemId, Integer getQuantity) implements OrderLineRow {}
+
+        return filter(line -> {
+            var created = Timestamp.valueOf(line.getOrder().getCreationDate());
+            return !created.before(start) && created.before(end);
+        }).stream()
+                .<OrderLineRow>map(line -> new Row(line.getOrder().getOrderId(), line.getItem().getItemId(),
+                        line.getQuantity()))
+                .toList();
+    }
+
+    @Override
+    public List<OrderLineFact> findConfirmedLineFacts(int afterOrderId, int limit) {
+        throw new UnsupportedOperationException("Native query, not available in memory");
+    }
+}
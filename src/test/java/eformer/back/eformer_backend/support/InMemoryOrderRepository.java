@@ -0,0 +1,214 @@
+package eformer.back.eformer_backend.support;
+
+import eformer.back.eformer_backend.model.Order;
+import eformer.back.eformer_backend.model.User;
+import eformer.back.eformer_backend.repository.OrderRepository;
+import eformer.back.eformer_backend.repository.projection.OrderHistogramRow;
+import eformer.back.eformer_backend.repository.projection.OrderTotals;
+import org.springframework.data.domain.Pageable;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.ToDoubleFunction;
+
+
+public class InMemoryOrderRepository extends InMemoryCrudRepository<Order, Integer> implements OrderRepository {
+    private int nextId = 1;
+
+    public InMemoryOrderRepository() {
+        super(Order::getOrderId);
+    }
+
+    /**
+     * Like the database, assigns an ID to new orders & returns the stored copy.
+     */
+    @Override
+    public <S extends Order> S save(S entity) {
+        if (entity.getOrderId() != null) {
+            return super.save(entity);
+        }
+
+        Order copy = new Order(nextId++, entity.getTotal(), Timestamp.valueOf(entity.getCreationDate()),
+                entity.getNumberOfItems(), entity.getAmountPaid(), entity.getStatus(),
+                entity.getCustomer(), entity.getEmployee(), entity.getNote(), entity.getProfit()) {};
+
+        copy.setChangeSequence(entity.getChangeSequence());
+
+        @SuppressWarnings("unchecked")
+        var saved = (S) copy;
+
+        return super.save(saved);
+    }
+
+    private static boolean createdAfter(Order order, Date date) {
+        return Timestamp.valueOf(order.getCreationDate()).after(date);
+    }
+
+    private static boolean createdBefore(Order order, Date date) {
+        return Timestamp.valueOf(order.getCreationDate()).before(date);
+    }
+
+    private double sum(ToDoubleFunction<Order> value) {
+        return store.values().stream().mapToDouble(value).sum();
+    }
+
+    @Override
+    public List<Order> findAllByCustomer(User customer) {
+        return filter(order -> Objects.equals(order.getCustomer(), customer));
+    }
+
+    @Override
+    public List<Order> findAllByEmployee(User employee) {
+        return filter(order -> Objects.equals(order.getEmployee(), employee));
+    }
+
+    @Override
+    public List<Order> findAllByCustomerAndEmployee(User customer, User employee) {
+        return filter(order -> Objects.equals(order.getCustomer(), customer)
+                && Objects.equals(order.getEmployee(), employee));
+    }
+
+    @Override
+    public List<Order> findAllByStatus(String status) {
+        return filter(order -> order.getStatus().equals(status));
+    }
+
+    @Override
+    public List<Order> findAllByCreationDateAfter(Date date) {
+        return filter(order -> createdAfter(order, date));
+    }
+
+    @Override
+    public List<Order> findAllByCreationDateBefore(Date date) {
+        return filter(order -> createdBefore(order, date));
+    }
+
+    @Override
+    public List<Order> findAllByCreationDateBetween(Date start, Date end) {
+        return filter(order -> !createdBefore(order, start) && !createdAfter(order, end));
+    }
+
+    @Override
+    public List<Order> findAllByChangeSequenceGreaterThanAndChangeSequenceLessThanEqualOrderByChangeSequence(
+            Long sequence, Long upTo, Pageable page) {
+        return filter(order -> order.getChangeSequence() > sequence && order.getChangeSequence() <= upTo).stream()
+                .sorted(Comparator.comparing(Order::getChangeSequence))
+                .limit(page.getPageSize())
+                .toList();
+    }
+
+    @Override
+    public Integer findMaxUnsequencedId() {
+        return filter(order -> order.getChangeSequence() == 0).stream()
+                .map(Order::getOrderId)
+                .max(Integer::compare)
+                .orElse(null);
+    }
+
+    @Override
+    public Long findMaxChangeSequenceCreatedBetween(Date start, Date end) {
+        return filter(order -> !createdBefore(order, start) && createdBefore(order, end)).stream()
+                .map(Order::getChangeSequence)
+                .max(Long::compare)
+                .orElse(null);
+    }
+
+    @Override
+    public int assignSequences(long base) {
+        var unsequenced = filter(order -> order.getChangeSequence() == 0);
+
+        unsequenced.forEach(order -> order.setChangeSequence(base + order.getOrderId()));
+
+        return unsequenced.size();
+    }
+
+    @Override
+    public Double getTotalSales() {
+        return sum(Order::getTotal);
+    }
+
+    @Override
+    public Integer getTotalSoldQuantity() {
+        return (int) sum(Order::getNumberOfItems);
+    }
+
+    @Override
+    public Double getTotalActualSales() {
+        return sum(Order::getAmountPaid);
+    }
+
+    @Override
+    public List<Order> getAllPaid() {
+        return filter(order -> order.getAmountPaid() != null && order.getAmountPaid() > 0);
+    }
+
+    @Override
+    public Double getTotalProfit() {
+        return sum(Order::getProfit);
+    }
+
+    @Override
+    public OrderTotals getTotals() {
+        var sales = getTotalSales();
+        var quantity = (long) getTotalSoldQuantity();
+        var actualSales = getTotalActualSales();
+        var profit = getTotalProfit();
+        var count = count();
+
+        return new OrderTotals() {
+            @Override
+            public Double getTotalSales() {
+                return sales;
+            }
+
+            @Override
+            public Long getTotalSoldQuantity() {
+                return quantity;
+            }
+
+            @Override
+            public Double getTotalActualSales() {
+                return actualSales;
+            }
+
+            @Override
+            public Double getTotalProfit() {
+                return profit;
+            }
+
+            @Override
+            public Long getOrderCount() {
+                return count;
+            }
+        };
+    }
+
+    /**
+     * Like the native query, buckets the orders created in [start, end) that weren't cancelled.
+     */
+    @Override
+    public List<OrderHistogramRow> getHistogram(Date origin, long width, Date start, Date end) {
+        record Row(Number getBucket, Number getOrders, Number getRevenue, Number getProfit)
+                implements OrderHistogramRow {}
+
+        var buckets = new TreeMap<Long, List<Order>>();
+
+        for (var order: filter(order -> !createdBefore(order, start) && createdBefore(order, end)
+                && !order.getStatus().equals("Cancelled"))) {
+            var seconds = (Timestamp.valueOf(order.getCreationDate()).getTime() - origin.getTime()) / 1000;
+
+            buckets.computeIfAbsent(Math.floorDiv(seconds, width), bucket -> new ArrayList<>()).add(order);
+        }
+
+        return buckets.entrySet().stream()
+                .<OrderHistogramRow>map(entry -> new Row(entry.getKey(), (long) entry.getValue().size(),
+                        entry.getValue().stream().mapToDouble(Order::getTotal).sum(),
+                        entry.getValue().stream().mapToDouble(Order::getProfit).sum()))
+                .toList();
+    }
+}
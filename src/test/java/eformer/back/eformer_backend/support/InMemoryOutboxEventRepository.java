@@ -0,0 +1,65 @@
+package eformer.back.eformer_backend.support;
+
+import eformer.back.eformer_backend.model.OutboxEvent;
+import eformer.back.eformer_backend.repository.OutboxEventRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+
+public class InMemoryOutboxEventRepository extends InMemoryCrudRepository<OutboxEvent, Long>
+        implements OutboxEventRepository {
+    private long nextId = 1;
+
+    public InMemoryOutboxEventRepository() {
+        super(OutboxEvent::getEventId);
+    }
+
+    /**
+     * Like the database, assigns an ID to new events.
+     */
+    @Override
+    public <S extends OutboxEvent> S save(S entity) {
+        if (entity.getEventId() == null) {
+            ReflectionTestUtils.setField(entity, "eventId", nextId++);
+        }
+
+        return super.save(entity);
+    }
+
+    /**
+     * Nothing is locked, the in-memory store is single-threaded.
+     */
+    @Override
+    public List<OutboxEvent> claimDue(Date now, int limit) {
+        return filter(event -> event.getStatus().equals(OutboxEvent.PENDING)
+                && !event.getAvailableAt().after(now)).stream()
+                .sorted(Comparator.comparing(OutboxEvent::getEventId))
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public Date findOldestPending() {
+        return filter(event -> event.getStatus().equals(OutboxEvent.PENDING)).stream()
+                .map(OutboxEvent::getCreatedAt)
+                .min(Comparator.naturalOrder())
+                .orElse(null);
+    }
+
+    @Override
+    public long countByStatus(String status) {
+        return filter(event -> event.getStatus().equals(status)).size();
+    }
+
+    @Override
+    public int deleteSentBefore(Date cutoff) {
+        var sent = filter(event -> event.getStatus().equals(OutboxEvent.SENT) && event.getSentAt().before(cutoff));
+
+        sent.forEach(this::delete);
+
+        return sent.size();
+    }
+}
@@ -0,0 +1,37 @@
+package eformer.back.eformer_backend.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Hibernate statement inspector counting every SQL statement prepared by the application.
+ * Registered through `hibernate.session_factory.statement_inspector` in the test profile.
+ * The counter is global, tests using it must issue requests sequentially.
+ */
+public class StatementCounter implements StatementInspector {
+    private static final List<String> statements = new ArrayList<>();
+
+    public static synchronized void reset() {
+        statements.clear();
+    }
+
+    public static synchronized int count() {
+        return statements.size();
+    }
+
+    public static synchronized List<String> statements() {
+        return new ArrayList<>(statements);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        synchronized (StatementCounter.class) {
+            statements.add(sql);
+        }
+
+        return sql;
+    }
+}
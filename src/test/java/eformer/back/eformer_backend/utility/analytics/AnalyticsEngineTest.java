@@ -0,0 +1,154 @@
+package eformer.back.eformer_backend.utility.analytics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class AnalyticsEngineTest {
+    /* Enough rows for the scan to split into several tasks */
+    private static final int ORDERS = 100_000;
+
+    private static final Instant DAY = Instant.parse("2024-03-01T00:00:00Z");
+
+    private static final ZoneId UTC = ZoneId.of("UTC");
+
+    private OrderLineStore store;
+
+    private AnalyticsEngine engine;
+
+    @BeforeEach
+    void fill() {
+        store = new OrderLineStore(null, null, null, true, 1_000, 10_000_000);
+        engine = new AnalyticsEngine(store, 4);
+
+        /* Order i has two lines: item i % 10 once at price 2 & cost 1, item 100 twice at price 5 & cost 3.
+           Orders alternate days in pairs, so every item is bought on both days */
+        for (int i = 0; i < ORDERS; i++) {
+            store.append(i, i % 3, DAY.toEpochMilli() + dayOf(i) * 86_400_000L,
+                    new int[]{i % 10, 100}, new int[]{1, 2}, new double[]{2.0, 5.0}, new double[]{1.0, 3.0});
+        }
+    }
+
+    private static int dayOf(int order) {
+        return order / 2 % 2;
+    }
+
+    @AfterEach
+    void shutdown() {
+        engine.shutdown();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<LinkedHashMap<String, Object>> rows(LinkedHashMap<String, Object> result) {
+        return (List<LinkedHashMap<String, Object>>) result.get("rows");
+    }
+
+    private LinkedHashMap<String, Object> query(GroupBy groupBy, Integer itemId, Integer employeeId) {
+        return engine.query(DAY, DAY.plusSeconds(2 * 86_400), UTC, groupBy, itemId, employeeId, 100);
+    }
+
+    @Test
+    void groupsByItemSortedByRevenue() {
+        var rows = rows(query(GroupBy.ITEM, null, null));
+
+        assertEquals(11, rows.size());
+        assertEquals(100, rows.get(0).get("itemId"));
+        assertEquals(2L * ORDERS, rows.get(0).get("quantity"));
+        assertEquals(10.0 * ORDERS, (double) rows.get(0).get("revenue"), 1e-6);
+        assertEquals(4.0 * ORDERS, (double) rows.get(0).get("margin"), 1e-6);
+        assertEquals((long) ORDERS / 10, rows.get(1).get("lines"));
+    }
+
+    @Test
+    void filtersByItemEmployeeAndDay() {
+        var rows = rows(query(GroupBy.DAY, 3, 0));
+        var lines = new long[2];
+
+        for (int i = 0; i < ORDERS; i++) {
+            if (i % 10 == 3 && i % 3 == 0) {
+                lines[dayOf(i)]++;
+            }
+        }
+
+        assertEquals(2, rows.size());
+        assertEquals("2024-03-01T00:00Z", rows.get(0).get("day"));
+        assertEquals(lines[0], rows.get(0).get("lines"));
+        assertEquals("2024-03-02T00:00Z", rows.get(1).get("day"));
+        assertEquals(lines[1], rows.get(1).get("lines"));
+    }
+
+    @Test
+    void basketsAreGroupedByTotalQuantity() {
+        var rows = rows(query(GroupBy.BASKET, null, null));
+
+        assertEquals(1, rows.size());
+        assertEquals(3, rows.get(0).get("basketSize"));
+        assertEquals((long) ORDERS, rows.get(0).get("orders"));
+    }
+
+    @Test
+    void cancelledOrdersAreNotCounted() {
+        store.remove(0);
+        store.remove(ORDERS);
+
+        assertFalse(store.append(ORDERS, 0, DAY.toEpochMilli(),
+                new int[]{1}, new int[]{1}, new double[]{1.0}, new double[]{1.0}));
+        assertFalse(store.append(1, 0, DAY.toEpochMilli(),
+                new int[]{1}, new int[]{1}, new double[]{1.0}, new double[]{1.0}));
+        assertEquals(2L * ORDERS - 2, rows(query(GroupBy.ITEM, 100, null)).get(0).get("quantity"));
+        assertEquals(2 * ORDERS, store.snapshot().size());
+    }
+
+    @Test
+    void cancelsCopyOnlyThePagesTheyChange() {
+        /* Two rows per order, so order PAGE_ROWS / 2 starts the second page */
+        var secondPage = OrderLineColumns.PAGE_ROWS / 2;
+
+        store.remove(secondPage);
+        var before = store.snapshot();
+        store.remove(0);
+        var after = store.snapshot();
+
+        assertFalse(before.isRemoved(0));
+        assertTrue(after.isRemoved(0) && after.isRemoved(1) && !after.isRemoved(2));
+        assertTrue(after.isRemoved(2 * secondPage + 1));
+        assertSame(before.removed[1], after.removed[1]);
+        assertNull(after.removed[2]);
+    }
+
+    @Test
+    void rowsAreCappedByTheHeap() {
+        var heap = 1L << 30;
+
+        assertEquals(1_000, OrderLineStore.rowLimit(1_000, heap));
+        assertEquals(heap / 4 / (2 * OrderLineStore.BYTES_PER_ROW), OrderLineStore.rowLimit(Integer.MAX_VALUE, heap));
+        assertTrue(store.maxRows() <= OrderLineStore.rowLimit(10_000_000, Runtime.getRuntime().maxMemory()));
+    }
+
+    @Test
+    void cancelsOfUnknownOrdersAreForgottenPastTheLimit() {
+        for (int i = 0; i < 2 * OrderLineStore.MAX_CANCELLED_EARLY; i++) {
+            store.remove(ORDERS + i);
+        }
+
+        assertEquals(OrderLineStore.MAX_CANCELLED_EARLY, store.cancelledEarlyCount());
+
+        /* The oldest were dropped, their late confirm is stored, the newest are still ignored */
+        assertTrue(store.append(ORDERS, 0, DAY.toEpochMilli(),
+                new int[]{1}, new int[]{1}, new double[]{1.0}, new double[]{1.0}));
+        assertFalse(store.append(ORDERS + 2 * OrderLineStore.MAX_CANCELLED_EARLY - 1, 0, DAY.toEpochMilli(),
+                new int[]{1}, new int[]{1}, new double[]{1.0}, new double[]{1.0}));
+    }
+}
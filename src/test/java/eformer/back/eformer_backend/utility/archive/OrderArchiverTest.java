@@ -0,0 +1,168 @@
+package eformer.back.eformer_backend.utility.archive;
+
+import eformer.back.eformer_backend.model.Item;
+import eformer.back.eformer_backend.model.Order;
+import eformer.back.eformer_backend.model.User;
+import eformer.back.eformer_backend.repository.ItemRepository;
+import eformer.back.eformer_backend.repository.OrderArchiveRepository;
+import eformer.back.eformer_backend.repository.OrderItemsRepository;
+import eformer.back.eformer_backend.repository.OrderRepository;
+import eformer.back.eformer_backend.repository.UserRepository;
+import eformer.back.eformer_backend.utility.orders.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * The archive tables come from db/orders-partitioning.sql in production, here they are copied from H2's schema.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderArchiverTest {
+    private static final Date ARCHIVED_DAY = Date.from(Instant.parse("2000-01-15T10:00:00Z"));
+
+    private static final Date HORIZON = Date.from(Instant.parse("2001-01-01T00:00:00Z"));
+
+    @Autowired
+    private OrderService orders;
+
+    @Autowired
+    private OrderRepository orderRepo;
+
+    @Autowired
+    private OrderArchiveRepository archiveRepo;
+
+    @Autowired
+    private UserRepository users;
+
+    @Autowired
+    private ItemRepository items;
+
+    @Autowired
+    private OrderItemsRepository orderItems;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private OrderHistory history;
+
+    private OrderArchiver archiver;
+
+    @BeforeEach
+    void createArchiveTables() {
+        jdbc.execute("CREATE TABLE IF NOT EXISTS orders_archive AS SELECT * FROM orders WITH NO DATA");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS order_items_archive AS SELECT * FROM order_items WITH NO DATA");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS orders_archive_totals (id TINYINT PRIMARY KEY, " +
+                     "total_sales DOUBLE DEFAULT 0 NOT NULL, sold_quantity BIGINT DEFAULT 0 NOT NULL, " +
+                     "actual_sales DOUBLE DEFAULT 0 NOT NULL, profit DOUBLE DEFAULT 0 NOT NULL, " +
+                     "order_count BIGINT DEFAULT 0 NOT NULL)");
+        jdbc.execute("INSERT IGNORE INTO orders_archive_totals (id) VALUES (1)");
+
+        history = new OrderHistory(orderRepo, archiveRepo, orderItems, true, 30);
+        archiver = new OrderArchiver(archiveRepo, transactionManager, history, 2);
+    }
+
+    private User user(int adLevel) {
+        var name = "archive_" + UUID.randomUUID().toString().substring(0, 8);
+        return users.save(new User(name, name + "@archive.test", "password", adLevel, name));
+    }
+
+    private Order order() {
+        var item = items.save(new Item("Archive item " + UUID.randomUUID(), "", 10, 2.0, 1.0));
+        var basket = new HashMap<String, Integer>();
+        basket.put(String.valueOf(item.getItemId()), 2);
+
+        return orders.create(user(0), user(1), "", basket);
+    }
+
+    private void backdate(Order... toMove) {
+        for (var order: toMove) {
+            jdbc.update("UPDATE orders SET creation_date = ? WHERE order_id = ?",
+                    new Timestamp(ARCHIVED_DAY.getTime()), order.getOrderId());
+        }
+    }
+
+    private static List<Integer> idsOf(Iterable<Order> orders) {
+        var ids = new ArrayList<Integer>();
+
+        orders.forEach(order -> ids.add(order.getOrderId()));
+
+        return ids;
+    }
+
+    @Test
+    void closedOrdersPastTheHorizonMoveWithTheirLines() {
+        var confirmed = orders.confirm(order(), 4.0);
+        var cancelled = orders.cancel(order());
+        var pending = order();
+        var recent = orders.confirm(order(), 4.0);
+
+        backdate(confirmed, cancelled, pending);
+        archiver.archiveBefore(HORIZON);
+
+        assertFalse(orderRepo.existsById(confirmed.getOrderId()));
+        assertFalse(orderRepo.existsById(cancelled.getOrderId()));
+        assertTrue(orderRepo.existsById(pending.getOrderId()));
+        assertTrue(orderRepo.existsById(recent.getOrderId()));
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM order_items_archive WHERE order_id = ?",
+                Integer.class, confirmed.getOrderId()));
+    }
+
+    @Test
+    void rangesReachingTheArchiveIncludeIt() {
+        var confirmed = orders.confirm(order(), 4.0);
+        var pending = order();
+
+        backdate(confirmed, pending);
+        archiver.archiveBefore(HORIZON);
+
+        var start = Date.from(Instant.parse("2000-01-01T00:00:00Z"));
+        var end = Date.from(Instant.parse("2000-02-01T00:00:00Z"));
+        var ids = idsOf(history.findAllByCreationDateBetween(start, end));
+
+        assertTrue(ids.contains(confirmed.getOrderId()));
+        assertTrue(ids.contains(pending.getOrderId()));
+        assertFalse(idsOf(orderRepo.findAllByCreationDateBetween(start, end)).contains(confirmed.getOrderId()));
+        assertTrue(idsOf(history.findAllByStatus("Confirmed")).contains(confirmed.getOrderId()));
+        assertTrue(history.reachesArchive(start));
+        assertFalse(history.reachesArchive(new Date()));
+    }
+
+    @Test
+    void allTimeTotalsAreUnchangedByArchival() {
+        var confirmed = orders.confirm(order(), 4.0);
+
+        backdate(confirmed);
+
+        var before = history.getTotals();
+
+        archiver.archiveBefore(HORIZON);
+
+        var after = history.getTotals();
+
+        assertEquals(before.getOrderCount(), after.getOrderCount());
+        assertEquals(before.getTotalSales(), after.getTotalSales(), 1e-9);
+        assertEquals(before.getTotalActualSales(), after.getTotalActualSales(), 1e-9);
+        assertEquals(before.getTotalSoldQuantity(), after.getTotalSoldQuantity());
+    }
+}
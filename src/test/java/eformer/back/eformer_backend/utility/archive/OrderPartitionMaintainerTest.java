@@ -0,0 +1,75 @@
+package eformer.back.eformer_backend.utility.archive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+class OrderPartitionMaintainerTest {
+    private static final YearMonth NOW = YearMonth.of(2026, 10);
+
+    /* Answers the partition queries & records the statements executed */
+    static final class FakeJdbc extends JdbcTemplate {
+        final List<String> partitions;
+
+        final boolean pmaxHoldsOrders;
+
+        final List<String> executed = new ArrayList<>();
+
+        FakeJdbc(boolean pmaxHoldsOrders, String... partitions) {
+            this.partitions = List.of(partitions);
+            this.pmaxHoldsOrders = pmaxHoldsOrders;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> queryForList(String sql, Class<T> elementType) {
+            return (List<T>) partitions;
+        }
+
+        @Override
+        public List<Map<String, Object>> queryForList(String sql) {
+            return pmaxHoldsOrders ? List.of(Map.of("1", 1)) : List.of();
+        }
+
+        @Override
+        public void execute(String sql) {
+            executed.add(sql);
+        }
+    }
+
+    private static List<String> maintain(FakeJdbc jdbc) {
+        new OrderPartitionMaintainer(jdbc, true, 2).maintain(NOW);
+        return jdbc.executed;
+    }
+
+    @Test
+    void splitsTheCatchAllPartitionIntoMonths() {
+        assertEquals("ALTER TABLE orders REORGANIZE PARTITION pmax INTO (" +
+                     "PARTITION p202611 VALUES LESS THAN ('2026-12-01'), " +
+                     "PARTITION p202612 VALUES LESS THAN ('2027-01-01'), " +
+                     "PARTITION pmax VALUES LESS THAN (MAXVALUE))",
+                OrderPartitionMaintainer.reorganize(YearMonth.of(2026, 11), YearMonth.of(2026, 12)));
+    }
+
+    @Test
+    void addsTheMissingUpcomingMonths() {
+        assertEquals(List.of(OrderPartitionMaintainer.reorganize(YearMonth.of(2026, 11), YearMonth.of(2026, 12))),
+                maintain(new FakeJdbc(false, "p202609", "p202610", "pmax")));
+        assertEquals(List.of(), maintain(new FakeJdbc(false, "p202611", "p202612", "pmax")));
+    }
+
+    @Test
+    void neverRewritesOrders() {
+        /* Not yet split by db/orders-partitioning.sql */
+        assertEquals(List.of(), maintain(new FakeJdbc(false, "pmax")));
+        /* Maintenance lapsed & recent orders landed in pmax */
+        assertEquals(List.of(), maintain(new FakeJdbc(true, "p202606", "pmax")));
+    }
+}
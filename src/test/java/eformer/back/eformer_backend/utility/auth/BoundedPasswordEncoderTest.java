@@ -0,0 +1,108 @@
+package eformer.back.eformer_backend.utility.auth;
+
+import eformer.back.eformer_backend.utility.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class BoundedPasswordEncoderTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private BoundedPasswordEncoder encoder;
+
+    /**
+     * Prefixes the raw password with the hashing thread's name, & blocks on `release` when asked to.
+     */
+    private class RecordingEncoder implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            if (rawPassword.toString().startsWith("block")) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            } else if (rawPassword.toString().equals("fail")) {
+                throw new IllegalArgumentException("Rejected by the delegate");
+            }
+
+            return Thread.currentThread().getName() + ":" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.endsWith(":" + rawPassword);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.shutdown();
+    }
+
+    private double gauge(String name) {
+        return registry.get(name).gauge().value();
+    }
+
+    @Test
+    void encodesAndMatchesOnThePool() {
+        encoder = new BoundedPasswordEncoder(new RecordingEncoder(), 2, 4, registry);
+
+        var encoded = encoder.encode("secret");
+
+        assertTrue(encoded.startsWith("password-hashing-"), encoded);
+        assertTrue(encoder.matches("secret", encoded));
+        assertFalse(encoder.matches("other", encoded));
+        assertEquals(1, registry.get("eformer.password.hashing").tag("operation", "encode").timer().count());
+        assertEquals(2, registry.get("eformer.password.hashing").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void delegateExceptionsReachTheCaller() {
+        encoder = new BoundedPasswordEncoder(new RecordingEncoder(), 1, 1, registry);
+
+        assertThrows(IllegalArgumentException.class, () -> encoder.encode("fail"));
+    }
+
+    @Test
+    void rejectsOnceTheQueueIsFull() throws Exception {
+        encoder = new BoundedPasswordEncoder(new RecordingEncoder(), 1, 1, registry);
+
+        var running = CompletableFuture.supplyAsync(() -> encoder.encode("block-1"));
+
+        while (gauge("eformer.password.hashing.active") < 1) {
+            Thread.sleep(1);
+        }
+
+        var queued = CompletableFuture.supplyAsync(() -> encoder.encode("block-2"));
+
+        while (gauge("eformer.password.hashing.queue") < 1) {
+            Thread.sleep(1);
+        }
+
+        assertThrows(PasswordHashingRejectedException.class, () -> encoder.encode("secret"));
+        assertEquals(1, registry.get("eformer.password.hashing.rejected").counter().count());
+
+        release.countDown();
+
+        assertTrue(running.get(10, TimeUnit.SECONDS).endsWith(":block-1"));
+        assertTrue(queued.get(10, TimeUnit.SECONDS).endsWith(":block-2"));
+
+        /* Capacity is back once the queue drains */
+        assertTrue(encoder.encode("secret").endsWith(":secret"));
+    }
+}
@@ -0,0 +1,102 @@
+package eformer.back.eformer_backend.utility.auth;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class LoginAttemptLimiterTest {
+    private static final long NOW = 1_000_000;
+
+    private static final long SECOND = 1_000;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private LoginAttemptLimiter limiter(int perUser, int perAddress, int maxKeys) {
+        return new LoginAttemptLimiter(perUser, perAddress, 60, maxKeys, registry);
+    }
+
+    @Test
+    void blocksAUsernameFromAnyAddress() {
+        var limiter = limiter(3, 100, 1000);
+
+        for (int i = 0; i < 3; i++) {
+            assertFalse(limiter.isBlocked("alice", "10.0.0." + i, NOW));
+            limiter.recordFailure("alice", "10.0.0." + i, NOW);
+        }
+
+        /* Usernames are case-insensitive */
+        assertTrue(limiter.isBlocked("ALICE", "10.0.0.9", NOW));
+        assertFalse(limiter.isBlocked("bob", "10.0.0.1", NOW));
+        assertEquals(1, registry.get("eformer.auth.throttled").counter().count());
+
+        limiter.recordSuccess("alice");
+
+        assertFalse(limiter.isBlocked("alice", "10.0.0.9", NOW));
+    }
+
+    @Test
+    void blocksAnAddressForEveryUsername() {
+        var limiter = limiter(100, 3, 1000);
+
+        for (int i = 0; i < 3; i++) {
+            limiter.recordFailure("user" + i, "10.0.0.1", NOW);
+        }
+
+        assertTrue(limiter.isBlocked("someone-else", "10.0.0.1", NOW));
+        assertFalse(limiter.isBlocked("user0", "10.0.0.2", NOW));
+
+        /* A success clears the username only, the address stays blocked */
+        limiter.recordSuccess("user0");
+
+        assertTrue(limiter.isBlocked("user0", "10.0.0.1", NOW));
+    }
+
+    @Test
+    void failuresExpireWithTheWindow() {
+        var limiter = limiter(3, 100, 1000);
+
+        for (int i = 0; i < 3; i++) {
+            limiter.recordFailure("alice", "10.0.0.1", NOW);
+        }
+
+        /* The previous window still counts fully at its end, then decays linearly */
+        assertTrue(limiter.isBlocked("alice", "10.0.0.1", NOW + 59 * SECOND));
+        assertTrue(limiter.isBlocked("alice", "10.0.0.1", NOW + 60 * SECOND));
+        assertFalse(limiter.isBlocked("alice", "10.0.0.1", NOW + 90 * SECOND));
+        assertFalse(limiter.isBlocked("alice", "10.0.0.1", NOW + 120 * SECOND));
+
+        limiter.recordFailure("alice", "10.0.0.1", NOW + 120 * SECOND);
+
+        assertFalse(limiter.isBlocked("alice", "10.0.0.1", NOW + 120 * SECOND));
+    }
+
+    @Test
+    void purgesStaleKeysOnceFull() {
+        var limiter = limiter(3, 3, 10);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.recordFailure("user" + i, "10.0.0." + i, NOW);
+        }
+
+        assertEquals(10, limiter.size());
+
+        limiter.recordFailure("late", "10.0.1.1", NOW + 120 * SECOND);
+
+        assertEquals(2, limiter.size());
+    }
+
+    @Test
+    void neverTracksMoreThanMaxKeys() {
+        var limiter = limiter(3, 3, 10);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.recordFailure("user" + i, "10.0.0." + i, NOW);
+
+            assertTrue(limiter.size() <= 10);
+        }
+    }
+}
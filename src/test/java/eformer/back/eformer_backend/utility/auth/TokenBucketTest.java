@@ -0,0 +1,61 @@
+package eformer.back.eformer_backend.utility.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class TokenBucketTest {
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void burstUpToCapacityThenRefillsOverTime() {
+        var bucket = new TokenBucket(3, 1, 0);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryTake(0));
+        }
+
+        /* Waits are rounded up to the nanosecond */
+        assertEquals(SECOND, bucket.tryTake(0), 1.0);
+        assertEquals(SECOND / 2, bucket.tryTake(SECOND / 2), 1.0);
+        assertEquals(0, bucket.tryTake(SECOND + 1_000));
+        assertFalse(bucket.isFull(SECOND + 1_000));
+        assertTrue(bucket.isFull(10 * SECOND));
+    }
+
+    @Test
+    void concurrentTakesNeverExceedCapacity() throws Exception {
+        var bucket = new TokenBucket(100, 0.000_001, System.nanoTime());
+        var admitted = new AtomicInteger();
+        var start = new CountDownLatch(1);
+        var pool = Executors.newFixedThreadPool(8);
+
+        for (int t = 0; t < 8; t++) {
+            pool.submit(() -> {
+                start.await();
+
+                for (int i = 0; i < 100; i++) {
+                    if (bucket.tryTake(System.nanoTime()) == 0) {
+                        admitted.incrementAndGet();
+                    }
+                }
+
+                return null;
+            });
+        }
+
+        start.countDown();
+        pool.shutdown();
+
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(100, admitted.get());
+    }
+}
@@ -0,0 +1,102 @@
+package eformer.back.eformer_backend.utility.coldstorage;
+
+import eformer.back.eformer_backend.model.Order;
+import eformer.back.eformer_backend.support.InMemoryOrderItemsRepository;
+import eformer.back.eformer_backend.support.InMemoryOrderRepository;
+import eformer.back.eformer_backend.utility.archive.OrderHistory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+class ColdStorageTest {
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private static final YearMonth MONTH = YearMonth.now(ZONE).minusMonths(2);
+
+    private final InMemoryOrderRepository orders = new InMemoryOrderRepository();
+
+    @TempDir
+    Path directory;
+
+    private ColdStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        var history = new OrderHistory(orders, null, new InMemoryOrderItemsRepository(), false, 365);
+
+        storage = new ColdStorage(history, directory.toString(), true, 3, 64);
+    }
+
+    private Order order(int day, double total, String status, long changeSequence) {
+        var order = new Order(null, total, Timestamp.valueOf(MONTH.atDay(day).atTime(12, 0)), 1,
+                total, status, null, null, "", total / 4) {};
+
+        order.setChangeSequence(changeSequence);
+
+        return orders.save(order);
+    }
+
+    @SuppressWarnings("unchecked")
+    private LinkedHashMap<String, Object> total() throws IOException {
+        var start = MONTH.atDay(1).atStartOfDay(ZONE).toInstant();
+        var end = MONTH.plusMonths(1).atDay(1).atStartOfDay(ZONE).toInstant();
+
+        return (LinkedHashMap<String, Object>) storage.aggregate(start, end, ZONE).get("total");
+    }
+
+    @Test
+    void onlyConfirmedOrdersAddToTheSums() throws IOException {
+        order(3, 10.0, "Confirmed", 1);
+        order(4, 20.0, "Pending", 2);
+        order(5, 40.0, "Cancelled", 3);
+
+        assertEquals(3, storage.export(MONTH));
+
+        var total = total();
+
+        assertEquals(1L, total.get("orders"));
+        assertEquals(1L, total.get("pending"));
+        assertEquals(1L, total.get("cancelled"));
+        assertEquals(10.0, total.get("revenue"));
+        assertEquals(1L, total.get("soldQuantity"));
+    }
+
+    @Test
+    void changedMonthsAreExportedAgain() throws IOException {
+        order(3, 10.0, "Confirmed", 1);
+        var pending = order(4, 20.0, "Pending", 2);
+
+        storage.exportClosedMonths();
+
+        var segment = directory.resolve("orders-" + MONTH + ".seg");
+        Files.setLastModifiedTime(segment, FileTime.fromMillis(0));
+
+        /* Nothing changed, the segment is kept */
+        storage.exportClosedMonths();
+
+        assertEquals(0, Files.getLastModifiedTime(segment).toMillis());
+        assertEquals(10.0, total().get("revenue"));
+
+        /* Confirmed after the month ended */
+        pending.setStatus("Confirmed");
+        pending.setChangeSequence(3L);
+
+        storage.exportClosedMonths();
+
+        assertEquals(2L, total().get("orders"));
+        assertEquals(0L, total().get("pending"));
+        assertEquals(30.0, total().get("revenue"));
+    }
+}
@@ -0,0 +1,113 @@
+package eformer.back.eformer_backend.utility.coldstorage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class SegmentTest {
+    private static final int ORDERS = 1_000;
+
+    private static OrderRecord record(int i) {
+        return new OrderRecord(i, 1_000L * i, i % 10 == 0 ? OrderRecord.CANCELLED : OrderRecord.CONFIRMED,
+                i % 7, i % 3, 10.0 * i, 10.0 * i, 2.5 * i, 2,
+                new int[]{i % 50, 100 + i % 5}, new int[]{1, 1});
+    }
+
+    private static List<OrderRecord> records() {
+        var records = new ArrayList<OrderRecord>();
+
+        for (int i = 0; i < ORDERS; i++) {
+            records.add(record(i));
+        }
+
+        /* The writer sorts */
+        Collections.shuffle(records);
+
+        return records;
+    }
+
+    private static List<OrderRecord> scan(Segment segment, long from, long to) throws IOException {
+        var found = new ArrayList<OrderRecord>();
+
+        segment.scan(from, to, found::add);
+
+        return found;
+    }
+
+    @Test
+    void rangeScansReturnTheRecordsInOrder(@TempDir Path directory) throws IOException {
+        var path = directory.resolve("orders.seg");
+
+        SegmentWriter.write(path, records(), 42, 64);
+
+        var segment = Segment.open(path);
+        var found = scan(segment, 250_000, 260_000);
+
+        assertEquals(ORDERS, segment.recordCount());
+        assertEquals(42, segment.changeSequence());
+        assertEquals(10, found.size());
+
+        for (int i = 0; i < found.size(); i++) {
+            assertEquals(record(250 + i), found.get(i));
+        }
+
+        assertEquals(ORDERS, scan(segment, Long.MIN_VALUE, Long.MAX_VALUE).size());
+        assertEquals(0, scan(segment, 5_000_000, 6_000_000).size());
+    }
+
+    @Test
+    void blocksAreCompressed(@TempDir Path directory) throws IOException {
+        var path = directory.resolve("orders.seg");
+        var raw = 0L;
+
+        for (var record: records()) {
+            raw += record.encodedSize();
+        }
+
+        SegmentWriter.write(path, records(), 42, 512);
+
+        assertTrue(Files.size(path) < raw / 2, "Segment of " + Files.size(path) + " bytes for " + raw);
+    }
+
+    @Test
+    void emptySegmentsAreValid(@TempDir Path directory) throws IOException {
+        var path = directory.resolve("orders.seg");
+
+        SegmentWriter.write(path, List.of(), -1, 64);
+
+        assertEquals(0, scan(Segment.open(path), Long.MIN_VALUE, Long.MAX_VALUE).size());
+    }
+
+    @Test
+    void otherVersionsAreRejected(@TempDir Path directory) throws IOException {
+        var path = directory.resolve("orders.seg");
+        var empty = ByteBuffer.allocate(8 + SegmentWriter.TRAILER_BYTES)
+                .putInt(SegmentWriter.MAGIC).putInt(SegmentWriter.VERSION + 1)
+                .putLong(8).putInt(0).putLong(-1).putInt(SegmentWriter.MAGIC);
+
+        Files.write(path, empty.array());
+
+        assertThrows(IOException.class, () -> Segment.open(path));
+    }
+
+    @Test
+    void otherFilesAreRejected(@TempDir Path directory) throws IOException {
+        var path = directory.resolve("orders.seg");
+
+        Files.write(path, new byte[64]);
+
+        assertThrows(IOException.class, () -> Segment.open(path));
+    }
+}
@@ -0,0 +1,96 @@
+package eformer.back.eformer_backend.utility.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+/**
+ * Two in-memory H2 databases stand in for the primary & the replica,
+ * each transaction reports which one its connection came from.
+ */
+class ReadWriteRoutingDataSourceTest {
+    private DataSource dataSource;
+
+    private TransactionTemplate readWrite;
+
+    private TransactionTemplate readOnly;
+
+    private static DataSource h2(String name) {
+        var source = new JdbcDataSource();
+        source.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        return source;
+    }
+
+    @BeforeEach
+    void setUp() {
+        var targets = new HashMap<Object, Object>();
+        targets.put(DataSourceRole.PRIMARY, h2("routing-primary"));
+        targets.put(DataSourceRole.REPLICA, h2("routing-replica"));
+
+        var routing = new ReadWriteRoutingDataSource(new ReadYourWritesGuard(60_000));
+        routing.setTargetDataSources(targets);
+        routing.afterPropertiesSet();
+
+        dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        var transactions = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactions);
+        readOnly = new TransactionTemplate(transactions);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private String database(TransactionTemplate template) {
+        return template.execute(status -> {
+            try {
+                return DataSourceUtils.getConnection(dataSource).getMetaData().getURL();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private void signIn(String username) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(username, null));
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        assertEquals("jdbc:h2:mem:routing-replica", database(readOnly));
+    }
+
+    @Test
+    void readWriteTransactionsUseThePrimary() {
+        assertEquals("jdbc:h2:mem:routing-primary", database(readWrite));
+    }
+
+    @Test
+    void writerReadsItsOwnWritesFromThePrimary() {
+        signIn("writer");
+        database(readWrite);
+
+        assertEquals("jdbc:h2:mem:routing-primary", database(readOnly));
+
+        signIn("someone-else");
+
+        assertEquals("jdbc:h2:mem:routing-replica", database(readOnly));
+    }
+}
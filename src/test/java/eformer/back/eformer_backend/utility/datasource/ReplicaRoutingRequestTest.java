@@ -0,0 +1,127 @@
+package eformer.back.eformer_backend.utility.datasource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eformer.back.eformer_backend.model.Item;
+import eformer.back.eformer_backend.model.User;
+import eformer.back.eformer_backend.repository.ItemRepository;
+import eformer.back.eformer_backend.repository.UserRepository;
+import eformer.back.eformer_backend.utility.auth.JwtService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+
+/**
+ * The replica is the primary's H2 database opened as a user that may only SELECT,
+ * so any write routed to it fails like it would on a real replica.
+ * The primary's first connection creates that user.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:eformer-replica-routing;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;" +
+                "INIT=CREATE USER IF NOT EXISTS replica PASSWORD 'replica'\\\\;GRANT SELECT ON SCHEMA public TO replica",
+        "eformer.datasource.replica.url=jdbc:h2:mem:eformer-replica-routing;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "eformer.datasource.replica.username=replica",
+        "eformer.datasource.replica.password=replica",
+        "eformer.datasource.replica.driver-class-name=org.h2.Driver",
+        "eformer.datasource.replica.read-your-writes-window-ms=0"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReplicaRoutingRequestTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private ItemRepository itemRepo;
+
+    @Autowired
+    private JwtService jService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private TransactionTemplate readOnly() {
+        var readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly;
+    }
+
+    private String databaseUser() {
+        return jdbc.queryForObject("SELECT CURRENT_USER", String.class);
+    }
+
+    @Test
+    void replicaRejectsWrites() {
+        assertThrows(Exception.class, () -> readOnly().executeWithoutResult(status -> userRepo.save(
+                new User("replica_write", "replica_write@routing.test", "password", 0, "Replica write"))));
+    }
+
+    /**
+     * Binds one EntityManager around both transactions like open-in-view does for a request.
+     */
+    @Test
+    void transactionsSharingASessionRouteSeparately() {
+        var entityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+
+        try {
+            assertEquals("replica", readOnly().execute(status -> databaseUser()));
+            assertEquals("sa", new TransactionTemplate(transactionManager).execute(status -> {
+                userRepo.save(new User("routing_writer", "writer@routing.test", "password", 0, "Writer"));
+                return databaseUser();
+            }));
+            assertEquals("replica", readOnly().execute(status -> databaseUser()));
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            entityManager.close();
+        }
+    }
+
+    @Test
+    void writeAfterAReadInTheSameRequestUsesThePrimary() throws Exception {
+        var employee = userRepo.save(new User("routing_employee", "routing@routing.test", "password", 2, "Employee"));
+        var item = itemRepo.save(new Item("Routed item", "", 5, 2.0, 1.0));
+
+        var props = new HashMap<String, Object>();
+        props.put("itemId", item.getItemId());
+        props.put("quantity", 7);
+
+        /* items/update reads the item in a read-only transaction, then saves it & bumps the change counter */
+        mvc.perform(post("/api/v1/items/update")
+                        .header("authorization", "Bearer " + jService.generateToken(employee))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(props)))
+                .andExpect(status().isOk());
+
+        assertEquals(7, itemRepo.findById(item.getItemId()).orElseThrow().getQuantity());
+    }
+}
@@ -0,0 +1,132 @@
+package eformer.back.eformer_backend.utility.idempotency;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.HashMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+@SpringBootTest
+@ActiveProfiles("test")
+class IdempotencyServiceTest {
+    @Autowired
+    private IdempotencyService idempotency;
+
+    private static ResponseEntity<Object> ok(AtomicInteger executions) {
+        var body = new HashMap<String, Object>();
+        body.put("execution", executions.incrementAndGet());
+
+        return new ResponseEntity<>(body, HttpStatus.OK);
+    }
+
+    @Test
+    void retriesReplayTheFirstResponse() {
+        var executions = new AtomicInteger();
+        var key = UUID.randomUUID().toString();
+
+        var first = idempotency.execute("test", key, () -> ok(executions));
+        var retry = idempotency.execute("test", key, () -> ok(executions));
+
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.OK, retry.getStatusCode());
+        assertEquals("{\"execution\":1}", retry.getBody());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertNull(first.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void failuresAreNotStored() {
+        var executions = new AtomicInteger();
+        var key = UUID.randomUUID().toString();
+
+        idempotency.execute("test", key, () -> {
+            executions.incrementAndGet();
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        });
+        idempotency.execute("test", key, () -> ok(executions));
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void keysAreScopedByEndpoint() {
+        var executions = new AtomicInteger();
+        var key = UUID.randomUUID().toString();
+
+        idempotency.execute("create", key, () -> ok(executions));
+        idempotency.execute("confirm", key, () -> ok(executions));
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void longUsernamesAndKeysFitTheTable() {
+        var executions = new AtomicInteger();
+        var key = "k".repeat(255);
+
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("u".repeat(255), null));
+
+        try {
+            idempotency.execute("orders/create", key, () -> ok(executions));
+            var retry = idempotency.execute("orders/create", key, () -> ok(executions));
+
+            assertEquals(1, executions.get());
+            assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    void separatorsInUsernamesDoNotMergeKeys() {
+        assertEquals(64, IdempotencyService.recordKey("test", "a:b", "c").length());
+        assertNotEquals(IdempotencyService.recordKey("test", "a:b", "c"),
+                IdempotencyService.recordKey("test", "a", "b:c"));
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForTheFirstRequest() throws Exception {
+        var executions = new AtomicInteger();
+        var key = UUID.randomUUID().toString();
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        var first = CompletableFuture.supplyAsync(() -> idempotency.execute("test", key, () -> {
+            started.countDown();
+
+            try {
+                assertTrue(release.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+
+            return ok(executions);
+        }));
+
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        var duplicate = CompletableFuture.supplyAsync(() -> idempotency.execute("test", key, () -> ok(executions)));
+
+        release.countDown();
+
+        assertEquals(HttpStatus.OK, first.get(10, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(HttpStatus.OK, duplicate.get(10, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(1, executions.get());
+    }
+}
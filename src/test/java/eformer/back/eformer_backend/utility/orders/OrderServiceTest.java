@@ -0,0 +1,217 @@
+package eformer.back.eformer_backend.utility.orders;
+
+import eformer.back.eformer_backend.model.User;
+import eformer.back.eformer_backend.support.InMemoryCounterIssuer;
+import eformer.back.eformer_backend.support.InMemoryItemRepository;
+import eformer.back.eformer_backend.support.InMemoryOrderItemsRepository;
+import eformer.back.eformer_backend.support.InMemoryOrderRepository;
+import eformer.back.eformer_backend.utility.InvalidOrderUpdateException;
+import eformer.back.eformer_backend.utility.NegativeQuantityException;
+import eformer.back.eformer_backend.utility.orders.event.OrderCancelled;
+import eformer.back.eformer_backend.utility.orders.event.OrderConfirmed;
+import eformer.back.eformer_backend.utility.orders.event.OrderCreated;
+import eformer.back.eformer_backend.utility.orders.event.OrderLinesChanged;
+import eformer.back.eformer_backend.utility.sequence.ChangeSequencer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class OrderServiceTest {
+    private InMemoryItemRepository items;
+
+    private InMemoryOrderItemsRepository orderItems;
+
+    private InMemoryOrderRepository orders;
+
+    private OrderService service;
+
+    private final List<Object> events = new ArrayList<>();
+
+    private final User customer = new User("customer", "customer@eformer.io", "password", 0);
+
+    private final User employee = new User("employee", "employee@eformer.io", "password", 1);
+
+    @BeforeEach
+    void setUp() {
+        items = new InMemoryItemRepository();
+        orderItems = new InMemoryOrderItemsRepository();
+        orders = new InMemoryOrderRepository();
+        service = new OrderService(orders, orderItems, items, events::add,
+                new ChangeSequencer(new InMemoryCounterIssuer(), 0));
+
+        items.stock(1, "Pen", 10, 3.0, 1.0);
+        items.stock(2, "Notebook", 5, 10.0, 6.0);
+    }
+
+    private static HashMap<String, Integer> basket(int pens, int notebooks) {
+        var basket = new HashMap<String, Integer>();
+
+        if (pens > 0) {
+            basket.put("1", pens);
+        }
+
+        if (notebooks > 0) {
+            basket.put("2", notebooks);
+        }
+
+        return basket;
+    }
+
+    private int stock(int itemId) {
+        return items.findById(itemId).orElseThrow().getQuantity();
+    }
+
+    @Test
+    void createStoresTheHeaderWithItsFinalTotals() {
+        var order = service.create(customer, employee, "note", basket(2, 1));
+
+        var stored = orders.findById(order.getOrderId()).orElseThrow();
+
+        assertEquals(16.0, stored.getTotal());
+        assertEquals(3, stored.getNumberOfItems());
+        assertEquals(8.0, stored.getProfit());
+        assertEquals(2, orderItems.findAllByOrder(stored).size());
+        assertEquals(10, stock(1), "Pending orders do not take stock");
+    }
+
+    @Test
+    void createRejectsUnknownItemsAndShortStock() {
+        var unknown = new HashMap<String, Integer>();
+        unknown.put("99", 1);
+
+        assertThrows(InvalidOrderUpdateException.class, () -> service.create(customer, employee, "", unknown));
+        assertThrows(InvalidOrderUpdateException.class, () -> service.create(customer, employee, "", basket(11, 0)));
+        assertEquals(0, orders.count());
+        assertEquals(0, orderItems.count());
+    }
+
+    @Test
+    void createRejectsNonPositiveQuantities() {
+        var basket = basket(1, 0);
+        basket.put("2", 0);
+
+        assertThrows(NegativeQuantityException.class, () -> service.create(customer, employee, "", basket));
+    }
+
+    @Test
+    void updateReplacesTheLinesAndRecomputesTheTotals() {
+        var order = service.create(customer, employee, "", basket(2, 1));
+
+        service.update(order, basket(4, 0));
+
+        assertEquals(12.0, order.getTotal());
+        assertEquals(4, order.getNumberOfItems());
+        assertEquals(8.0, order.getProfit());
+
+        var lines = orderItems.findAllByOrder(order);
+
+        assertEquals(1, lines.size());
+        assertEquals(4, lines.get(0).getQuantity());
+    }
+
+    @Test
+    void confirmTakesStockAndCancelReturnsIt() {
+        var order = service.create(customer, employee, "", basket(2, 1));
+
+        service.confirm(order, 20.0);
+
+        assertEquals("Confirmed", order.getStatus());
+        assertEquals(8, stock(1));
+        assertEquals(4, stock(2));
+        assertThrows(InvalidOrderUpdateException.class, () -> service.update(order, basket(1, 0)));
+
+        service.cancel(order);
+
+        assertEquals("Cancelled", order.getStatus());
+        assertEquals(10, stock(1));
+        assertEquals(5, stock(2));
+        assertEquals(0, orderItems.findAllByOrder(order).size());
+        assertThrows(InvalidOrderUpdateException.class, () -> service.cancel(order));
+    }
+
+    @Test
+    void everyOperationPublishesItsEvent() {
+        var order = service.create(customer, employee, "", basket(2, 1));
+        service.update(order, basket(3, 0));
+        service.confirm(order, 9.0);
+        service.cancel(order);
+
+        assertEquals(4, events.size());
+        assertEquals(2, ((OrderCreated) events.get(0)).lines().size());
+        assertEquals(1, ((OrderLinesChanged) events.get(1)).lines().size());
+
+        var confirmed = (OrderConfirmed) events.get(2);
+        var cancelled = (OrderCancelled) events.get(3);
+
+        assertEquals(order.getOrderId(), confirmed.orderId());
+        assertEquals(7, confirmed.lines().get(0).stockAfter());
+        assertEquals(10, cancelled.lines().get(0).stockAfter());
+    }
+
+    @Test
+    void confirmFailsWhenStockRanOut() {
+        var first = service.create(customer, employee, "", basket(0, 4));
+        var second = service.create(customer, employee, "", basket(0, 4));
+
+        service.confirm(first, 40.0);
+
+        assertThrows(InvalidOrderUpdateException.class, () -> service.confirm(second, 40.0));
+    }
+
+    @Test
+    void stockChangesTakeNewChangeVersions() {
+        var order = service.create(customer, employee, "", basket(2, 1));
+
+        service.confirm(order, 20.0);
+
+        var pen = items.findById(1).orElseThrow().getChangeVersion();
+        var notebook = items.findById(2).orElseThrow().getChangeVersion();
+
+        assertEquals(1, Math.abs(pen - notebook));
+
+        service.cancel(order);
+
+        assertTrue(items.findById(1).orElseThrow().getChangeVersion() > Math.max(pen, notebook));
+    }
+
+    @Test
+    void everyOperationMovesTheOrderToTheEndOfTheChangeFeed() {
+        var first = service.create(customer, employee, "", basket(1, 0));
+        var second = service.create(customer, employee, "", basket(0, 1));
+
+        assertEquals(List.of(first, second), service.changesSince(0, 10));
+
+        var sequence = second.getChangeSequence();
+
+        service.confirm(first, 3.0);
+
+        assertEquals(List.of(first), service.changesSince(sequence, 10));
+        assertEquals(List.of(second), service.changesSince(0, 1));
+
+        service.cancel(second);
+
+        assertEquals(List.of(first, second), service.changesSince(sequence, 10));
+    }
+
+    @Test
+    void retiredItemsCannotBeOrdered() {
+        var pending = service.create(customer, employee, "", basket(1, 1));
+
+        items.findById(2).orElseThrow().setRetired(true);
+
+        assertThrows(InvalidOrderUpdateException.class,
+                () -> service.create(customer, employee, "", basket(0, 1)));
+
+        /* Lines ordered before the item was retired may stay */
+        service.update(pending, basket(2, 1));
+        assertEquals(2, orderItems.findAllByOrder(pending).size());
+    }
+}
@@ -0,0 +1,84 @@
+package eformer.back.eformer_backend.utility.outbox;
+
+import eformer.back.eformer_backend.model.OutboxEvent;
+import eformer.back.eformer_backend.repository.OutboxEventRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Runs the native claim query of OutboxEventRepository on H2 in MySQL mode.
+ * H2 2.1 has no `SKIP LOCKED`, so that clause is left out here & only runs on MySQL.
+ * Events are dated in 2000 so rows written by other tests are never due.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OutboxClaimQueryTest {
+    private static final Instant NOW = Instant.parse("2000-01-02T00:00:00Z");
+
+    @Autowired
+    private OutboxEventRepository outbox;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private OutboxEvent event(Instant createdAt, String status) {
+        var event = new OutboxEvent(1, "OrderCreated", "{}", Timestamp.from(createdAt));
+        event.setStatus(status);
+        return outbox.save(event);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<OutboxEvent> claim(int limit) throws NoSuchMethodException {
+        var sql = OutboxEventRepository.class.getMethod("claimDue", Date.class, int.class)
+                .getAnnotation(Query.class)
+                .value();
+
+        assertTrue(sql.endsWith(" SKIP LOCKED"), sql);
+
+        return new TransactionTemplate(transactionManager).execute(status -> entityManager
+                .createNativeQuery(sql.substring(0, sql.length() - " SKIP LOCKED".length()), OutboxEvent.class)
+                .setParameter("now", Date.from(NOW))
+                .setParameter("limit", limit)
+                .getResultList());
+    }
+
+    private static List<Long> idsOf(List<OutboxEvent> events) {
+        return events.stream().map(OutboxEvent::getEventId).toList();
+    }
+
+    @Test
+    void claimsDuePendingEventsInOrder() throws Exception {
+        var first = event(NOW.minusSeconds(60), OutboxEvent.PENDING);
+        var dueNow = event(NOW, OutboxEvent.PENDING);
+        var third = event(NOW.minusSeconds(30), OutboxEvent.PENDING);
+
+        event(NOW.plusSeconds(1), OutboxEvent.PENDING);
+        event(NOW.minusSeconds(60), OutboxEvent.SENT);
+        event(NOW.minusSeconds(60), OutboxEvent.DEAD);
+
+        var claimed = claim(10);
+
+        assertEquals(List.of(first.getEventId(), dueNow.getEventId(), third.getEventId()), idsOf(claimed));
+        assertEquals(List.of(first.getEventId(), dueNow.getEventId()), idsOf(claim(2)));
+        assertEquals(OutboxEvent.PENDING, claimed.get(0).getStatus());
+    }
+}
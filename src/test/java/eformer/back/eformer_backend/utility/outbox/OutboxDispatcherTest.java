@@ -0,0 +1,133 @@
+package eformer.back.eformer_backend.utility.outbox;
+
+import eformer.back.eformer_backend.model.OutboxEvent;
+import eformer.back.eformer_backend.support.InMemoryOutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class OutboxDispatcherTest {
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static OutboxDispatcher dispatcher(OutboxPublisher publisher) {
+        return new OutboxDispatcher(null, null, publisher, new SimpleMeterRegistry(),
+                false, 10, 1, MAX_ATTEMPTS, 1_000, 3_000, 60_000, 24);
+    }
+
+    private static OutboxEvent event() {
+        return new OutboxEvent(1, "OrderCreated", "{}", new Timestamp(0));
+    }
+
+    @Test
+    void deliveredEventsAreSent() {
+        var event = event();
+
+        dispatcher(ignored -> {}).deliver(event, 5_000);
+
+        assertEquals(OutboxEvent.SENT, event.getStatus());
+        assertEquals(5_000, event.getSentAt().getTime());
+        assertNull(event.getLastError());
+    }
+
+    @Test
+    void failuresBackOffThenGoDead() {
+        var event = event();
+        var dispatcher = dispatcher(ignored -> {
+            throw new IllegalStateException("Broker down");
+        });
+
+        dispatcher.deliver(event, 0);
+
+        assertEquals(OutboxEvent.PENDING, event.getStatus());
+        assertEquals(1_000, event.getAvailableAt().getTime());
+        assertEquals("Broker down", event.getLastError());
+
+        dispatcher.deliver(event, 10_000);
+
+        /* Backoff doubles with every attempt */
+        assertEquals(12_000, event.getAvailableAt().getTime());
+
+        dispatcher.deliver(event, 20_000);
+
+        assertEquals(OutboxEvent.DEAD, event.getStatus());
+        assertEquals(MAX_ATTEMPTS, event.getAttempts());
+    }
+
+    /**
+     * Runs no transaction but sets up the same thread-bound state as a real one.
+     */
+    private static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+
+    private static OutboxDispatcher polling(InMemoryOutboxEventRepository outbox, OutboxPublisher publisher) {
+        return new OutboxDispatcher(outbox, new NoOpTransactionManager(), publisher, new SimpleMeterRegistry(),
+                true, 2, 10, MAX_ATTEMPTS, 1_000, 3_000, 60_000, 24);
+    }
+
+    @Test
+    void publishesOutsideTheClaimTransaction() {
+        var outbox = new InMemoryOutboxEventRepository();
+        var published = new ArrayList<Long>();
+
+        for (int i = 0; i < 5; i++) {
+            outbox.save(event());
+        }
+
+        polling(outbox, event -> {
+            assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+            published.add(event.getEventId());
+        }).poll();
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), published);
+        assertEquals(5, outbox.countByStatus(OutboxEvent.SENT));
+    }
+
+    @Test
+    void claimedEventsAreHiddenFromOtherPollersUntilTheLeaseEnds() {
+        var outbox = new InMemoryOutboxEventRepository();
+        var claimedByOthers = new ArrayList<OutboxEvent>();
+
+        outbox.save(event());
+
+        polling(outbox, event -> {
+            var now = System.currentTimeMillis();
+
+            claimedByOthers.addAll(outbox.claimDue(new Date(now), 10));
+
+            /* Still claimable if this node never marks it */
+            assertEquals(1, outbox.claimDue(new Date(now + 60_000), 10).size());
+        }).poll();
+
+        assertTrue(claimedByOthers.isEmpty());
+    }
+}
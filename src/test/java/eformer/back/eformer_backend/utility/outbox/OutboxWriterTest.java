@@ -0,0 +1,93 @@
+package eformer.back.eformer_backend.utility.outbox;
+
+import eformer.back.eformer_backend.model.Item;
+import eformer.back.eformer_backend.model.OutboxEvent;
+import eformer.back.eformer_backend.model.User;
+import eformer.back.eformer_backend.repository.ItemRepository;
+import eformer.back.eformer_backend.repository.OutboxEventRepository;
+import eformer.back.eformer_backend.repository.UserRepository;
+import eformer.back.eformer_backend.utility.orders.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OutboxWriterTest {
+    @Autowired
+    private OrderService orders;
+
+    @Autowired
+    private OutboxEventRepository outbox;
+
+    @Autowired
+    private UserRepository users;
+
+    @Autowired
+    private ItemRepository items;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User user(int adLevel) {
+        var name = "outbox_" + UUID.randomUUID().toString().substring(0, 8);
+        return users.save(new User(name, name + "@outbox.test", "password", adLevel, name));
+    }
+
+    private HashMap<String, Integer> basket() {
+        var item = items.save(new Item("Outbox item " + UUID.randomUUID(), "", 10, 2.0, 1.0));
+        var basket = new HashMap<String, Integer>();
+        basket.put(String.valueOf(item.getItemId()), 1);
+
+        return basket;
+    }
+
+    private ArrayList<OutboxEvent> eventsOf(Integer orderId) {
+        var events = new ArrayList<OutboxEvent>();
+
+        for (var event: outbox.findAll()) {
+            if (orderId.equals(event.getAggregateId())) {
+                events.add(event);
+            }
+        }
+
+        return events;
+    }
+
+    @Test
+    void committedChangesAreInTheOutbox() {
+        var order = orders.create(user(0), user(1), "", basket());
+        var events = eventsOf(order.getOrderId());
+
+        assertEquals(1, events.size());
+        assertEquals("OrderCreated", events.get(0).getType());
+        assertEquals(OutboxEvent.PENDING, events.get(0).getStatus());
+        assertTrue(events.get(0).getPayload().contains("\"orderId\":" + order.getOrderId()));
+    }
+
+    @Test
+    void rolledBackChangesAreNot() {
+        var customer = user(0);
+        var employee = user(1);
+        var basket = basket();
+        var before = outbox.count();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            orders.create(customer, employee, "", basket);
+            status.setRollbackOnly();
+        });
+
+        assertEquals(before, outbox.count());
+    }
+}
@@ -0,0 +1,62 @@
+package eformer.back.eformer_backend.utility.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class PrefixIndexTest {
+    private PrefixIndex<Integer> index;
+
+    @BeforeEach
+    void fill() {
+        index = new PrefixIndex<>(3, 1);
+        index.put(1, 1, "Red Apple", "Fresh fruit");
+        index.put(2, 2, "Apple Juice", "Pressed from red apples");
+        index.put(3, 3, "Pineapple", "Tropical fruit");
+        index.put(4, 4, "Crème Brûlée", "Dessert with apple notes");
+    }
+
+    @Test
+    void everyWordMustPrefixAToken() {
+        assertEquals(List.of(1, 2), index.search("red app", null, 0, 10));
+        assertEquals(List.of(), index.search("red pine", null, 0, 10));
+        assertEquals(List.of(), index.search(" ,; ", null, 0, 10));
+    }
+
+    @Test
+    void namesRankAboveDescriptions() {
+        /* A name starting with the query first, then names, then descriptions */
+        assertEquals(List.of(2, 1, 4), index.search("apple", null, 0, 10));
+        assertEquals(List.of(1, 3), index.search("fruit", null, 0, 10));
+    }
+
+    @Test
+    void ignoresCaseAndAccents() {
+        assertEquals(List.of(4), index.search("CREME brul", null, 0, 10));
+    }
+
+    @Test
+    void pagesAndFilters() {
+        assertEquals(List.of(1), index.search("apple", null, 1, 1));
+        assertEquals(List.of(1, 4), index.search("apple", id -> id != 2, 0, 10));
+    }
+
+    @Test
+    void updatesReplaceTokens() {
+        index.put(3, 3, "Mango", "Tropical fruit");
+        assertEquals(List.of(), index.search("pine", null, 0, 10));
+        assertEquals(List.of(3), index.search("man", null, 0, 10));
+
+        index.remove(3);
+        assertEquals(List.of(), index.search("tropical", null, 0, 10));
+
+        index.retainIf(id -> id < 2);
+        assertEquals(1, index.size());
+        assertTrue(index.contains(1));
+    }
+}
@@ -0,0 +1,45 @@
+package eformer.back.eformer_backend.utility.sequence;
+
+import eformer.back.eformer_backend.support.InMemoryCounterIssuer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+class ChangeSequencerTest {
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    private ChangeSequencer sequencer;
+
+    @BeforeEach
+    void setUp() {
+        sequencer = new ChangeSequencer(new InMemoryCounterIssuer(), 1000, now::get);
+    }
+
+    @Test
+    void handsOutConsecutiveRanges() {
+        assertEquals(1, sequencer.next(ChangeSequencer.ITEMS, 3));
+        assertEquals(4, sequencer.next(ChangeSequencer.ITEMS, 1));
+        assertEquals(1, sequencer.next(ChangeSequencer.ORDERS, 1));
+    }
+
+    @Test
+    void watermarkTrailsByTheCommitLag() {
+        sequencer.next(ChangeSequencer.ITEMS, 5);
+        assertEquals(0, sequencer.watermark(ChangeSequencer.ITEMS));
+
+        now.addAndGet(500);
+        sequencer.next(ChangeSequencer.ITEMS, 5);
+        assertEquals(0, sequencer.watermark(ChangeSequencer.ITEMS));
+
+        /* Only the versions issued a full lag ago */
+        now.addAndGet(500);
+        assertEquals(5, sequencer.watermark(ChangeSequencer.ITEMS));
+
+        now.addAndGet(500);
+        assertEquals(10, sequencer.watermark(ChangeSequencer.ITEMS));
+    }
+}
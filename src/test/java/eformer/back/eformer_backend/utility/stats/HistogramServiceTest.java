@@ -0,0 +1,106 @@
+package eformer.back.eformer_backend.utility.stats;
+
+import eformer.back.eformer_backend.api.v1.request.HistogramRequest;
+import eformer.back.eformer_backend.model.Order;
+import eformer.back.eformer_backend.support.InMemoryOrderRepository;
+import eformer.back.eformer_backend.utility.archive.OrderHistory;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+/**
+ * Berlin moves from +01:00 to +02:00 on 2024-03-31 & back on 2024-10-27.
+ */
+class HistogramServiceTest {
+    private static final String ZONE = "Europe/Berlin";
+
+    private final InMemoryOrderRepository orders = new InMemoryOrderRepository();
+
+    private final HistogramService histograms =
+            new HistogramService(new OrderHistory(orders, null, null, false, 365));
+
+    private void order(String created, double total, String status) {
+        orders.save(new Order(null, total, Timestamp.from(Instant.parse(created)), 1,
+                total, status, null, null, "", total / 2) {});
+    }
+
+    private List<LinkedHashMap<String, Object>> compute(String start, String end, String bucket) {
+        return histograms.compute(new HistogramRequest(Instant.parse(start), Instant.parse(end), ZONE, bucket));
+    }
+
+    private static void assertBucket(LinkedHashMap<String, Object> bucket, String start, long count, double revenue) {
+        assertEquals(start, bucket.get("start"));
+        assertEquals(count, bucket.get("orders"));
+        assertEquals(revenue, (Double) bucket.get("revenue"), 1e-9);
+    }
+
+    @Test
+    void daysFollowTheCalendarAcrossTheSpringChange() {
+        order("2024-03-30T22:30:00Z", 1.0, "Confirmed"); /* 23:30 on the 30th */
+        order("2024-03-30T23:30:00Z", 2.0, "Confirmed"); /* 00:30 on the 31st */
+        order("2024-03-31T21:30:00Z", 4.0, "Confirmed"); /* 23:30 on the 31st, a 23 hour day */
+        order("2024-03-31T22:30:00Z", 8.0, "Pending");   /* 00:30 on April 1st */
+        order("2024-03-31T12:00:00Z", 100.0, "Cancelled");
+
+        var buckets = compute("2024-03-29T23:00:00Z", "2024-04-01T22:00:00Z", "DAY");
+
+        assertEquals(3, buckets.size());
+        assertBucket(buckets.get(0), "2024-03-30T00:00+01:00", 1, 1.0);
+        assertBucket(buckets.get(1), "2024-03-31T00:00+01:00", 2, 6.0);
+        assertBucket(buckets.get(2), "2024-04-01T00:00+02:00", 1, 8.0);
+        assertEquals(4.0, (Double) buckets.get(2).get("profit"), 1e-9);
+    }
+
+    @Test
+    void daysFollowTheCalendarAcrossTheAutumnChange() {
+        order("2024-10-26T22:30:00Z", 1.0, "Confirmed"); /* 00:30 on the 27th */
+        order("2024-10-27T22:30:00Z", 2.0, "Confirmed"); /* 23:30 on the 27th, a 25 hour day */
+        order("2024-10-27T23:30:00Z", 4.0, "Confirmed"); /* 00:30 on the 28th */
+
+        /* Starts mid-day, the first bucket still starts at midnight */
+        var buckets = compute("2024-10-26T12:00:00Z", "2024-10-28T23:00:00Z", "DAY");
+
+        assertEquals(3, buckets.size());
+        assertBucket(buckets.get(0), "2024-10-26T00:00+02:00", 0, 0.0);
+        assertBucket(buckets.get(1), "2024-10-27T00:00+02:00", 2, 3.0);
+        assertBucket(buckets.get(2), "2024-10-28T00:00+01:00", 1, 4.0);
+    }
+
+    @Test
+    void weeksStartOnMondayMidnight() {
+        order("2024-03-24T22:30:00Z", 1.0, "Confirmed"); /* Monday 25th 00:30 +01:00 */
+        order("2024-03-31T22:30:00Z", 2.0, "Confirmed"); /* Monday April 1st 00:30 +02:00 */
+        order("2024-03-31T21:30:00Z", 4.0, "Confirmed"); /* Sunday 31st 23:30 */
+
+        var buckets = compute("2024-03-27T12:00:00Z", "2024-04-03T12:00:00Z", "WEEK");
+
+        assertEquals(2, buckets.size());
+        assertBucket(buckets.get(0), "2024-03-25T00:00+01:00", 1, 4.0);
+        assertBucket(buckets.get(1), "2024-04-01T00:00+02:00", 1, 2.0);
+    }
+
+    @Test
+    void hoursSkipTheMissingLocalHour() {
+        order("2024-03-31T00:30:00Z", 1.0, "Confirmed"); /* 01:30 +01:00 */
+        order("2024-03-31T01:30:00Z", 2.0, "Confirmed"); /* 03:30 +02:00 */
+
+        var buckets = compute("2024-03-31T00:00:00Z", "2024-03-31T02:00:00Z", "HOUR");
+
+        assertEquals(2, buckets.size());
+        assertBucket(buckets.get(0), "2024-03-31T01:00+01:00", 1, 1.0);
+        assertBucket(buckets.get(1), "2024-03-31T03:00+02:00", 1, 2.0);
+    }
+
+    @Test
+    void rejectsTooManyBuckets() {
+        assertThrows(IllegalArgumentException.class,
+                () -> compute("2000-01-01T00:00:00Z", "2024-01-01T00:00:00Z", "HOUR"));
+    }
+}
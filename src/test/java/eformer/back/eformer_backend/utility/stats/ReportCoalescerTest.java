@@ -0,0 +1,93 @@
+package eformer.back.eformer_backend.utility.stats;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class ReportCoalescerTest {
+    @Test
+    void concurrentCallsShareOneExecution() throws Exception {
+        var coalescer = new ReportCoalescer(0, 10, new SimpleMeterRegistry());
+        var executions = new AtomicInteger();
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        var leader = CompletableFuture.supplyAsync(() -> coalescer.get("report", () -> {
+            started.countDown();
+
+            try {
+                assertTrue(release.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+
+            return executions.incrementAndGet();
+        }));
+
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        var followers = new ArrayList<CompletableFuture<Integer>>();
+
+        for (int i = 0; i < 4; i++) {
+            followers.add(CompletableFuture.supplyAsync(
+                    () -> coalescer.get("report", executions::incrementAndGet)));
+        }
+
+        /* Give the followers time to join the running query */
+        Thread.sleep(200);
+        release.countDown();
+
+        assertEquals(1, leader.get(10, TimeUnit.SECONDS));
+
+        for (var follower: followers) {
+            assertEquals(1, follower.get(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void resultsAreKeptForTheTtlUntilInvalidated() {
+        var coalescer = new ReportCoalescer(60_000, 10, new SimpleMeterRegistry());
+        var executions = new AtomicInteger();
+
+        assertEquals(1, coalescer.get("report", executions::incrementAndGet));
+        assertEquals(1, coalescer.get("report", executions::incrementAndGet));
+        assertEquals(2, coalescer.get("other", executions::incrementAndGet));
+
+        coalescer.invalidate();
+
+        assertEquals(3, coalescer.get("report", executions::incrementAndGet));
+    }
+
+    @Test
+    void withoutTtlSequentialCallsExecuteAgain() {
+        var coalescer = new ReportCoalescer(0, 10, new SimpleMeterRegistry());
+        var executions = new AtomicInteger();
+
+        coalescer.get("report", executions::incrementAndGet);
+        coalescer.get("report", executions::incrementAndGet);
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void failuresAreNotKept() {
+        var coalescer = new ReportCoalescer(60_000, 10, new SimpleMeterRegistry());
+
+        assertThrows(IllegalStateException.class, () -> coalescer.get("report", () -> {
+            throw new IllegalStateException("Database down");
+        }));
+        assertEquals("ok", coalescer.get("report", () -> "ok"));
+    }
+}
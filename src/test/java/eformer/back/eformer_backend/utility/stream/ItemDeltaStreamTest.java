@@ -0,0 +1,192 @@
+package eformer.back.eformer_backend.utility.stream;
+
+import eformer.back.eformer_backend.utility.orders.event.OrderConfirmed;
+import eformer.back.eformer_backend.utility.orders.event.OrderLine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class ItemDeltaStreamTest {
+    private ItemDeltaStream stream;
+
+    private RecordingEmitter client;
+
+    /* Keeps the JSON payloads & the text of every event sent */
+    static final class RecordingEmitter extends SseEmitter {
+        final List<Object> sent = new ArrayList<>();
+
+        final List<String> text = new ArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            var event = new StringBuilder();
+
+            for (var part: builder.build()) {
+                if (part.getData() instanceof String chunk) {
+                    event.append(chunk);
+                } else {
+                    sent.add(part.getData());
+                }
+            }
+
+            text.add(event.toString());
+        }
+    }
+
+    /* A client that stopped reading, its send blocks until the connection is closed */
+    static final class StalledEmitter extends SseEmitter {
+        final CountDownLatch sending = new CountDownLatch(1);
+
+        final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+
+            try {
+                closed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            throw new IOException("Connection closed");
+        }
+
+        @Override
+        public synchronized void completeWithError(Throwable ex) {
+            closed.countDown();
+            super.completeWithError(ex);
+        }
+    }
+
+    @BeforeEach
+    void connect() {
+        stream = new ItemDeltaStream(new SyncTaskExecutor(), null, 250, 1, 3, 60_000, 0, 60_000);
+        client = new RecordingEmitter();
+
+        assertTrue(stream.subscribe(client));
+    }
+
+    @Test
+    void coalescesDeltasOfTheSameItem() {
+        stream.publish(new ItemDelta(1, 10, 2.0, 1L));
+        stream.publish(new ItemDelta(2, 5, 1.0, 2L));
+        stream.onConfirmed(new OrderConfirmed(7, 1, 4.0, 2.0, 4.0, Instant.now(), Instant.now(),
+                List.of(new OrderLine(1, 2, 2.0, 1.0, 8, 3L))));
+        stream.flush();
+
+        assertEquals(List.of(List.of(new ItemDelta(1, 8, 2.0, 3L), new ItemDelta(2, 5, 1.0, 2L))), client.sent);
+
+        /* Nothing queued & no heartbeat due */
+        stream.flush();
+        assertEquals(1, client.text.size());
+    }
+
+    @Test
+    void keepsTheLatestVersionOfAnItem() {
+        stream.publish(new ItemDelta(1, 8, 2.0, 5L));
+        stream.publish(new ItemDelta(1, 10, 2.0, 4L));
+        stream.flush();
+
+        assertEquals(List.of(List.of(new ItemDelta(1, 8, 2.0, 5L))), client.sent);
+    }
+
+    @Test
+    void overflowingConnectionsAreToldToResync() {
+        for (int i = 0; i < 4; i++) {
+            stream.publish(new ItemDelta(i, i, 1.0, 1L));
+        }
+
+        stream.flush();
+        assertTrue(client.sent.isEmpty());
+        assertTrue(client.text.get(0).startsWith("event:resync\n"));
+
+        stream.publish(new ItemDelta(1, 1, 1.0, 1L));
+        stream.flush();
+        assertEquals(List.of(List.of(new ItemDelta(1, 1, 1.0, 1L))), client.sent);
+    }
+
+    @Test
+    void stalledClientsAreClosedSoOthersAreServed() throws Exception {
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.initialize();
+
+        try {
+            var stream = new ItemDeltaStream(executor, null, 250, 2, 3, 60_000, 0, 50);
+            var stalled = new StalledEmitter();
+            var reading = new RecordingEmitter();
+
+            assertTrue(stream.subscribe(stalled));
+            assertTrue(stream.subscribe(reading));
+
+            stream.publish(new ItemDelta(1, 1, 1.0, 1L));
+            stream.flush();
+
+            /* The only thread is stuck on the stalled client, the other send waits behind it */
+            assertTrue(stalled.sending.await(5, TimeUnit.SECONDS));
+            assertTrue(reading.text.isEmpty());
+
+            /* A flush after the write timeout closes the stalled connection */
+            Thread.sleep(100);
+            stream.flush();
+
+            assertTrue(stalled.closed.await(5, TimeUnit.SECONDS));
+            assertEquals(1, stream.connections());
+
+            executor.getThreadPoolExecutor().shutdown();
+            assertTrue(executor.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS));
+            assertEquals(List.of(List.of(new ItemDelta(1, 1, 1.0, 1L))), reading.sent);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void flushesOnItsOwnScheduler() throws Exception {
+        var scheduler = new ThreadPoolTaskScheduler();
+        scheduler.initialize();
+
+        try {
+            var stream = new ItemDeltaStream(new SyncTaskExecutor(), scheduler, 10, 1, 3, 60_000, 0, 60_000);
+            var sent = new CountDownLatch(1);
+            var client = new SseEmitter() {
+                @Override
+                public void send(SseEventBuilder builder) {
+                    sent.countDown();
+                }
+            };
+
+            assertTrue(stream.subscribe(client));
+
+            stream.start();
+            stream.publish(new ItemDelta(1, 1, 1.0, 1L));
+
+            assertTrue(sent.await(5, TimeUnit.SECONDS));
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void limitsConnections() {
+        assertFalse(stream.subscribe(new RecordingEmitter()));
+        assertEquals(1, stream.connections());
+    }
+}
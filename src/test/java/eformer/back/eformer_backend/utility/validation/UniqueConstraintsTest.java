@@ -0,0 +1,61 @@
+package eformer.back.eformer_backend.utility.validation;
+
+import eformer.back.eformer_backend.model.Item;
+import eformer.back.eformer_backend.model.User;
+import eformer.back.eformer_backend.repository.ItemRepository;
+import eformer.back.eformer_backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UniqueConstraintsTest {
+    @Autowired
+    private ItemRepository itemRepo;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void recognisesATakenItemName() {
+        itemRepo.save(new Item("Unique espresso", "", 1, 2.0, 1.0));
+
+        var e = assertThrows(DataIntegrityViolationException.class,
+                () -> itemRepo.save(new Item("Unique espresso", "", 1, 2.0, 1.0)));
+
+        assertTrue(UniqueConstraints.isViolated(e, UniqueConstraints.ITEM_NAME));
+        assertFalse(UniqueConstraints.isViolated(e, UniqueConstraints.USER_USERNAME, UniqueConstraints.USER_EMAIL));
+    }
+
+    @Test
+    void recognisesATakenEmail() {
+        userRepo.save(new User("unique_a", "unique@test.io", "password", 0, "A"));
+
+        var e = assertThrows(DataIntegrityViolationException.class,
+                () -> userRepo.save(new User("unique_b", "unique@test.io", "password", 0, "B")));
+
+        assertTrue(UniqueConstraints.isViolated(e, UniqueConstraints.USER_USERNAME, UniqueConstraints.USER_EMAIL));
+        assertFalse(UniqueConstraints.isViolated(e, UniqueConstraints.ITEM_NAME));
+    }
+
+    @Test
+    void otherViolationsAreNotTakenNames() {
+        /* NOT NULL change_version */
+        var e = assertThrows(DataIntegrityViolationException.class,
+                () -> jdbc.update("INSERT INTO items (name, change_version, retired) VALUES ('Null version', NULL, 0)"));
+
+        assertFalse(UniqueConstraints.isViolated(e, UniqueConstraints.ITEM_NAME));
+    }
+}